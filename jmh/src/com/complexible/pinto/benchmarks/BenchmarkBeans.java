@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.benchmarks;
+
+import com.complexible.pinto.Identifiable;
+import com.complexible.pinto.annotations.Iri;
+import com.complexible.pinto.annotations.RdfProperty;
+import com.complexible.pinto.impl.IdentifiableImpl;
+import org.openrdf.model.Resource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * <p>The beans exercised by the benchmarks, one for each shape of RDF the mapper produces.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class BenchmarkBeans {
+
+	private BenchmarkBeans() {
+		throw new AssertionError();
+	}
+
+	public enum Status {
+		Active,
+
+		Suspended,
+
+		@Iri("urn:pinto:benchmarks:Closed")
+		Closed
+	}
+
+	/**
+	 * Base class for the benchmark beans, so the id assigned on write can be used to read the bean back
+	 */
+	public static abstract class Bean implements Identifiable {
+		private final Identifiable mIdentifiable = new IdentifiableImpl();
+
+		@Override
+		public Resource id() {
+			return mIdentifiable.id();
+		}
+
+		@Override
+		public void id(final Resource theResource) {
+			mIdentifiable.id(theResource);
+		}
+	}
+
+	/**
+	 * A flat bean with only literal valued properties
+	 */
+	public static class Person extends Bean {
+		private String mName;
+		private String mEmail;
+		private int mAge;
+		private boolean mActive;
+
+		public String getName() {
+			return mName;
+		}
+
+		public void setName(final String theName) {
+			mName = theName;
+		}
+
+		public String getEmail() {
+			return mEmail;
+		}
+
+		public void setEmail(final String theEmail) {
+			mEmail = theEmail;
+		}
+
+		public int getAge() {
+			return mAge;
+		}
+
+		public void setAge(final int theAge) {
+			mAge = theAge;
+		}
+
+		public boolean isActive() {
+			return mActive;
+		}
+
+		public void setActive(final boolean theActive) {
+			mActive = theActive;
+		}
+	}
+
+	public static class Address extends Bean {
+		private String mStreet;
+		private String mCity;
+		private String mCountry;
+
+		public String getStreet() {
+			return mStreet;
+		}
+
+		public void setStreet(final String theStreet) {
+			mStreet = theStreet;
+		}
+
+		public String getCity() {
+			return mCity;
+		}
+
+		public void setCity(final String theCity) {
+			mCity = theCity;
+		}
+
+		public String getCountry() {
+			return mCountry;
+		}
+
+		public void setCountry(final String theCountry) {
+			mCountry = theCountry;
+		}
+	}
+
+	/**
+	 * A bean with nested beans
+	 */
+	public static class Company extends Bean {
+		private String mName;
+		private Person mCeo;
+		private Address mAddress;
+
+		public String getName() {
+			return mName;
+		}
+
+		public void setName(final String theName) {
+			mName = theName;
+		}
+
+		public Person getCeo() {
+			return mCeo;
+		}
+
+		public void setCeo(final Person theCeo) {
+			mCeo = theCeo;
+		}
+
+		public Address getAddress() {
+			return mAddress;
+		}
+
+		public void setAddress(final Address theAddress) {
+			mAddress = theAddress;
+		}
+	}
+
+	/**
+	 * A bean with a collection of beans serialized as repeated property assertions
+	 */
+	public static class Team extends Bean {
+		private String mName;
+		private List<Person> mMembers = new ArrayList<>();
+
+		public String getName() {
+			return mName;
+		}
+
+		public void setName(final String theName) {
+			mName = theName;
+		}
+
+		public List<Person> getMembers() {
+			return mMembers;
+		}
+
+		public void setMembers(final List<Person> theMembers) {
+			mMembers = theMembers;
+		}
+	}
+
+	/**
+	 * A bean with a collection of literals serialized as an {@code rdf:List}
+	 */
+	public static class Series extends Bean {
+		private List<Integer> mValues = new ArrayList<>();
+
+		@RdfProperty(isList = true)
+		public List<Integer> getValues() {
+			return mValues;
+		}
+
+		public void setValues(final List<Integer> theValues) {
+			mValues = theValues;
+		}
+	}
+
+	public static class Registry extends Bean {
+		private Map<String, Integer> mEntries = new LinkedHashMap<>();
+
+		public Map<String, Integer> getEntries() {
+			return mEntries;
+		}
+
+		public void setEntries(final Map<String, Integer> theEntries) {
+			mEntries = theEntries;
+		}
+	}
+
+	public static class Account extends Bean {
+		private String mName;
+		private Status mStatus;
+
+		public String getName() {
+			return mName;
+		}
+
+		public void setName(final String theName) {
+			mName = theName;
+		}
+
+		public Status getStatus() {
+			return mStatus;
+		}
+
+		public void setStatus(final Status theStatus) {
+			mStatus = theStatus;
+		}
+	}
+
+	/**
+	 * A bean whose values are handled by a {@link com.complexible.pinto.RDFCodec codec}
+	 */
+	public static class Tokens extends Bean {
+		private List<UUID> mIds = new ArrayList<>();
+
+		public List<UUID> getIds() {
+			return mIds;
+		}
+
+		public void setIds(final List<UUID> theIds) {
+			mIds = theIds;
+		}
+	}
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.benchmarks;
+
+import com.complexible.common.openrdf.model.Models2;
+import com.complexible.pinto.RDFMapper;
+import com.complexible.pinto.benchmarks.BenchmarkBeans.*;
+import com.complexible.pinto.codecs.UUIDCodec;
+import com.complexible.pinto.fixtures.GraphGenerator;
+import com.complexible.pinto.fixtures.SyntheticBeans;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * <p>Throughput of {@link RDFMapper#readValue(Model, Class, Resource)} and {@link RDFMapper#writeValue(Object)} for
+ * each shape of bean, at graph sizes from 10^2 to 10^6 triples.</p>
+ *
+ * <p>Beans which are a single, small, description (flat, nested, enum) are read out of a graph padded with other
+ * beans of the same type up to the requested size, and written as a batch of beans totalling that size.  Beans with a
+ * collection, list or map are sized so that their own description is the requested size.</p>
+ *
+ * <p>Run with {@code gradle jmh}, which reports ops/sec along with the normalized allocation rate, bytes per op, from
+ * the GC profiler.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RDFMapperBenchmarks {
+
+	@State(Scope.Benchmark)
+	public static abstract class GraphState {
+		@Param({ "100", "1000", "10000", "100000", "1000000" })
+		public int triples;
+
+		protected RDFMapper mMapper;
+
+		protected RDFMapper mapper() {
+			return RDFMapper.builder()
+			                .codec(UUID.class, UUIDCodec.Instance)
+			                .build();
+		}
+
+		/**
+		 * Create beans until their RDF adds up to the requested number of triples
+		 */
+		protected <T> List<T> beans(final IntFunction<T> theFactory, final Model theGraph) {
+			final List<T> aBeans = new ArrayList<>();
+
+			for (int i = 0; theGraph.size() < triples; i++) {
+				final T aBean = theFactory.apply(i);
+
+				theGraph.addAll(mMapper.writeValue(aBean));
+				aBeans.add(aBean);
+			}
+
+			return aBeans;
+		}
+	}
+
+	/**
+	 * A bean out of a graph of many beans of the same type
+	 */
+	public static abstract class BatchState<T extends Bean> extends GraphState {
+		protected Model mGraph;
+		protected List<T> mBeans;
+		protected Resource mTarget;
+
+		protected abstract T bean(final int theIndex);
+
+		@Setup(Level.Trial)
+		public void setup() {
+			mMapper = mapper();
+			mGraph = Models2.newModel();
+			mBeans = beans(this::bean, mGraph);
+
+			// read from the middle of the graph
+			mTarget = mBeans.get(mBeans.size() / 2).id();
+		}
+	}
+
+	/**
+	 * A single bean whose own description is the size of the graph
+	 */
+	public static abstract class SingleState<T extends Bean> extends GraphState {
+		protected Model mGraph;
+		protected T mBean;
+
+		protected abstract T bean(final int theTriples);
+
+		@Setup(Level.Trial)
+		public void setup() {
+			mMapper = mapper();
+			mBean = bean(triples);
+			mGraph = mMapper.writeValue(mBean);
+		}
+	}
+
+	public static class FlatState extends BatchState<Person> {
+		@Override
+		protected Person bean(final int theIndex) {
+			return person(theIndex);
+		}
+	}
+
+	public static class NestedState extends BatchState<Company> {
+		@Override
+		protected Company bean(final int theIndex) {
+			final Address aAddress = new Address();
+			aAddress.setStreet(theIndex + " Main Street");
+			aAddress.setCity("City " + (theIndex % 100));
+			aAddress.setCountry("US");
+
+			final Company aCompany = new Company();
+			aCompany.setName("Company " + theIndex);
+			aCompany.setCeo(person(theIndex));
+			aCompany.setAddress(aAddress);
+
+			return aCompany;
+		}
+	}
+
+	public static class EnumState extends BatchState<Account> {
+		@Override
+		protected Account bean(final int theIndex) {
+			final Account aAccount = new Account();
+			aAccount.setName("account" + theIndex);
+			aAccount.setStatus(Status.values()[theIndex % Status.values().length]);
+
+			return aAccount;
+		}
+	}
+
+	public static class CollectionState extends SingleState<Team> {
+		@Override
+		protected Team bean(final int theTriples) {
+			final Team aTeam = new Team();
+			aTeam.setName("team");
+
+			// one triple for the membership plus those of the person
+			for (int i = 0; i < theTriples / 5; i++) {
+				aTeam.getMembers().add(person(i));
+			}
+
+			return aTeam;
+		}
+	}
+
+	public static class ListState extends SingleState<Series> {
+		@Override
+		protected Series bean(final int theTriples) {
+			final Series aSeries = new Series();
+
+			// rdf:first & rdf:rest per element
+			for (int i = 0; i < theTriples / 2; i++) {
+				aSeries.getValues().add(i);
+			}
+
+			return aSeries;
+		}
+	}
+
+	public static class MapState extends SingleState<Registry> {
+		@Override
+		protected Registry bean(final int theTriples) {
+			final Registry aRegistry = new Registry();
+
+			// _hasEntry, _key & _value per entry
+			for (int i = 0; i < theTriples / 3; i++) {
+				aRegistry.getEntries().put("key" + i, i);
+			}
+
+			return aRegistry;
+		}
+	}
+
+	public static class CodecState extends SingleState<Tokens> {
+		@Override
+		protected Tokens bean(final int theTriples) {
+			final Tokens aTokens = new Tokens();
+
+			// the property, the rdf:type & the value of the uuid per element
+			for (int i = 0; i < theTriples / 3; i++) {
+				aTokens.getIds().add(new UUID(0, i));
+			}
+
+			return aTokens;
+		}
+	}
+
+	/**
+	 * A graph of synthetic companies, each a deep object graph, from the {@link GraphGenerator}
+	 */
+	public static class GeneratedState extends GraphState {
+		protected Model mGraph;
+		protected SyntheticBeans.Company mCompany;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			mMapper = mapper();
+			mGraph = GraphGenerator.builder()
+			                       .seed(triples)
+			                       .companies(Integer.MAX_VALUE)
+			                       .fanOut(3)
+			                       .depth(2)
+			                       .maps(true)
+			                       .limit(triples)
+			                       .build()
+			                       .model();
+			mCompany = mMapper.readValue(mGraph, SyntheticBeans.Company.class, GraphGenerator.company(0));
+		}
+	}
+
+	private static Person person(final int theIndex) {
+		final Person aPerson = new Person();
+		aPerson.setName("Person " + theIndex);
+		aPerson.setEmail("person" + theIndex + "@example.com");
+		aPerson.setAge(theIndex % 90);
+		aPerson.setActive(theIndex % 2 == 0);
+
+		return aPerson;
+	}
+
+	@Benchmark
+	public Person readFlat(final FlatState theState) {
+		return theState.mMapper.readValue(theState.mGraph, Person.class, theState.mTarget);
+	}
+
+	@Benchmark
+	public void writeFlat(final FlatState theState, final Blackhole theBlackhole) {
+		for (Person aPerson : theState.mBeans) {
+			theBlackhole.consume(theState.mMapper.writeValue(aPerson));
+		}
+	}
+
+	@Benchmark
+	public Company readNested(final NestedState theState) {
+		return theState.mMapper.readValue(theState.mGraph, Company.class, theState.mTarget);
+	}
+
+	@Benchmark
+	public void writeNested(final NestedState theState, final Blackhole theBlackhole) {
+		for (Company aCompany : theState.mBeans) {
+			theBlackhole.consume(theState.mMapper.writeValue(aCompany));
+		}
+	}
+
+	@Benchmark
+	public Account readEnum(final EnumState theState) {
+		return theState.mMapper.readValue(theState.mGraph, Account.class, theState.mTarget);
+	}
+
+	@Benchmark
+	public void writeEnum(final EnumState theState, final Blackhole theBlackhole) {
+		for (Account aAccount : theState.mBeans) {
+			theBlackhole.consume(theState.mMapper.writeValue(aAccount));
+		}
+	}
+
+	@Benchmark
+	public Team readCollection(final CollectionState theState) {
+		return theState.mMapper.readValue(theState.mGraph, Team.class, theState.mBean.id());
+	}
+
+	@Benchmark
+	public Model writeCollection(final CollectionState theState) {
+		return theState.mMapper.writeValue(theState.mBean);
+	}
+
+	@Benchmark
+	public Series readRdfList(final ListState theState) {
+		return theState.mMapper.readValue(theState.mGraph, Series.class, theState.mBean.id());
+	}
+
+	@Benchmark
+	public Model writeRdfList(final ListState theState) {
+		return theState.mMapper.writeValue(theState.mBean);
+	}
+
+	@Benchmark
+	public Registry readMap(final MapState theState) {
+		return theState.mMapper.readValue(theState.mGraph, Registry.class, theState.mBean.id());
+	}
+
+	@Benchmark
+	public Model writeMap(final MapState theState) {
+		return theState.mMapper.writeValue(theState.mBean);
+	}
+
+	@Benchmark
+	public Tokens readCodec(final CodecState theState) {
+		return theState.mMapper.readValue(theState.mGraph, Tokens.class, theState.mBean.id());
+	}
+
+	@Benchmark
+	public Model writeCodec(final CodecState theState) {
+		return theState.mMapper.writeValue(theState.mBean);
+	}
+
+	@Benchmark
+	public SyntheticBeans.Company readGenerated(final GeneratedState theState) {
+		return theState.mMapper.readValue(theState.mGraph, SyntheticBeans.Company.class, GraphGenerator.company(0));
+	}
+
+	@Benchmark
+	public Model writeGenerated(final GeneratedState theState) {
+		return theState.mMapper.writeValue(theState.mCompany);
+	}
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.common.openrdf.model.Models2;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Value;
+import org.openrdf.model.ValueFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Reads the RDF of objects written by a {@link BinaryRDFWriter}.  Each IRI is created once, when its dictionary
+ * entry is read, and shared by every statement which refers to it; it comes from the mapper's {@link IRICache}, so it's
+ * shared across streams as well.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class BinaryRDFReader {
+    private final ReadableByteChannel mChannel;
+    private final ValueFactory mValueFactory;
+    private final IRICache mIRIs;
+
+    private final ByteBuffer mBuffer = ByteBuffer.allocate(BinaryRDFWriter.BUFFER_SIZE);
+
+    /**
+     * The IRIs of the dictionary, in the order of their index
+     */
+    private final List<IRI> mDictionary = Lists.newArrayList();
+
+    /**
+     * The kind of the next block, or -1 if it has not been read yet
+     */
+    private int mKind = -1;
+
+    BinaryRDFReader(final ReadableByteChannel theChannel, final ValueFactory theValueFactory, final IRICache theIRIs) {
+        mChannel = theChannel;
+        mValueFactory = theValueFactory;
+        mIRIs = theIRIs;
+
+        mBuffer.flip();
+    }
+
+    /**
+     * Read the RDF of the next object
+     *
+     * @return  the resource of the object and its RDF, or null at the end of the stream
+     * @throws IOException          if there is an error reading from the channel
+     * @throws RDFMappingException  if the input is not in the binary format
+     */
+    Map.Entry<Resource, Model> next() throws IOException {
+        if (mKind == -1) {
+            header();
+            mKind = readByte();
+        }
+
+        if (mKind == BinaryRDFWriter.END) {
+            return null;
+        }
+        else if (mKind != BinaryRDFWriter.ROOT) {
+            throw new RDFMappingException("Invalid binary RDF, expected the start of an object, found block kind "
+                                          + mKind);
+        }
+
+        final Model aModel = Models2.newModel();
+        final Resource aRoot = block(aModel);
+
+        while ((mKind = readByte()) == BinaryRDFWriter.BLOCK) {
+            block(aModel);
+        }
+
+        return Maps.immutableEntry(aRoot, aModel);
+    }
+
+    private void header() throws IOException {
+        final byte[] aMagic = new byte[BinaryRDFWriter.MAGIC.length];
+
+        for (int i = 0; i < aMagic.length; i++) {
+            aMagic[i] = readByte();
+        }
+
+        if (!Arrays.equals(aMagic, BinaryRDFWriter.MAGIC)) {
+            throw new RDFMappingException("The input is not binary RDF");
+        }
+
+        final byte aVersion = readByte();
+
+        if (aVersion != BinaryRDFWriter.VERSION) {
+            throw new RDFMappingException("Unsupported version of binary RDF: " + aVersion);
+        }
+    }
+
+    /**
+     * Read the statements of a block into the model, and return its subject
+     */
+    private Resource block(final Model theModel) throws IOException {
+        final Value aSubject = term();
+
+        if (!(aSubject instanceof Resource)) {
+            throw new RDFMappingException("Invalid binary RDF, the subject of a block is a literal: " + aSubject);
+        }
+
+        final int aCount = varint();
+
+        for (int i = 0; i < aCount; i++) {
+            final IRI aPredicate = iri();
+
+            theModel.add(mValueFactory.createStatement((Resource) aSubject, aPredicate, term()));
+        }
+
+        return (Resource) aSubject;
+    }
+
+    private Value term() throws IOException {
+        final byte aKind = readByte();
+
+        switch (aKind) {
+            case BinaryRDFWriter.IRI:
+                return iri();
+            case BinaryRDFWriter.BNODE:
+                return mValueFactory.createBNode(string());
+            case BinaryRDFWriter.LITERAL:
+                return mValueFactory.createLiteral(string());
+            case BinaryRDFWriter.LANG_LITERAL: {
+                final String aLanguage = string();
+
+                return mValueFactory.createLiteral(string(), aLanguage);
+            }
+            case BinaryRDFWriter.TYPED_LITERAL: {
+                final IRI aDatatype = iri();
+
+                return mValueFactory.createLiteral(string(), aDatatype);
+            }
+            default:
+                throw new RDFMappingException("Invalid binary RDF, unknown term kind " + aKind);
+        }
+    }
+
+    private IRI iri() throws IOException {
+        final int aIndex = varint();
+
+        if (aIndex == 0) {
+            final IRI aIRI = mIRIs.get(string());
+
+            mDictionary.add(aIRI);
+
+            return aIRI;
+        }
+        else if (aIndex > mDictionary.size()) {
+            throw new RDFMappingException("Invalid binary RDF, reference to undefined dictionary entry " + aIndex);
+        }
+
+        return mDictionary.get(aIndex - 1);
+    }
+
+    private String string() throws IOException {
+        final int aSize = varint();
+
+        // a corrupt length would otherwise allocate an array as large as the heap allows
+        if (aSize > BinaryRDFWriter.MAX_STRING) {
+            throw new RDFMappingException("Invalid binary RDF, string of " + aSize + " bytes");
+        }
+
+        final byte[] aBytes = new byte[aSize];
+
+        int aOffset = 0;
+
+        while (aOffset < aBytes.length) {
+            require(1);
+
+            final int aLength = Math.min(mBuffer.remaining(), aBytes.length - aOffset);
+
+            mBuffer.get(aBytes, aOffset, aLength);
+            aOffset += aLength;
+        }
+
+        return new String(aBytes, Charsets.UTF_8);
+    }
+
+    private int varint() throws IOException {
+        int aValue = 0;
+
+        for (int aShift = 0; aShift < 32; aShift += 7) {
+            final byte aByte = readByte();
+
+            aValue |= (aByte & 0x7F) << aShift;
+
+            if ((aByte & 0x80) == 0) {
+                if (aValue < 0) {
+                    throw new RDFMappingException("Invalid binary RDF, negative length or index");
+                }
+
+                return aValue;
+            }
+        }
+
+        throw new RDFMappingException("Invalid binary RDF, malformed varint");
+    }
+
+    private byte readByte() throws IOException {
+        require(1);
+
+        return mBuffer.get();
+    }
+
+    /**
+     * Read from the channel until the buffer holds at least the given number of bytes.  The channel is read a buffer at
+     * a time, so this may read past the end of the objects.
+     */
+    private void require(final int theBytes) throws IOException {
+        if (mBuffer.remaining() >= theBytes) {
+            return;
+        }
+
+        mBuffer.compact();
+
+        try {
+            while (mBuffer.position() < theBytes) {
+                if (mChannel.read(mBuffer) < 0) {
+                    throw new EOFException("Unexpected end of binary RDF");
+                }
+            }
+        }
+        finally {
+            mBuffer.flip();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Sets;
+import org.openrdf.model.BNode;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Model;
+import org.openrdf.model.Namespace;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.AbstractModel;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * <p>A read-only view of the concise bounded description of a resource in a graph: the statements about the resource
+ * and, recursively, about the blank nodes which are their objects.  Nothing is copied; the view answers every call from
+ * the subject index of the graph it was read from, and works out which blank nodes are in the description the first
+ * time it is used.  This is the {@link SourcedObject#getSourceGraph() source graph} given to the objects an
+ * {@link RDFMapper} reads.</p>
+ *
+ * <p>The view reflects the graph it was read from, so the graph should not be modified while the view is in use.  The
+ * view itself cannot be modified, since the graph is shared; copy it into a new model for that.</p>
+ *
+ * <p>The view also keeps the {@link Projection} and {@link FetchPlan} the object was read with, so that
+ * {@link RDFMapper#diff(SourcedObject) diff} only compares the statements which were actually read.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class DescriptionView extends AbstractModel {
+    private static final long serialVersionUID = 1L;
+
+    private final Model mGraph;
+    private final Resource mResource;
+
+    /**
+     * The projection and fetch plan the object was read with
+     */
+    private final Projection mProjection;
+    private final FetchPlan mFetchPlan;
+
+    /**
+     * The pattern of a {@link #filter(Resource, IRI, Value, Resource...) filtered} view; the subject is null when the
+     * view is not filtered by subject
+     */
+    private final Resource mSubject;
+    private final IRI mPredicate;
+    private final Value mObject;
+    private final Resource[] mContexts;
+
+    /**
+     * The resource and the blank nodes in its description, computed on first use
+     */
+    private transient volatile Set<Resource> mSubjects;
+
+    DescriptionView(final Model theGraph, final Resource theResource) {
+        this(theGraph, theResource, Projection.ALL, FetchPlan.ALL);
+    }
+
+    DescriptionView(final Model theGraph, final Resource theResource, final Projection theProjection,
+                    final FetchPlan theFetchPlan) {
+        this(theGraph, theResource, theProjection, theFetchPlan, null, null, null, new Resource[0], null);
+    }
+
+    private DescriptionView(final Model theGraph, final Resource theResource, final Projection theProjection,
+                            final FetchPlan theFetchPlan, final Resource theSubject, final IRI thePredicate,
+                            final Value theObject, final Resource[] theContexts, final Set<Resource> theSubjects) {
+        mGraph = theGraph;
+        mResource = theResource;
+        mProjection = theProjection;
+        mFetchPlan = theFetchPlan;
+        mSubject = theSubject;
+        mPredicate = thePredicate;
+        mObject = theObject;
+        mContexts = theContexts;
+        mSubjects = theSubjects;
+    }
+
+    /**
+     * Return the whole graph this is a view of
+     */
+    Model graph() {
+        return mGraph;
+    }
+
+    /**
+     * Return the projection the object was read with
+     */
+    Projection projection() {
+        return mProjection;
+    }
+
+    /**
+     * Return the fetch plan the object was read with
+     */
+    FetchPlan fetchPlan() {
+        return mFetchPlan;
+    }
+
+    /**
+     * Return whether or not the object was read with all of its properties, and all of the objects they refer to
+     */
+    boolean isComplete() {
+        return mProjection.isAll() && mFetchPlan.equals(FetchPlan.ALL);
+    }
+
+    /**
+     * Return the subjects of the statements in the view
+     */
+    private Set<Resource> subjects0() {
+        Set<Resource> aSubjects = mSubjects;
+
+        if (aSubjects == null) {
+            final Set<Resource> aDescribed = Sets.newLinkedHashSet();
+            final Deque<Resource> aQueue = new ArrayDeque<>();
+
+            aQueue.add(mResource);
+
+            while (!aQueue.isEmpty()) {
+                final Resource aSubject = aQueue.pop();
+
+                if (!aDescribed.add(aSubject)) {
+                    continue;
+                }
+
+                for (Statement aStmt : mGraph.filter(aSubject, null, null)) {
+                    if (aStmt.getObject() instanceof BNode) {
+                        aQueue.add((BNode) aStmt.getObject());
+                    }
+                }
+            }
+
+            aSubjects = ImmutableSet.copyOf(aDescribed);
+            mSubjects = aSubjects;
+        }
+
+        if (mSubject == null) {
+            return aSubjects;
+        }
+
+        return aSubjects.contains(mSubject) ? Collections.singleton(mSubject) : Collections.emptySet();
+    }
+
+    @Override
+    public Iterator<Statement> iterator() {
+        return Iterators.unmodifiableIterator(
+            Iterators.concat(subjects0().stream()
+                                        .map(theSubject -> mGraph.filter(theSubject, mPredicate, mObject, mContexts).iterator())
+                                        .iterator()));
+    }
+
+    @Override
+    public int size() {
+        int aSize = 0;
+
+        for (Resource aSubject : subjects0()) {
+            aSize += mGraph.filter(aSubject, mPredicate, mObject, mContexts).size();
+        }
+
+        return aSize;
+    }
+
+    @Override
+    public boolean contains(final Resource theSubject, final IRI thePredicate, final Value theObject,
+                            final Resource... theContexts) {
+        return !filter(theSubject, thePredicate, theObject, theContexts).isEmpty();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    @Override
+    public Model filter(final Resource theSubject, final IRI thePredicate, final Value theObject,
+                        final Resource... theContexts) {
+        final boolean aDisjoint = (theSubject != null && mSubject != null && !theSubject.equals(mSubject))
+                                  || (thePredicate != null && mPredicate != null && !thePredicate.equals(mPredicate))
+                                  || (theObject != null && mObject != null && !theObject.equals(mObject))
+                                  || (theContexts.length > 0 && mContexts.length > 0
+                                      && Collections.disjoint(Arrays.asList(theContexts), Arrays.asList(mContexts)));
+
+        if (aDisjoint) {
+            // nothing matches both patterns; a subject which is not the resource, nor a blank node, is never described
+            return new DescriptionView(mGraph, mResource, mProjection, mFetchPlan, mResource, mPredicate, mObject,
+                                       mContexts, Collections.<Resource>emptySet());
+        }
+
+        final Resource[] aContexts;
+
+        if (theContexts.length == 0) {
+            aContexts = mContexts;
+        }
+        else if (mContexts.length == 0) {
+            aContexts = theContexts;
+        }
+        else {
+            aContexts = Sets.intersection(Sets.newHashSet(theContexts), Sets.newHashSet(mContexts))
+                            .toArray(new Resource[0]);
+        }
+
+        return new DescriptionView(mGraph, mResource, mProjection, mFetchPlan,
+                                   theSubject != null ? theSubject : mSubject,
+                                   thePredicate != null ? thePredicate : mPredicate,
+                                   theObject != null ? theObject : mObject,
+                                   aContexts,
+                                   mSubjects);
+    }
+
+    @Override
+    public Set<Namespace> getNamespaces() {
+        return Collections.unmodifiableSet(mGraph.getNamespaces());
+    }
+
+    @Override
+    public boolean add(final Resource theSubject, final IRI thePredicate, final Value theObject,
+                       final Resource... theContexts) {
+        throw new UnsupportedOperationException("The source graph of an object is a read-only view");
+    }
+
+    @Override
+    public boolean remove(final Resource theSubject, final IRI thePredicate, final Value theObject,
+                          final Resource... theContexts) {
+        throw new UnsupportedOperationException("The source graph of an object is a read-only view");
+    }
+
+    @Override
+    public void removeTermIteration(final Iterator<Statement> theIter, final Resource theSubject,
+                                    final IRI thePredicate, final Value theObject, final Resource... theContexts) {
+        throw new UnsupportedOperationException("The source graph of an object is a read-only view");
+    }
+
+    @Override
+    public void setNamespace(final Namespace theNamespace) {
+        throw new UnsupportedOperationException("The source graph of an object is a read-only view");
+    }
+
+    @Override
+    public Optional<Namespace> removeNamespace(final String thePrefix) {
+        throw new UnsupportedOperationException("The source graph of an object is a read-only view");
+    }
+}
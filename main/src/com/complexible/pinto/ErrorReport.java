@@ -0,0 +1,359 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.openrdf.model.Resource;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>The problems found by a mapper {@link RDFMapper#withErrorReport(ErrorReport) reporting to it}, such as literals
+ * which are not valid for their datatype, or properties with a single value which have several.  Problems are grouped by
+ * the class and property they were found in and their cause, so the same problem found on many objects is kept once,
+ * with the number of times it was found, a description of its first occurrence, and a sample of at most
+ * {@link #SAMPLE_SIZE} of the subjects it was found on.</p>
+ *
+ * <p>The number of distinct problems kept is bounded, so a run over very dirty data does not fill the heap with its
+ * report; once the limit is reached, problems which were already seen are still counted, and new ones are only counted
+ * as {@link #dropped() dropped}.  A report may be shared by mappers on many threads.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class ErrorReport {
+
+	/**
+	 * The number of distinct problems kept by a report which is not given a limit
+	 */
+	public static final int DEFAULT_LIMIT = 1000;
+
+	/**
+	 * The number of subjects kept for each problem
+	 */
+	public static final int SAMPLE_SIZE = 10;
+
+	private final int mLimit;
+
+	/**
+	 * The problems, keyed by the class and property they were found in and their cause
+	 */
+	private final ConcurrentMap<List<Object>, Occurrences> mProblems = new ConcurrentHashMap<>();
+	private final AtomicInteger mSize = new AtomicInteger();
+
+	private final LongAdder mTotal = new LongAdder();
+	private final LongAdder mDropped = new LongAdder();
+	private final LongAdder mSkipped = new LongAdder();
+
+	private ErrorReport(final int theLimit) {
+		mLimit = theLimit;
+	}
+
+	/**
+	 * Create a report which keeps at most {@link #DEFAULT_LIMIT} distinct problems
+	 *
+	 * @return the report
+	 */
+	public static ErrorReport create() {
+		return create(DEFAULT_LIMIT);
+	}
+
+	/**
+	 * Create a report
+	 *
+	 * @param theLimit  the number of distinct problems to keep
+	 * @return          the report
+	 */
+	public static ErrorReport create(final int theLimit) {
+		Preconditions.checkArgument(theLimit >= 0, "The limit cannot be negative");
+
+		return new ErrorReport(theLimit);
+	}
+
+	/**
+	 * Record a problem
+	 *
+	 * @param theType       the class being read when the problem was found
+	 * @param theProperty   the name of the property being read, or null if the problem is not with a property
+	 * @param theCause      the cause of the problem, which is the same for each occurrence, e.g. the datatype a
+	 *                      literal is not valid for rather than the literal
+	 * @param theSubject    the resource being read when the problem was found
+	 * @param theDetail     the description of this occurrence of the problem
+	 */
+	void record(final Class<?> theType, final String theProperty, final String theCause, final Resource theSubject,
+	            final String theDetail) {
+		mTotal.increment();
+
+		final List<Object> aKey = Arrays.asList(theType, theProperty, theCause);
+
+		Occurrences aOccurrences = mProblems.get(aKey);
+
+		if (aOccurrences == null) {
+			// reserve a place before adding the problem, so the limit holds when many threads add at once
+			if (mSize.incrementAndGet() > mLimit) {
+				mSize.decrementAndGet();
+				mDropped.increment();
+				return;
+			}
+
+			final Occurrences aNew = new Occurrences(theDetail);
+
+			aOccurrences = mProblems.putIfAbsent(aKey, aNew);
+
+			if (aOccurrences == null) {
+				aOccurrences = aNew;
+			}
+			else {
+				mSize.decrementAndGet();
+			}
+		}
+
+		aOccurrences.add(theSubject);
+	}
+
+	/**
+	 * Record that an object was skipped because of its problems
+	 */
+	void skip() {
+		mSkipped.increment();
+	}
+
+	/**
+	 * Return the problems in the report, the most frequent first
+	 *
+	 * @return the problems
+	 */
+	public List<Problem> problems() {
+		final List<Problem> aProblems = Lists.newArrayListWithCapacity(mProblems.size());
+
+		for (Map.Entry<List<Object>, Occurrences> aEntry : mProblems.entrySet()) {
+			final List<Object> aKey = aEntry.getKey();
+			final Occurrences aOccurrences = aEntry.getValue();
+
+			aProblems.add(new Problem((Class<?>) aKey.get(0), (String) aKey.get(1), (String) aKey.get(2),
+			                          aOccurrences.mCount.sum(), aOccurrences.mExample, aOccurrences.subjects()));
+		}
+
+		aProblems.sort(Comparator.comparingLong(Problem::count).reversed());
+
+		return aProblems;
+	}
+
+	/**
+	 * Return the number of problems found, including those which were dropped
+	 *
+	 * @return the number of problems
+	 */
+	public long total() {
+		return mTotal.sum();
+	}
+
+	/**
+	 * Return the number of problems which were found after the limit on distinct problems was reached, and are not
+	 * part of {@link #problems()}
+	 *
+	 * @return the number of problems dropped
+	 */
+	public long dropped() {
+		return mDropped.sum();
+	}
+
+	/**
+	 * Return the number of objects which were skipped because of their problems
+	 *
+	 * @return the number of objects skipped
+	 */
+	public long skipped() {
+		return mSkipped.sum();
+	}
+
+	/**
+	 * Return whether or not any problem has been found
+	 *
+	 * @return true if there are no problems
+	 */
+	public boolean isEmpty() {
+		return total() == 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ErrorReport(%d problems, %d distinct, %d dropped, %d objects skipped)",
+		                     total(), mProblems.size(), dropped(), skipped());
+	}
+
+	/**
+	 * The occurrences of a problem
+	 */
+	private static final class Occurrences {
+		private final LongAdder mCount = new LongAdder();
+		private final String mExample;
+
+		private final AtomicReferenceArray<Resource> mSubjects = new AtomicReferenceArray<>(SAMPLE_SIZE);
+		private final AtomicInteger mSampled = new AtomicInteger();
+
+		private Occurrences(final String theExample) {
+			mExample = theExample;
+		}
+
+		private void add(final Resource theSubject) {
+			mCount.increment();
+
+			// the first subjects are kept, checking the size first so the index does not overflow on very dirty data
+			if (mSampled.get() < SAMPLE_SIZE) {
+				final int aIndex = mSampled.getAndIncrement();
+
+				if (aIndex < SAMPLE_SIZE) {
+					mSubjects.set(aIndex, theSubject);
+				}
+			}
+		}
+
+		private List<Resource> subjects() {
+			final List<Resource> aSubjects = Lists.newArrayListWithCapacity(SAMPLE_SIZE);
+
+			for (int i = 0; i < mSubjects.length(); i++) {
+				final Resource aSubject = mSubjects.get(i);
+
+				if (aSubject != null) {
+					aSubjects.add(aSubject);
+				}
+			}
+
+			return aSubjects;
+		}
+	}
+
+	/**
+	 * <p>A problem found while reading objects, and the number of times it was found.</p>
+	 */
+	public static final class Problem {
+		private final Class<?> mType;
+		private final String mProperty;
+		private final String mCause;
+		private final long mCount;
+		private final String mExample;
+		private final List<Resource> mSubjects;
+
+		private Problem(final Class<?> theType, final String theProperty, final String theCause, final long theCount,
+		                final String theExample, final List<Resource> theSubjects) {
+			mType = theType;
+			mProperty = theProperty;
+			mCause = theCause;
+			mCount = theCount;
+			mExample = theExample;
+			mSubjects = ImmutableList.copyOf(theSubjects);
+		}
+
+		/**
+		 * Return the class which was being read when the problem was found
+		 *
+		 * @return the class
+		 */
+		public Class<?> type() {
+			return mType;
+		}
+
+		/**
+		 * Return the name of the property which was being read when the problem was found
+		 *
+		 * @return the property, or null if the problem is not with a property
+		 */
+		public String property() {
+			return mProperty;
+		}
+
+		/**
+		 * Return the cause of the problem
+		 *
+		 * @return the cause
+		 */
+		public String cause() {
+			return mCause;
+		}
+
+		/**
+		 * Return the number of times the problem was found
+		 *
+		 * @return the count
+		 */
+		public long count() {
+			return mCount;
+		}
+
+		/**
+		 * Return the description of the first occurrence of the problem, such as the literal which is not valid
+		 *
+		 * @return the description
+		 */
+		public String example() {
+			return mExample;
+		}
+
+		/**
+		 * Return the resources which were being read when the problem was found, the first {@link #SAMPLE_SIZE} of them
+		 *
+		 * @return the subjects
+		 */
+		public List<Resource> subjects() {
+			return mSubjects;
+		}
+
+		@Override
+		public boolean equals(final Object theObj) {
+			if (theObj == this) {
+				return true;
+			}
+			else if (theObj instanceof Problem) {
+				final Problem aProblem = (Problem) theObj;
+
+				return Objects.equals(mType, aProblem.mType)
+				       && Objects.equals(mProperty, aProblem.mProperty)
+				       && Objects.equals(mCause, aProblem.mCause)
+				       && mCount == aProblem.mCount;
+			}
+			else {
+				return false;
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(mType, mProperty, mCause, mCount);
+		}
+
+		@Override
+		public String toString() {
+			final String aName = mType == null ? "?" : mType.getSimpleName();
+
+			return mProperty == null
+			       ? String.format("%s: %s (%d, e.g. %s)", aName, mCause, mCount, mExample)
+			       : String.format("%s.%s: %s (%d, e.g. %s)", aName, mProperty, mCause, mCount, mExample);
+		}
+	}
+}
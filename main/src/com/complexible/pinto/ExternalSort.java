@@ -0,0 +1,493 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.common.openrdf.model.Models2;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.openrdf.model.BNode;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFParser;
+import org.openrdf.rio.Rio;
+import org.openrdf.rio.helpers.AbstractRDFHandler;
+import org.openrdf.rio.helpers.BasicParserSettings;
+import org.openrdf.rio.ntriples.NTriplesUtil;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>Sorts the statements of an N-Triples file by subject on disk, so that a file larger than the heap can be read
+ * one subject at a time.  The statements are parsed, and spilled to sorted runs in a temporary directory whenever the
+ * ones in memory reach the memory budget; the runs are then merged, a bounded number at a time, into a file of the
+ * statements about named resources and a file of the statements about blank nodes, both sorted by subject.</p>
+ *
+ * <p>The statements are kept as N-Triples lines, and sorting the lines groups them by subject, since the subject is
+ * the start of the line.  The groups of named resources are read in order, and the blank nodes they refer to are
+ * looked up in the blank node file through a sparse index, which holds the offset of one group in
+ * {@link #INDEX_INTERVAL}, so memory use stays bounded whatever the size of the input.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class ExternalSort implements Closeable {
+
+    /**
+     * The largest number of runs merged at once, which bounds the number of open files
+     */
+    private static final int MERGE_WIDTH = 64;
+
+    /**
+     * The number of blank node groups between the entries of the sparse index
+     */
+    private static final int INDEX_INTERVAL = 64;
+
+    /**
+     * The rough number of bytes a line of a run takes in memory on top of its characters
+     */
+    private static final int LINE_OVERHEAD = 64;
+
+    private final Path mDirectory;
+    private final ValueFactory mValueFactory;
+
+    /**
+     * The statements about named resources, sorted by subject
+     */
+    private final Path mNamed;
+
+    /**
+     * The statements about blank nodes, sorted by subject, and the offsets of every {@link #INDEX_INTERVAL}th group
+     */
+    private final Path mBNodes;
+    private final NavigableMap<String, Long> mIndex = Maps.newTreeMap();
+
+    private FileChannel mBNodeChannel;
+
+    private ExternalSort(final Path theDirectory, final ValueFactory theValueFactory) {
+        mDirectory = theDirectory;
+        mValueFactory = theValueFactory;
+        mNamed = theDirectory.resolve("named.nt");
+        mBNodes = theDirectory.resolve("bnodes.nt");
+    }
+
+    /**
+     * Sort the statements of the file
+     *
+     * @param theFile           the N-Triples file
+     * @param theTempDirectory  the directory for the files of the sort
+     * @param theBudget         the number of bytes of statements to hold in memory at once
+     * @param theValueFactory   the value factory for the parsed statements
+     * @return                  the sorted statements, which must be closed to remove their files
+     * @throws IOException      if there is an error reading the file, or writing the sorted files
+     */
+    static ExternalSort sort(final Path theFile, final Path theTempDirectory, final long theBudget,
+                             final ValueFactory theValueFactory) throws IOException {
+        final ExternalSort aSort = new ExternalSort(Files.createTempDirectory(theTempDirectory, "pinto-sort"),
+                                                    theValueFactory);
+
+        try {
+            aSort.merge(aSort.spill(theFile, theBudget));
+            aSort.mBNodeChannel = FileChannel.open(aSort.mBNodes, StandardOpenOption.READ);
+
+            return aSort;
+        }
+        catch (IOException | RuntimeException e) {
+            aSort.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Parse the file into sorted runs of at most the budget
+     */
+    private List<Path> spill(final Path theFile, final long theBudget) throws IOException {
+        final List<Path> aRuns = Lists.newArrayList();
+        final List<String> aLines = Lists.newArrayList();
+        final long[] aSize = { 0 };
+
+        final RDFParser aParser = parser();
+        aParser.setRDFHandler(new AbstractRDFHandler() {
+            @Override
+            public void handleStatement(final Statement theStatement) {
+                final String aLine = line(theStatement);
+
+                aLines.add(aLine);
+                aSize[0] += 2L * aLine.length() + LINE_OVERHEAD;
+
+                if (aSize[0] >= theBudget) {
+                    try {
+                        aRuns.add(writeRun(aLines));
+                    }
+                    catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+
+                    aLines.clear();
+                    aSize[0] = 0;
+                }
+            }
+        });
+
+        try (InputStream aIn = Files.newInputStream(theFile)) {
+            aParser.parse(aIn, "");
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        catch (RuntimeException e) {
+            throw new RDFMappingException("Error parsing " + theFile, e);
+        }
+
+        if (!aLines.isEmpty() || aRuns.isEmpty()) {
+            aRuns.add(writeRun(aLines));
+        }
+
+        return aRuns;
+    }
+
+    private Path writeRun(final List<String> theLines) throws IOException {
+        Collections.sort(theLines);
+
+        final Path aRun = Files.createTempFile(mDirectory, "run", ".nt");
+
+        try (Writer aWriter = Files.newBufferedWriter(aRun, Charsets.UTF_8)) {
+            for (String aLine : theLines) {
+                aWriter.write(aLine);
+                aWriter.write('\n');
+            }
+        }
+
+        return aRun;
+    }
+
+    /**
+     * Merge the runs, a bounded number at a time, into the named & blank node files
+     */
+    private void merge(final List<Path> theRuns) throws IOException {
+        List<Path> aRuns = theRuns;
+
+        while (aRuns.size() > MERGE_WIDTH) {
+            final List<Path> aMerged = Lists.newArrayList();
+
+            for (List<Path> aBatch : Lists.partition(aRuns, MERGE_WIDTH)) {
+                final Path aRun = Files.createTempFile(mDirectory, "run", ".nt");
+
+                try (BufferedWriter aWriter = Files.newBufferedWriter(aRun, Charsets.UTF_8)) {
+                    merge(aBatch, theLine -> write(aWriter, theLine));
+                }
+
+                aMerged.add(aRun);
+            }
+
+            aRuns = aMerged;
+        }
+
+        try (BufferedWriter aNamed = Files.newBufferedWriter(mNamed, Charsets.UTF_8);
+             BufferedWriter aBNodes = Files.newBufferedWriter(mBNodes, Charsets.UTF_8)) {
+            final long[] aOffset = { 0 };
+            final String[] aSubject = { null };
+            final int[] aGroups = { 0 };
+
+            merge(aRuns, theLine -> {
+                if (!theLine.startsWith("_:")) {
+                    write(aNamed, theLine);
+                    return;
+                }
+
+                final String aLineSubject = subject(theLine);
+
+                if (!aLineSubject.equals(aSubject[0])) {
+                    if (aGroups[0]++ % INDEX_INTERVAL == 0) {
+                        mIndex.put(aLineSubject, aOffset[0]);
+                    }
+
+                    aSubject[0] = aLineSubject;
+                }
+
+                write(aBNodes, theLine);
+                aOffset[0] += theLine.getBytes(Charsets.UTF_8).length + 1;
+            });
+        }
+
+        for (Path aRun : aRuns) {
+            Files.deleteIfExists(aRun);
+        }
+    }
+
+    /**
+     * Merge the sorted runs, passing each distinct line to the consumer in order, and delete them
+     */
+    private static void merge(final List<Path> theRuns, final Consumer<String> theConsumer) throws IOException {
+        final List<BufferedReader> aReaders = Lists.newArrayList();
+        final PriorityQueue<Map.Entry<String, BufferedReader>> aHeads = new PriorityQueue<>(Map.Entry.comparingByKey());
+
+        try {
+            for (Path aRun : theRuns) {
+                final BufferedReader aReader = Files.newBufferedReader(aRun, Charsets.UTF_8);
+                aReaders.add(aReader);
+
+                final String aLine = aReader.readLine();
+
+                if (aLine != null) {
+                    aHeads.add(Maps.immutableEntry(aLine, aReader));
+                }
+            }
+
+            String aLast = null;
+
+            while (!aHeads.isEmpty()) {
+                final Map.Entry<String, BufferedReader> aHead = aHeads.poll();
+
+                // the same statement can be in several runs
+                if (!aHead.getKey().equals(aLast)) {
+                    theConsumer.accept(aHead.getKey());
+                    aLast = aHead.getKey();
+                }
+
+                final String aNext = aHead.getValue().readLine();
+
+                if (aNext != null) {
+                    aHeads.add(Maps.immutableEntry(aNext, aHead.getValue()));
+                }
+            }
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        finally {
+            for (BufferedReader aReader : aReaders) {
+                aReader.close();
+            }
+        }
+
+        for (Path aRun : theRuns) {
+            Files.deleteIfExists(aRun);
+        }
+    }
+
+    private static void write(final Writer theWriter, final String theLine) {
+        try {
+            theWriter.write(theLine);
+            theWriter.write('\n');
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Return the named resources and the groups of statements about them, in order of their subject.  The groups
+     * include the statements about the blank nodes they refer to, recursively.
+     */
+    Stream<Map.Entry<Resource, Model>> groups() throws IOException {
+        final BufferedReader aReader = Files.newBufferedReader(mNamed, Charsets.UTF_8);
+
+        final Iterator<Map.Entry<Resource, Model>> aGroups = new Iterator<Map.Entry<Resource, Model>>() {
+            private String mNext = readLine();
+
+            private String readLine() {
+                try {
+                    return aReader.readLine();
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return mNext != null;
+            }
+
+            @Override
+            public Map.Entry<Resource, Model> next() {
+                if (mNext == null) {
+                    throw new NoSuchElementException();
+                }
+
+                final String aSubject = subject(mNext);
+                final StringBuilder aGroup = new StringBuilder();
+
+                while (mNext != null && subject(mNext).equals(aSubject)) {
+                    aGroup.append(mNext).append('\n');
+                    mNext = readLine();
+                }
+
+                return Maps.immutableEntry(NTriplesUtil.parseResource(aSubject, mValueFactory), describe(aGroup));
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(aGroups, Spliterator.ORDERED | Spliterator.NONNULL),
+                                    false)
+                            .onClose(() -> {
+                                try {
+                                    aReader.close();
+                                }
+                                catch (IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            });
+    }
+
+    /**
+     * Parse the lines of a group, and add the groups of the blank nodes they refer to
+     */
+    private Model describe(final CharSequence theLines) {
+        final Model aModel = parse(theLines);
+        final List<Statement> aQueue = Lists.newArrayList(aModel);
+
+        while (!aQueue.isEmpty()) {
+            final Statement aStmt = aQueue.remove(aQueue.size() - 1);
+
+            if (aStmt.getObject() instanceof BNode && !aModel.contains((BNode) aStmt.getObject(), null, null)) {
+                for (Statement aNested : parse(bnode(NTriplesUtil.toNTriplesString(aStmt.getObject())))) {
+                    if (aModel.add(aNested)) {
+                        aQueue.add(aNested);
+                    }
+                }
+            }
+        }
+
+        return aModel;
+    }
+
+    /**
+     * Return the lines of the group of the blank node, found through the sparse index
+     */
+    private CharSequence bnode(final String theSubject) {
+        final Map.Entry<String, Long> aEntry = mIndex.floorEntry(theSubject);
+        final StringBuilder aGroup = new StringBuilder();
+
+        if (aEntry == null) {
+            return aGroup;
+        }
+
+        try {
+            // not closed, that would close the channel, which is read again for the next blank node
+            final BufferedReader aReader = new BufferedReader(Channels.newReader(mBNodeChannel.position(aEntry.getValue()),
+                                                                                 Charsets.UTF_8.newDecoder(), 8192));
+
+            String aLine;
+
+            // the groups are in the order of their subjects, since no character which sorts before the space after
+            // the subject can be part of one
+            while ((aLine = aReader.readLine()) != null) {
+                final int aCompare = subject(aLine).compareTo(theSubject);
+
+                if (aCompare > 0) {
+                    break;
+                }
+                else if (aCompare == 0) {
+                    aGroup.append(aLine).append('\n');
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return aGroup;
+    }
+
+    private Model parse(final CharSequence theLines) {
+        final Model aModel = Models2.newModel();
+
+        final RDFParser aParser = parser();
+        aParser.setRDFHandler(new AbstractRDFHandler() {
+            @Override
+            public void handleStatement(final Statement theStatement) {
+                aModel.add(theStatement);
+            }
+        });
+
+        try {
+            aParser.parse(new StringReader(theLines.toString()), "");
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return aModel;
+    }
+
+    private RDFParser parser() {
+        final RDFParser aParser = Rio.createParser(RDFFormat.NTRIPLES, mValueFactory);
+        aParser.getParserConfig().set(BasicParserSettings.PRESERVE_BNODE_IDS, true);
+
+        return aParser;
+    }
+
+    private static String line(final Statement theStatement) {
+        return NTriplesUtil.toNTriplesString(theStatement.getSubject()) + ' '
+               + NTriplesUtil.toNTriplesString(theStatement.getPredicate()) + ' '
+               + NTriplesUtil.toNTriplesString(theStatement.getObject()) + " .";
+    }
+
+    /**
+     * Return the subject of the N-Triples line, which ends at the first space since neither IRIs nor blank node labels
+     * can contain one
+     */
+    private static String subject(final String theLine) {
+        return theLine.substring(0, theLine.indexOf(' '));
+    }
+
+    /**
+     * Delete the files of the sort
+     */
+    @Override
+    public void close() throws IOException {
+        if (mBNodeChannel != null) {
+            mBNodeChannel.close();
+        }
+
+        try (Stream<Path> aFiles = Files.list(mDirectory)) {
+            for (Path aFile : (Iterable<Path>) aFiles::iterator) {
+                Files.deleteIfExists(aFile);
+            }
+        }
+
+        Files.deleteIfExists(mDirectory);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * <p>How far to follow the references from an object when it's read: the depth of the nested objects to read, and the
+ * relations to expand beyond it.  With a depth of {@code 0} only the object itself is read, with a depth of {@code 1}
+ * the objects it refers to are read as well, and so on.  An expanded relation, named by a property, e.g.
+ * {@code employer}, or a path through the properties of nested objects, e.g. {@code employer.address}, is read
+ * whatever the depth, while the references from the objects at its end are only followed as far as the depth still
+ * allows.</p>
+ *
+ * <p>The references beyond the plan are left unset, or, {@link #withStubs() with stubs}, set to objects which carry
+ * only their {@link Identifiable#id() identifier}, so they can be read later if they are needed.  Only classes which are
+ * {@link Identifiable} are stubbed, the references to other classes are left unset.  Values read by an
+ * {@link RDFCodec} are not references, and are always read.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ *
+ * @see RDFMapper#readValue(org.openrdf.model.Model, Class, org.openrdf.model.Resource, FetchPlan)
+ * @see RDFMapper.Builder#fetchPlan(Class, FetchPlan)
+ */
+public final class FetchPlan {
+
+	/**
+	 * The plan which follows every reference
+	 */
+	public static final FetchPlan ALL = new FetchPlan(Integer.MAX_VALUE, ImmutableList.of(), true, false);
+
+	private static final Splitter PATH = Splitter.on('.').trimResults();
+
+	/**
+	 * The number of levels of references still to follow, negative when the objects at this level are beyond the depth
+	 */
+	private final int mDepth;
+
+	/**
+	 * The paths of the relations to expand, relative to the objects at this level
+	 */
+	private final List<List<String>> mExpand;
+
+	/**
+	 * Whether or not the objects at this level were reached through an expanded relation
+	 */
+	private final boolean mExpanded;
+
+	private final boolean mStubs;
+
+	private FetchPlan(final int theDepth, final List<List<String>> theExpand, final boolean theExpanded,
+	                  final boolean theStubs) {
+		mDepth = theDepth;
+		mExpand = theExpand;
+		mExpanded = theExpanded;
+		mStubs = theStubs;
+	}
+
+	/**
+	 * Create a plan which reads the nested objects up to the given depth
+	 *
+	 * @param theDepth  the number of levels of references to follow, {@code 0} to read only the object itself
+	 * @return          the plan
+	 * @throws IllegalArgumentException if the depth is negative
+	 */
+	public static FetchPlan depth(final int theDepth) {
+		Preconditions.checkArgument(theDepth >= 0, "The depth of a fetch plan cannot be negative");
+
+		return new FetchPlan(theDepth, ImmutableList.of(), true, false);
+	}
+
+	/**
+	 * Return a copy of this plan which also reads the given relations, whatever the depth
+	 *
+	 * @param thePaths  the names of the properties, or paths to the properties of nested objects
+	 * @return          the new plan
+	 * @throws IllegalArgumentException if a path is empty, or has an empty segment
+	 */
+	public FetchPlan expand(final String... thePaths) {
+		final ImmutableList.Builder<List<String>> aExpand = ImmutableList.<List<String>>builder().addAll(mExpand);
+
+		for (String aPath : thePaths) {
+			final List<String> aSegments = PATH.splitToList(aPath);
+
+			Preconditions.checkArgument(!aSegments.contains(""), "Invalid property path: '%s'", aPath);
+
+			aExpand.add(ImmutableList.copyOf(aSegments));
+		}
+
+		return new FetchPlan(mDepth, aExpand.build(), mExpanded, mStubs);
+	}
+
+	/**
+	 * Return a copy of this plan which sets the references beyond it to objects carrying only their identifier
+	 *
+	 * @return the new plan
+	 */
+	public FetchPlan withStubs() {
+		return new FetchPlan(mDepth, mExpand, mExpanded, true);
+	}
+
+	/**
+	 * Return whether or not the references beyond the plan are set to stubs
+	 *
+	 * @return true if stubs are created, false if the references are left unset
+	 */
+	public boolean isStubs() {
+		return mStubs;
+	}
+
+	/**
+	 * Return whether or not the objects at this level are read
+	 */
+	boolean fetches() {
+		return mExpanded || mDepth >= 0;
+	}
+
+	/**
+	 * Return the plan for the objects the property refers to
+	 */
+	FetchPlan select(final String theProperty) {
+		if (this == ALL) {
+			return ALL;
+		}
+
+		final List<List<String>> aExpand = mExpand.stream()
+		                                          .filter(thePath -> thePath.get(0).equals(theProperty))
+		                                          .collect(Collectors.toList());
+
+		if (aExpand.isEmpty()) {
+			return new FetchPlan(mDepth - 1, ImmutableList.of(), false, mStubs);
+		}
+
+		return new FetchPlan(mDepth - 1,
+		                     aExpand.stream()
+		                            .filter(thePath -> thePath.size() > 1)
+		                            .map(thePath -> thePath.subList(1, thePath.size()))
+		                            .collect(Collectors.toList()),
+		                     true, mStubs);
+	}
+
+	@Override
+	public boolean equals(final Object theObj) {
+		if (theObj == this) {
+			return true;
+		}
+		else if (theObj instanceof FetchPlan) {
+			final FetchPlan aPlan = (FetchPlan) theObj;
+
+			return mDepth == aPlan.mDepth
+			       && mExpanded == aPlan.mExpanded
+			       && mStubs == aPlan.mStubs
+			       && Objects.equals(mExpand, aPlan.mExpand);
+		}
+		else {
+			return false;
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(mDepth, mExpand, mExpanded, mStubs);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("FetchPlan(depth=%s, expand=%s, stubs=%s)",
+		                     mDepth == Integer.MAX_VALUE ? "*" : mDepth,
+		                     mExpand.stream().map(thePath -> String.join(".", thePath)).collect(Collectors.toList()),
+		                     mStubs);
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import org.openrdf.model.Model;
+import org.openrdf.model.Statement;
+import org.openrdf.rio.ntriples.NTriplesUtil;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * <p>The difference between the RDF of an object and the RDF it was previously written as, or read from: the
+ * statements to remove and the statements to add to bring a store up to date.  Created by
+ * {@link RDFMapper#diff(Object, Model)}.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class GraphDelta {
+	private final Model mAdded;
+	private final Model mRemoved;
+
+	GraphDelta(final Model theAdded, final Model theRemoved) {
+		mAdded = theAdded.unmodifiable();
+		mRemoved = theRemoved.unmodifiable();
+	}
+
+	/**
+	 * Return the statements which are new
+	 *
+	 * @return the added statements
+	 */
+	public Model getAdded() {
+		return mAdded;
+	}
+
+	/**
+	 * Return the statements which no longer hold
+	 *
+	 * @return the removed statements
+	 */
+	public Model getRemoved() {
+		return mRemoved;
+	}
+
+	/**
+	 * Return whether or not nothing has changed
+	 *
+	 * @return true if there are no statements to add or remove
+	 */
+	public boolean isEmpty() {
+		return mAdded.isEmpty() && mRemoved.isEmpty();
+	}
+
+	/**
+	 * Apply the changes to the graph, removing the removed statements, then adding the added ones
+	 *
+	 * @param theGraph  the graph to update
+	 * @return          the graph
+	 */
+	public Model apply(final Model theGraph) {
+		theGraph.removeAll(mRemoved);
+		theGraph.addAll(mAdded);
+
+		return theGraph;
+	}
+
+	/**
+	 * Write the changes as the data rows of an <a href="https://afs.github.io/rdf-patch/">RDF Patch</a>: a {@code D}
+	 * row for each removed statement followed by an {@code A} row for each added statement, with the terms written
+	 * as in N-Triples.  Blank nodes are written with the labels they have in this delta, so a patch with blank nodes
+	 * can only be applied to a store which preserves those labels.
+	 *
+	 * @param theWriter the writer to write the patch to, which is not closed
+	 * @throws IOException if there is an error writing the patch
+	 */
+	public void writePatch(final Writer theWriter) throws IOException {
+		for (Statement aStmt : mRemoved) {
+			writeRow(theWriter, 'D', aStmt);
+		}
+
+		for (Statement aStmt : mAdded) {
+			writeRow(theWriter, 'A', aStmt);
+		}
+
+		theWriter.flush();
+	}
+
+	private static void writeRow(final Writer theWriter, final char theOp, final Statement theStmt) throws IOException {
+		theWriter.append(theOp).append(' ')
+		         .append(NTriplesUtil.toNTriplesString(theStmt.getSubject())).append(' ')
+		         .append(NTriplesUtil.toNTriplesString(theStmt.getPredicate())).append(' ')
+		         .append(NTriplesUtil.toNTriplesString(theStmt.getObject()));
+
+		if (theStmt.getContext() != null) {
+			theWriter.append(' ').append(NTriplesUtil.toNTriplesString(theStmt.getContext()));
+		}
+
+		theWriter.append(" .\n");
+	}
+
+	@Override
+	public String toString() {
+		return String.format("+%d -%d", mAdded.size(), mRemoved.size());
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.pinto.metrics.CacheStats;
+import org.openrdf.model.IRI;
+import org.openrdf.model.ValueFactory;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>A bounded cache of the IRIs created by a mapper, so the mapper hands out one shared IRI for each string rather
+ * than a new one every time, e.g. for the properties of plans which have the same name, the identifiers of objects which
+ * are written again and again, or the dictionary entries of every binary stream read.</p>
+ *
+ * <p>The cache is a fixed table of slots, each holding the last IRI whose string hashed to it; a lookup is a single
+ * read of its slot, with no locking, and an IRI which collides with another simply replaces it.  So memory use is
+ * bounded by the size of the table, whatever the number of IRIs, and an IRI which was replaced is still correct, it's
+ * just not shared.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class IRICache {
+    private final ValueFactory mValueFactory;
+
+    /**
+     * The slots, or null if nothing is cached
+     */
+    private final AtomicReferenceArray<IRI> mSlots;
+    private final int mMask;
+
+    private final CacheStats mStats = new CacheStats("iris");
+
+    /**
+     * Create the cache
+     *
+     * @param theValueFactory   the factory for the IRIs
+     * @param theSize           the number of slots, rounded up to a power of two, or {@code 0} to cache nothing
+     */
+    IRICache(final ValueFactory theValueFactory, final int theSize) {
+        mValueFactory = theValueFactory;
+
+        if (theSize <= 0) {
+            mSlots = null;
+            mMask = 0;
+        }
+        else {
+            final int aSize = Integer.highestOneBit(Math.min(theSize, 1 << 30) * 2 - 1);
+
+            mSlots = new AtomicReferenceArray<>(aSize);
+            mMask = aSize - 1;
+        }
+    }
+
+    /**
+     * Return the IRI for the string, the cached one if there is one
+     *
+     * @param theIRI    the IRI
+     * @return          the IRI
+     * @throws IllegalArgumentException if the string is not a valid IRI
+     */
+    IRI get(final String theIRI) {
+        if (mSlots == null) {
+            return mValueFactory.createIRI(theIRI);
+        }
+
+        mStats.lookup();
+
+        final int aHash = theIRI.hashCode();
+        final int aSlot = (aHash ^ (aHash >>> 16)) & mMask;
+
+        final IRI aCached = mSlots.get(aSlot);
+
+        if (aCached != null && aCached.stringValue().equals(theIRI)) {
+            return aCached;
+        }
+
+        mStats.miss();
+
+        final IRI aIRI = mValueFactory.createIRI(theIRI);
+
+        mSlots.lazySet(aSlot, aIRI);
+
+        return aIRI;
+    }
+
+    CacheStats stats() {
+        return mStats;
+    }
+}
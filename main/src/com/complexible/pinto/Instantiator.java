@@ -0,0 +1,385 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.common.reflect.Classes;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import org.apache.commons.beanutils.PropertyUtils;
+
+import java.beans.ConstructorProperties;
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>The strategy used by {@link RDFMapper} to create instances of a bean class.  A strategy is resolved once per
+ * class and cached, instances are then created through a {@link MethodHandle} rather than going back through
+ * reflection for every bean.</p>
+ *
+ * <p>Three kinds of classes are supported, in order of preference: those with a public default constructor, whose
+ * properties are then set one by one; those with a public constructor annotated with {@link ConstructorProperties};
+ * and records, when running on a JVM which supports them.  For the latter two, the values of the named properties are
+ * passed to the constructor in a single call and any remaining writable properties are set afterwards.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+abstract class Instantiator<T> {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    /**
+     * {@code Class#isRecord} and {@code Class#getRecordComponents}, or null if the runtime predates records
+     */
+    private static final Method IS_RECORD = method(Class.class, "isRecord");
+    private static final Method RECORD_COMPONENTS = method(Class.class, "getRecordComponents");
+
+    private static final ClassValue<Instantiator<?>> INSTANTIATORS = new ClassValue<Instantiator<?>>() {
+        @Override
+        protected Instantiator<?> computeValue(final Class<?> theClass) {
+            return resolve(theClass);
+        }
+    };
+
+    private final Class<T> mClass;
+    private final PropertyDescriptor[] mDescriptors;
+
+    Instantiator(final Class<T> theClass, final PropertyDescriptor[] theDescriptors) {
+        mClass = theClass;
+        mDescriptors = theDescriptors;
+    }
+
+    /**
+     * Return the cached instantiation strategy for the given class.  Mappers look them up through their
+     * {@link InstantiatorCache}, which tracks their own hit rate.
+     *
+     * @param theClass  the class
+     * @return          the strategy
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Instantiator<T> of(final Class<T> theClass) {
+        return (Instantiator<T>) INSTANTIATORS.get(theClass);
+    }
+
+    /**
+     * Return the class this creates instances of
+     *
+     * @return the class
+     */
+    Class<T> type() {
+        return mClass;
+    }
+
+    /**
+     * Return the bean properties of the class
+     *
+     * @return the properties
+     */
+    PropertyDescriptor[] descriptors() {
+        return mDescriptors;
+    }
+
+    /**
+     * Return whether or not the property can be read from instances of the class
+     *
+     * @param theBean       the instance
+     * @param theDescriptor the property
+     * @return              true if readable, false otherwise
+     */
+    boolean isReadable(final Object theBean, final PropertyDescriptor theDescriptor) {
+        return PropertyUtils.isReadable(theBean, theDescriptor.getName());
+    }
+
+    /**
+     * Read the value of the property from the instance
+     *
+     * @param theBean       the instance
+     * @param theDescriptor the property
+     * @return              the value of the property
+     */
+    Object read(final Object theBean, final PropertyDescriptor theDescriptor) throws IllegalAccessException,
+                                                                                     InvocationTargetException,
+                                                                                     NoSuchMethodException {
+        return PropertyUtils.getProperty(theBean, theDescriptor.getName());
+    }
+
+    /**
+     * Return whether or not instances of the class can be created at all
+     *
+     * @return true if instantiable, false otherwise
+     */
+    abstract boolean isInstantiable();
+
+    /**
+     * Return the names of the properties whose values are passed to the constructor, in order.  Empty when the default
+     * constructor is used.
+     *
+     * @return the constructor properties
+     */
+    abstract List<String> parameters();
+
+    /**
+     * Return a new array of constructor arguments filled with the default value of each parameter, {@code null} for
+     * references and zero or {@code false} for primitives.
+     *
+     * @return the default arguments
+     */
+    abstract Object[] arguments();
+
+    /**
+     * Create a new instance
+     *
+     * @param theArgs   the values for each of the {@link #parameters() constructor properties}
+     * @return          the new instance
+     * @throws RDFMappingException if the instance could not be created
+     */
+    abstract T newInstance(final Object[] theArgs);
+
+    private static Instantiator<?> resolve(final Class<?> theClass) {
+        if (!Classes.isInstantiable(theClass) || !Modifier.isPublic(theClass.getModifiers())) {
+            return new NotInstantiable<>(theClass, PropertyUtils.getPropertyDescriptors(theClass));
+        }
+
+        try {
+            if (Classes.hasDefaultConstructor(theClass)) {
+                return new DefaultConstructor<>(theClass, PropertyUtils.getPropertyDescriptors(theClass),
+                                                LOOKUP.findConstructor(theClass, MethodType.methodType(void.class))
+                                                      .asType(MethodType.methodType(Object.class)));
+            }
+
+            for (Constructor<?> aConstructor : theClass.getConstructors()) {
+                final ConstructorProperties aProps = aConstructor.getAnnotation(ConstructorProperties.class);
+
+                if (aProps != null && aProps.value().length == aConstructor.getParameterCount()) {
+                    return new PropertiesConstructor<>(theClass, PropertyUtils.getPropertyDescriptors(theClass),
+                                                       aConstructor, Arrays.asList(aProps.value()));
+                }
+            }
+
+            if (isRecord(theClass)) {
+                return record(theClass);
+            }
+        }
+        catch (NoSuchMethodException | IllegalAccessException | IntrospectionException e) {
+            throw new RDFMappingException(String.format("Could not resolve a constructor for %s", theClass), e);
+        }
+
+        return new NotInstantiable<>(theClass, PropertyUtils.getPropertyDescriptors(theClass));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Instantiator<?> record(final Class<?> theClass) throws IntrospectionException, NoSuchMethodException,
+                                                                          IllegalAccessException {
+        final Object[] aComponents = (Object[]) invoke(RECORD_COMPONENTS, theClass);
+
+        final Class<?>[] aTypes = new Class<?>[aComponents.length];
+        final PropertyDescriptor[] aDescriptors = new PropertyDescriptor[aComponents.length];
+        final String[] aNames = new String[aComponents.length];
+
+        for (int i = 0; i < aComponents.length; i++) {
+            final Class<?> aComponentClass = aComponents[i].getClass();
+
+            aNames[i] = (String) invoke(method(aComponentClass, "getName"), aComponents[i]);
+            aTypes[i] = (Class<?>) invoke(method(aComponentClass, "getType"), aComponents[i]);
+
+            // record accessors are not named like bean getters, so we have to build the descriptors ourselves.
+            // annotations such as RdfProperty on a component are propagated to its accessor
+            aDescriptors[i] = new PropertyDescriptor(aNames[i],
+                                                     (Method) invoke(method(aComponentClass, "getAccessor"), aComponents[i]),
+                                                     null);
+        }
+
+        return new PropertiesConstructor<Object>((Class<Object>) theClass, aDescriptors, theClass.getConstructor(aTypes),
+                                                 Arrays.asList(aNames)) {
+            @Override
+            boolean isReadable(final Object theBean, final PropertyDescriptor theDescriptor) {
+                return true;
+            }
+
+            @Override
+            Object read(final Object theBean, final PropertyDescriptor theDescriptor) throws IllegalAccessException,
+                                                                                             InvocationTargetException {
+                // the accessors of a record are public, but they are not bean getters
+                return theDescriptor.getReadMethod().invoke(theBean);
+            }
+        };
+    }
+
+    private static boolean isRecord(final Class<?> theClass) {
+        return IS_RECORD != null && RECORD_COMPONENTS != null && (Boolean) invoke(IS_RECORD, theClass);
+    }
+
+    private static Method method(final Class<?> theClass, final String theName) {
+        try {
+            return theClass.getMethod(theName);
+        }
+        catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Object invoke(final Method theMethod, final Object theObj) {
+        try {
+            return theMethod.invoke(theObj);
+        }
+        catch (Exception e) {
+            throw new RDFMappingException(e);
+        }
+    }
+
+    private static Object defaultValue(final Class<?> theType) {
+        return theType.isPrimitive()
+               ? Array.get(Array.newInstance(theType, 1), 0)
+               : null;
+    }
+
+    /**
+     * Creates instances through the public default constructor
+     */
+    private static final class DefaultConstructor<T> extends Instantiator<T> {
+        private static final Object[] NO_ARGS = new Object[0];
+
+        private final MethodHandle mConstructor;
+
+        DefaultConstructor(final Class<T> theClass, final PropertyDescriptor[] theDescriptors,
+                           final MethodHandle theConstructor) {
+            super(theClass, theDescriptors);
+            mConstructor = theConstructor;
+        }
+
+        @Override
+        boolean isInstantiable() {
+            return true;
+        }
+
+        @Override
+        List<String> parameters() {
+            return ImmutableList.of();
+        }
+
+        @Override
+        Object[] arguments() {
+            return NO_ARGS;
+        }
+
+        @Override
+        T newInstance(final Object[] theArgs) {
+            try {
+                return type().cast(mConstructor.invokeExact());
+            }
+            catch (Throwable e) {
+                Throwables.propagateIfInstanceOf(e, Error.class);
+                throw new RDFMappingException(String.format("Exception thrown by the constructor of %s", type()), e);
+            }
+        }
+    }
+
+    /**
+     * Creates instances through a constructor whose parameters correspond to bean properties, either declared via
+     * {@link ConstructorProperties} or the canonical constructor of a record.
+     */
+    private static class PropertiesConstructor<T> extends Instantiator<T> {
+        private final MethodHandle mConstructor;
+        private final List<String> mParameters;
+        private final Object[] mDefaults;
+
+        PropertiesConstructor(final Class<T> theClass, final PropertyDescriptor[] theDescriptors,
+                              final Constructor<?> theConstructor, final List<String> theParameters) throws IllegalAccessException {
+            super(theClass, theDescriptors);
+
+            mParameters = ImmutableList.copyOf(theParameters);
+            mConstructor = LOOKUP.unreflectConstructor(theConstructor)
+                                 .asSpreader(Object[].class, theParameters.size())
+                                 .asType(MethodType.methodType(Object.class, Object[].class));
+
+            final Class<?>[] aTypes = theConstructor.getParameterTypes();
+            mDefaults = new Object[aTypes.length];
+            for (int i = 0; i < aTypes.length; i++) {
+                mDefaults[i] = defaultValue(aTypes[i]);
+            }
+        }
+
+        @Override
+        boolean isInstantiable() {
+            return true;
+        }
+
+        @Override
+        List<String> parameters() {
+            return mParameters;
+        }
+
+        @Override
+        Object[] arguments() {
+            return mDefaults.clone();
+        }
+
+        @Override
+        T newInstance(final Object[] theArgs) {
+            try {
+                return type().cast(mConstructor.invokeExact(theArgs));
+            }
+            catch (ClassCastException e) {
+                throw new RDFMappingException(String.format("Constructor arguments %s do not match the parameters of %s",
+                                                            Arrays.toString(theArgs), type()), e);
+            }
+            catch (Throwable e) {
+                Throwables.propagateIfInstanceOf(e, Error.class);
+                throw new RDFMappingException(String.format("Exception thrown by the constructor of %s", type()), e);
+            }
+        }
+    }
+
+    /**
+     * Placeholder for classes which cannot be created, ie interfaces, abstract classes, or those without a usable
+     * constructor.
+     */
+    private static final class NotInstantiable<T> extends Instantiator<T> {
+        NotInstantiable(final Class<T> theClass, final PropertyDescriptor[] theDescriptors) {
+            super(theClass, theDescriptors);
+        }
+
+        @Override
+        boolean isInstantiable() {
+            return false;
+        }
+
+        @Override
+        List<String> parameters() {
+            return ImmutableList.of();
+        }
+
+        @Override
+        Object[] arguments() {
+            return new Object[0];
+        }
+
+        @Override
+        T newInstance(final Object[] theArgs) {
+            throw new RDFMappingException(String.format("Could not create an instance of %s, it does not have a default constructor", type()));
+        }
+    }
+}
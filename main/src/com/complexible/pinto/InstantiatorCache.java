@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.pinto.metrics.CacheStats;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>The {@link Instantiator instantiators} used by a mapper.  The strategies themselves are resolved once per class
+ * and shared by every mapper in the JVM; this keeps the ones a mapper has used so that its hit rate is its own, a miss
+ * being the first time the mapper needs a class.  Lookups are only counted when the mapper has metrics.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class InstantiatorCache {
+    private final ConcurrentMap<Class<?>, Instantiator<?>> mInstantiators = new ConcurrentHashMap<>();
+
+    /**
+     * The stats of the cache, or null if they are not tracked
+     */
+    private final CacheStats mStats;
+
+    InstantiatorCache(final boolean theTracked) {
+        mStats = theTracked ? new CacheStats("instantiators") : null;
+    }
+
+    /**
+     * Return the instantiation strategy for the given class
+     *
+     * @param theClass  the class
+     * @return          the strategy
+     */
+    @SuppressWarnings("unchecked")
+    <T> Instantiator<T> of(final Class<T> theClass) {
+        final Instantiator<?> aInstantiator = mInstantiators.get(theClass);
+
+        if (mStats != null) {
+            mStats.lookup();
+        }
+
+        if (aInstantiator != null) {
+            return (Instantiator<T>) aInstantiator;
+        }
+
+        if (mStats != null) {
+            mStats.miss();
+        }
+
+        return (Instantiator<T>) mInstantiators.computeIfAbsent(theClass, Instantiator::of);
+    }
+
+    /**
+     * Return the stats of the cache
+     *
+     * @return the stats, or null if they are not tracked
+     */
+    CacheStats stats() {
+        return mStats;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import org.openrdf.model.IRI;
+import org.openrdf.model.vocabulary.XMLSchema;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>Which of the values read from literals are interned, so that equal values share one instance rather than each
+ * object holding its own copy.  Meant for properties with few distinct values, such as country codes or statuses, in
+ * large numbers of objects; the values are chosen by the name of the property they are read for, or by the datatype of
+ * the literal, with plain literals having the datatype {@code xsd:string}.</p>
+ *
+ * <p>Strings, numbers, booleans, characters and {@code java.net.URI}s are interned; dates are mutable, and never are.
+ * The number of values interned is bounded by {@link MappingOptions#INTERN_LIMIT}, so a property with many more
+ * distinct values than expected does not fill the heap.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ *
+ * @see MappingOptions#INTERN_POLICY
+ */
+public final class InternPolicy {
+
+	/**
+	 * The policy which interns nothing
+	 */
+	public static final InternPolicy NONE = new InternPolicy(false, ImmutableSet.of(), ImmutableSet.of());
+
+	/**
+	 * The policy which interns every value read from a literal
+	 */
+	public static final InternPolicy ALL = new InternPolicy(true, ImmutableSet.of(), ImmutableSet.of());
+
+	private final boolean mAll;
+	private final Set<IRI> mDatatypes;
+	private final Set<String> mProperties;
+
+	private InternPolicy(final boolean theAll, final Set<IRI> theDatatypes, final Set<String> theProperties) {
+		mAll = theAll;
+		mDatatypes = theDatatypes;
+		mProperties = theProperties;
+	}
+
+	/**
+	 * Create a policy which interns the values of literals with the given datatypes
+	 *
+	 * @param theDatatypes  the datatypes
+	 * @return              the policy
+	 */
+	public static InternPolicy datatypes(final IRI... theDatatypes) {
+		return new InternPolicy(false, ImmutableSet.copyOf(Arrays.asList(theDatatypes)), ImmutableSet.of());
+	}
+
+	/**
+	 * Create a policy which interns the values of the properties with the given names, in any class
+	 *
+	 * @param theProperties the names of the properties
+	 * @return              the policy
+	 */
+	public static InternPolicy properties(final String... theProperties) {
+		return new InternPolicy(false, ImmutableSet.of(), ImmutableSet.copyOf(Arrays.asList(theProperties)));
+	}
+
+	/**
+	 * Return a policy which interns the values either this policy, or the other, interns
+	 *
+	 * @param thePolicy the other policy
+	 * @return          the combined policy
+	 */
+	public InternPolicy or(final InternPolicy thePolicy) {
+		return new InternPolicy(mAll || thePolicy.mAll,
+		                        ImmutableSet.copyOf(Sets.union(mDatatypes, thePolicy.mDatatypes)),
+		                        ImmutableSet.copyOf(Sets.union(mProperties, thePolicy.mProperties)));
+	}
+
+	/**
+	 * Return whether or not the policy interns anything
+	 *
+	 * @return true if no value is interned
+	 */
+	public boolean isNone() {
+		return !mAll && mDatatypes.isEmpty() && mProperties.isEmpty();
+	}
+
+	/**
+	 * Return whether or not the value read for the property, from a literal of the datatype, is interned
+	 */
+	boolean interns(final String theProperty, final IRI theDatatype) {
+		return mAll
+		       || (theProperty != null && mProperties.contains(theProperty))
+		       || mDatatypes.contains(theDatatype == null ? XMLSchema.STRING : theDatatype);
+	}
+
+	@Override
+	public boolean equals(final Object theObj) {
+		if (theObj == this) {
+			return true;
+		}
+		else if (theObj instanceof InternPolicy) {
+			final InternPolicy aPolicy = (InternPolicy) theObj;
+
+			return mAll == aPolicy.mAll
+			       && mDatatypes.equals(aPolicy.mDatatypes)
+			       && mProperties.equals(aPolicy.mProperties);
+		}
+		else {
+			return false;
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(mAll, mDatatypes, mProperties);
+	}
+
+	@Override
+	public String toString() {
+		return mAll ? "InternPolicy(*)"
+		            : String.format("InternPolicy(datatypes=%s, properties=%s)", mDatatypes, mProperties);
+	}
+}
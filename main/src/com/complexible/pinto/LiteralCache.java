@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.pinto.metrics.CacheStats;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Literal;
+import org.openrdf.model.ValueFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>Shared instances of the literals the mapper writes, so that writing the same value again and again does not
+ * create a new literal each time.  The booleans, and the ints and longs in a small range, are created up front; other
+ * literals, such as strings and the values of properties with a datatype, are kept in a cache of the most recently
+ * written labels for each datatype and each language.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class LiteralCache {
+
+    /**
+     * The range of the ints and longs created up front, from the smallest, inclusive, to the largest, exclusive
+     */
+    private static final int MIN_NUMBER = -128;
+    private static final int MAX_NUMBER = 1024;
+
+    private final ValueFactory mValueFactory;
+
+    /**
+     * The number of labels cached for each datatype and language, or 0 if labels are not cached
+     */
+    private final int mSize;
+
+    private final Literal mTrue;
+    private final Literal mFalse;
+    private final Literal[] mInts = new Literal[MAX_NUMBER - MIN_NUMBER];
+    private final Literal[] mLongs = new Literal[MAX_NUMBER - MIN_NUMBER];
+
+    /**
+     * The caches of the literals by label, keyed by the IRI of their datatype, or the string of their language
+     */
+    private final ConcurrentMap<Object, Cache<String, Literal>> mLabels = new ConcurrentHashMap<>();
+
+    private final CacheStats mStats = new CacheStats("written-literals");
+
+    LiteralCache(final ValueFactory theValueFactory, final int theSize) {
+        mValueFactory = theValueFactory;
+        mSize = theSize;
+
+        mTrue = theValueFactory.createLiteral(true);
+        mFalse = theValueFactory.createLiteral(false);
+
+        for (int i = MIN_NUMBER; i < MAX_NUMBER; i++) {
+            mInts[i - MIN_NUMBER] = theValueFactory.createLiteral(i);
+            mLongs[i - MIN_NUMBER] = theValueFactory.createLiteral((long) i);
+        }
+    }
+
+    Literal of(final boolean theValue) {
+        return theValue ? mTrue : mFalse;
+    }
+
+    Literal of(final int theValue) {
+        return theValue >= MIN_NUMBER && theValue < MAX_NUMBER
+               ? mInts[theValue - MIN_NUMBER]
+               : mValueFactory.createLiteral(theValue);
+    }
+
+    Literal of(final long theValue) {
+        return theValue >= MIN_NUMBER && theValue < MAX_NUMBER
+               ? mLongs[(int) theValue - MIN_NUMBER]
+               : mValueFactory.createLiteral(theValue);
+    }
+
+    /**
+     * Return the literal with the label and datatype
+     */
+    Literal typed(final String theLabel, final IRI theDatatype) {
+        final Cache<String, Literal> aCache = labels(theDatatype);
+
+        if (aCache == null) {
+            return mValueFactory.createLiteral(theLabel, theDatatype);
+        }
+
+        mStats.lookup();
+
+        Literal aLiteral = aCache.getIfPresent(theLabel);
+
+        if (aLiteral == null) {
+            mStats.miss();
+
+            aLiteral = mValueFactory.createLiteral(theLabel, theDatatype);
+            aCache.put(theLabel, aLiteral);
+        }
+
+        return aLiteral;
+    }
+
+    /**
+     * Return the literal with the label and language
+     */
+    Literal language(final String theLabel, final String theLanguage) {
+        final Cache<String, Literal> aCache = labels(theLanguage);
+
+        if (aCache == null) {
+            return mValueFactory.createLiteral(theLabel, theLanguage);
+        }
+
+        mStats.lookup();
+
+        Literal aLiteral = aCache.getIfPresent(theLabel);
+
+        if (aLiteral == null) {
+            mStats.miss();
+
+            aLiteral = mValueFactory.createLiteral(theLabel, theLanguage);
+            aCache.put(theLabel, aLiteral);
+        }
+
+        return aLiteral;
+    }
+
+    /**
+     * Return the cache of the literals with the datatype or language, or null if labels are not cached
+     */
+    private Cache<String, Literal> labels(final Object theKey) {
+        if (mSize <= 0) {
+            return null;
+        }
+
+        final Cache<String, Literal> aCache = mLabels.get(theKey);
+
+        return aCache != null
+               ? aCache
+               : mLabels.computeIfAbsent(theKey, theKind -> CacheBuilder.newBuilder().maximumSize(mSize).build());
+    }
+
+    CacheStats stats() {
+        return mStats;
+    }
+}
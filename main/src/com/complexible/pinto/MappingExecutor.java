@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>The default {@link Executor} for the asynchronous calls of an {@link RDFMapper}.  When the runtime has virtual
+ * threads, each task runs on its own virtual thread, and at most {@code concurrency} of them map at a time; otherwise
+ * the tasks run on a pool of {@code concurrency} daemon platform threads, which time out when idle, so a mapper which is
+ * no longer used does not keep threads alive.</p>
+ *
+ * <p>The threads are only set up on the first task, so a mapper which never maps asynchronously costs nothing, and
+ * {@link #shutdown()} releases them when the mapper is {@link RDFMapper#close() closed}.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class MappingExecutor implements Executor {
+
+    /**
+     * {@code Executors#newVirtualThreadPerTaskExecutor}, or null if the runtime predates virtual threads
+     */
+    private static final Method NEW_VIRTUAL_EXECUTOR = virtualExecutorFactory();
+
+    private final int mConcurrency;
+
+    /**
+     * The executor the tasks are run on, or null until the first task
+     */
+    private volatile ExecutorService mDelegate;
+
+    /**
+     * The permits for running a task on a virtual thread, or null when the delegate is a bounded pool.  Set before the
+     * delegate, so it's visible to whoever sees the delegate.
+     */
+    private Semaphore mPermits;
+
+    private boolean mShutdown;
+
+    private MappingExecutor(final int theConcurrency) {
+        mConcurrency = theConcurrency;
+    }
+
+    /**
+     * Create a new executor
+     *
+     * @param theConcurrency    the maximum number of tasks which run at once
+     * @return                  the executor
+     */
+    static MappingExecutor create(final int theConcurrency) {
+        return new MappingExecutor(theConcurrency);
+    }
+
+    @Override
+    public void execute(final Runnable theTask) {
+        final ExecutorService aDelegate = delegate();
+
+        if (mPermits == null) {
+            aDelegate.execute(theTask);
+            return;
+        }
+
+        final Semaphore aPermits = mPermits;
+
+        // blocking a virtual thread is cheap, so the limit is applied when the task starts rather than by queueing
+        aDelegate.execute(() -> {
+            aPermits.acquireUninterruptibly();
+
+            try {
+                theTask.run();
+            }
+            finally {
+                aPermits.release();
+            }
+        });
+    }
+
+    /**
+     * Stop accepting tasks, and let the threads go once the tasks already submitted are done
+     */
+    synchronized void shutdown() {
+        mShutdown = true;
+
+        if (mDelegate != null) {
+            mDelegate.shutdown();
+        }
+    }
+
+    /**
+     * Return whether the executor has been {@link #shutdown() shut down}
+     *
+     * @return true if it no longer accepts tasks
+     */
+    synchronized boolean isShutdown() {
+        return mShutdown;
+    }
+
+    private ExecutorService delegate() {
+        ExecutorService aDelegate = mDelegate;
+
+        if (aDelegate != null) {
+            return aDelegate;
+        }
+
+        synchronized (this) {
+            if (mShutdown) {
+                throw new RejectedExecutionException("The mapper has been closed");
+            }
+
+            if (mDelegate == null) {
+                mDelegate = newDelegate();
+            }
+
+            return mDelegate;
+        }
+    }
+
+    private ExecutorService newDelegate() {
+        if (NEW_VIRTUAL_EXECUTOR != null) {
+            try {
+                final ExecutorService aVirtual = (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+
+                mPermits = new Semaphore(mConcurrency);
+
+                return aVirtual;
+            }
+            catch (IllegalAccessException | InvocationTargetException e) {
+                // fall back to platform threads
+            }
+        }
+
+        final ThreadPoolExecutor aPool = new ThreadPoolExecutor(mConcurrency, mConcurrency,
+                                                                30, TimeUnit.SECONDS,
+                                                                new LinkedBlockingQueue<>(),
+                                                                new ThreadFactoryBuilder().setNameFormat("pinto-mapper-%d")
+                                                                                          .setDaemon(true)
+                                                                                          .build());
+        aPool.allowCoreThreadTimeOut(true);
+
+        return aPool;
+    }
+
+    private static Method virtualExecutorFactory() {
+        try {
+            return Class.forName("java.util.concurrent.Executors").getMethod("newVirtualThreadPerTaskExecutor");
+        }
+        catch (ClassNotFoundException | NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
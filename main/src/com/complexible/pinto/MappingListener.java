@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import org.openrdf.model.Literal;
+import org.openrdf.model.Resource;
+
+/**
+ * <p>Callbacks for tracing the work done by an {@link RDFMapper}.  Each read or write of an object, each property
+ * of that object, and each call to an {@link RDFCodec} is bracketed by a {@code begin} and an {@code end} callback;
+ * the {@code end} callback is made whether or not the operation succeeded and carries the elapsed time of the
+ * operation.  Literals which cannot be converted and cardinality violations are reported as they are found.</p>
+ *
+ * <p>Operations nest, reading an object reads each of its properties, which may read other objects, so elapsed times
+ * are inclusive of the nested operations.  Callbacks are made on the thread doing the mapping and should be cheap and
+ * thread-safe; a listener which throws will abort the mapping call.</p>
+ *
+ * <p>Listeners are provided to the {@link RDFMapper.Builder#listener(MappingListener) mapper} when it's being created.
+ * A mapper with no listeners does not time anything.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ *
+ * @see com.complexible.pinto.listeners.AggregatingListener
+ */
+public interface MappingListener {
+
+	/**
+	 * The direction of a property or codec operation
+	 */
+	public enum Operation {
+		READ, WRITE
+	}
+
+	/**
+	 * Called before an object is read from RDF
+	 *
+	 * @param theClass      the class of the object
+	 * @param theSubject    the resource the object is read from
+	 */
+	public default void beginRead(final Class<?> theClass, final Resource theSubject) {
+	}
+
+	/**
+	 * Called after an object has been read from RDF
+	 *
+	 * @param theClass          the class of the object
+	 * @param theSubject        the resource the object was read from
+	 * @param theStatements     the number of statements about the resource
+	 * @param theElapsedNanos   the time taken to read the object
+	 */
+	public default void endRead(final Class<?> theClass, final Resource theSubject, final long theStatements,
+	                            final long theElapsedNanos) {
+	}
+
+	/**
+	 * Called before an object is written as RDF
+	 *
+	 * @param theClass  the class of the object
+	 */
+	public default void beginWrite(final Class<?> theClass) {
+	}
+
+	/**
+	 * Called after an object has been written as RDF
+	 *
+	 * @param theClass          the class of the object
+	 * @param theSubject        the resource the object was written as, or null if the write failed
+	 * @param theStatements     the number of statements written for the object, including nested objects
+	 * @param theElapsedNanos   the time taken to write the object
+	 */
+	public default void endWrite(final Class<?> theClass, final Resource theSubject, final long theStatements,
+	                             final long theElapsedNanos) {
+	}
+
+	/**
+	 * Called before a property of an object is read or written
+	 *
+	 * @param theOperation  whether the property is being read or written
+	 * @param theClass      the class declaring the property
+	 * @param theProperty   the name of the property
+	 */
+	public default void beginProperty(final Operation theOperation, final Class<?> theClass, final String theProperty) {
+	}
+
+	/**
+	 * Called after a property of an object has been read or written
+	 *
+	 * @param theOperation      whether the property was read or written
+	 * @param theClass          the class declaring the property
+	 * @param theProperty       the name of the property
+	 * @param theElapsedNanos   the time taken, including looking up its values and converting them
+	 */
+	public default void endProperty(final Operation theOperation, final Class<?> theClass, final String theProperty,
+	                                final long theElapsedNanos) {
+	}
+
+	/**
+	 * Called before a {@link RDFCodec codec} is invoked
+	 *
+	 * @param theOperation  whether the codec is reading or writing
+	 * @param theType       the type handled by the codec
+	 * @param theCodec      the codec
+	 */
+	public default void beginCodec(final Operation theOperation, final Class<?> theType, final RDFCodec<?> theCodec) {
+	}
+
+	/**
+	 * Called after a {@link RDFCodec codec} has been invoked
+	 *
+	 * @param theOperation      whether the codec was reading or writing
+	 * @param theType           the type handled by the codec
+	 * @param theCodec          the codec
+	 * @param theElapsedNanos   the time spent in the codec
+	 */
+	public default void endCodec(final Operation theOperation, final Class<?> theType, final RDFCodec<?> theCodec,
+	                             final long theElapsedNanos) {
+	}
+
+	/**
+	 * Called when a call to read or write an object fails.  This is called once for the call, with the class given to
+	 * the mapper, rather than for each of the nested objects being read or written when the error was raised.
+	 *
+	 * @param theOperation  whether the object was being read or written
+	 * @param theClass      the class of the object, or null if it is not known
+	 * @param theError      the error
+	 */
+	public default void error(final Operation theOperation, final Class<?> theClass, final Exception theError) {
+	}
+
+	/**
+	 * Called when a literal could not be converted into a Java value, before the error is raised, or the value is
+	 * skipped
+	 *
+	 * @param theLiteral    the literal
+	 * @param theType       the type of the property being read, or null if the literal is not the value of a property
+	 * @param theError      the error
+	 */
+	public default void literalConversionFailed(final Literal theLiteral, final Class<?> theType,
+	                                            final Exception theError) {
+	}
+
+	/**
+	 * Called when a property which takes a single value has more than one value in the graph, whether or not the
+	 * mapper is set to {@link MappingOptions#IGNORE_CARDINALITY_VIOLATIONS ignore} this
+	 *
+	 * @param theClass      the class declaring the property
+	 * @param theProperty   the name of the property
+	 * @param theValues     the number of values found
+	 */
+	public default void cardinalityViolation(final Class<?> theClass, final String theProperty, final int theValues) {
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.google.common.collect.ImmutableList;
+import org.openrdf.model.Literal;
+import org.openrdf.model.Resource;
+
+import java.util.List;
+
+/**
+ * <p>Combines the {@link MappingListener listeners} registered with a {@link RDFMapper.Builder}.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class MappingListeners {
+
+	/**
+	 * No instances
+	 */
+	private MappingListeners() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Return a single listener which calls each of the given listeners in turn, or {@code null} if there are none, so
+	 * that the mapper can skip the callbacks, and the timing, entirely.
+	 *
+	 * @param theListeners  the listeners
+	 * @return              the combined listener, or null
+	 */
+	static MappingListener of(final List<MappingListener> theListeners) {
+		if (theListeners.isEmpty()) {
+			return null;
+		}
+		else if (theListeners.size() == 1) {
+			return theListeners.get(0);
+		}
+		else {
+			return new CompositeListener(theListeners);
+		}
+	}
+
+	private static final class CompositeListener implements MappingListener {
+		private final MappingListener[] mListeners;
+
+		CompositeListener(final List<MappingListener> theListeners) {
+			mListeners = ImmutableList.copyOf(theListeners).toArray(new MappingListener[theListeners.size()]);
+		}
+
+		@Override
+		public void beginRead(final Class<?> theClass, final Resource theSubject) {
+			for (MappingListener aListener : mListeners) {
+				aListener.beginRead(theClass, theSubject);
+			}
+		}
+
+		@Override
+		public void endRead(final Class<?> theClass, final Resource theSubject, final long theStatements,
+		                    final long theElapsedNanos) {
+			for (MappingListener aListener : mListeners) {
+				aListener.endRead(theClass, theSubject, theStatements, theElapsedNanos);
+			}
+		}
+
+		@Override
+		public void beginWrite(final Class<?> theClass) {
+			for (MappingListener aListener : mListeners) {
+				aListener.beginWrite(theClass);
+			}
+		}
+
+		@Override
+		public void endWrite(final Class<?> theClass, final Resource theSubject, final long theStatements,
+		                     final long theElapsedNanos) {
+			for (MappingListener aListener : mListeners) {
+				aListener.endWrite(theClass, theSubject, theStatements, theElapsedNanos);
+			}
+		}
+
+		@Override
+		public void beginProperty(final Operation theOperation, final Class<?> theClass, final String theProperty) {
+			for (MappingListener aListener : mListeners) {
+				aListener.beginProperty(theOperation, theClass, theProperty);
+			}
+		}
+
+		@Override
+		public void endProperty(final Operation theOperation, final Class<?> theClass, final String theProperty,
+		                        final long theElapsedNanos) {
+			for (MappingListener aListener : mListeners) {
+				aListener.endProperty(theOperation, theClass, theProperty, theElapsedNanos);
+			}
+		}
+
+		@Override
+		public void beginCodec(final Operation theOperation, final Class<?> theType, final RDFCodec<?> theCodec) {
+			for (MappingListener aListener : mListeners) {
+				aListener.beginCodec(theOperation, theType, theCodec);
+			}
+		}
+
+		@Override
+		public void endCodec(final Operation theOperation, final Class<?> theType, final RDFCodec<?> theCodec,
+		                     final long theElapsedNanos) {
+			for (MappingListener aListener : mListeners) {
+				aListener.endCodec(theOperation, theType, theCodec, theElapsedNanos);
+			}
+		}
+
+		@Override
+		public void error(final Operation theOperation, final Class<?> theClass, final Exception theError) {
+			for (MappingListener aListener : mListeners) {
+				aListener.error(theOperation, theClass, theError);
+			}
+		}
+
+		@Override
+		public void literalConversionFailed(final Literal theLiteral, final Class<?> theType, final Exception theError) {
+			for (MappingListener aListener : mListeners) {
+				aListener.literalConversionFailed(theLiteral, theType, theError);
+			}
+		}
+
+		@Override
+		public void cardinalityViolation(final Class<?> theClass, final String theProperty, final int theValues) {
+			for (MappingListener aListener : mListeners) {
+				aListener.cardinalityViolation(theClass, theProperty, theValues);
+			}
+		}
+	}
+}
@@ -19,6 +19,9 @@ import com.complexible.common.base.Options;
 import com.complexible.pinto.annotations.RdfId;
 import com.complexible.pinto.annotations.RdfProperty;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 /**
  * <p>Set of options for controlling some aspects of mapping beans to RDF.</p>
  *
@@ -72,4 +75,98 @@ public final class MappingOptions {
 	 * default: `false`
 	 */
 	public static final Option<Boolean> IGNORE_CARDINALITY_VIOLATIONS = Option.create("ignore.cardinality.violations", false);
+
+	/**
+	 * Whether or not to write maps whose keys are all strings, or all constants of the enum the map is declared with,
+	 * compactly: each entry is a single statement whose predicate is made from the key, rather than a blank node with
+	 * {@link RDFMapper#KEY key} and {@link RDFMapper#VALUE value} statements.  Maps with other keys are always written
+	 * as entries.  Both layouts are always read.
+	 *
+	 * default: `false`
+	 */
+	public static final Option<Boolean> COMPACT_MAPS = Option.create("compact.maps", false);
+
+	/**
+	 * The {@link Projection} of the properties to read for the objects read without one, a field mask applied to every
+	 * read, e.g. for a mapper which only serves a summary of the objects.  The properties which are not in the
+	 * projection are left unset.
+	 *
+	 * default: {@link Projection#ALL}
+	 */
+	public static final Option<Projection> PROJECTION = Option.create("projection", Projection.ALL);
+
+	/**
+	 * The {@link InternPolicy} for the values read from literals, so that equal values of the chosen properties or
+	 * datatypes share one instance, e.g. {@code InternPolicy.properties("country", "status")}.
+	 *
+	 * default: {@link InternPolicy#NONE}
+	 */
+	public static final Option<InternPolicy> INTERN_POLICY = Option.create("intern.policy", InternPolicy.NONE);
+
+	/**
+	 * The maximum number of distinct values interned by the {@link #INTERN_POLICY}; once it's reached, new values are
+	 * no longer interned, while those already interned are still shared.
+	 *
+	 * default: `10000`
+	 */
+	public static final Option<Integer> INTERN_LIMIT = Option.create("intern.limit", 10_000);
+
+	/**
+	 * The maximum number of statements held back when reading objects from statements grouped by subject, waiting for
+	 * the groups of the blank nodes they refer to.  Input which needs more than this is not grouped closely enough to
+	 * be read in bounded memory, and fails with {@link RDFMappingException}.
+	 *
+	 * default: `100000`
+	 *
+	 * @see RDFMapper#readValues(java.util.Iterator, Class)
+	 */
+	public static final Option<Integer> GROUP_BUFFER_LIMIT = Option.create("group.buffer.limit", 100_000);
+
+	/**
+	 * The number of IRIs created by the mapper, e.g. from annotations or for the identifiers of objects, which are kept
+	 * so that each is shared rather than created again.  The cache is a fixed table, so memory use stays bounded; an IRI
+	 * is only replaced by one which collides with it.  {@code 0} disables the cache.
+	 *
+	 * default: `4096`
+	 */
+	public static final Option<Integer> IRI_CACHE_SIZE = Option.create("iri.cache.size", 4096);
+
+	/**
+	 * The number of recently written labels whose literals are kept, for each datatype and each language, so that
+	 * writing the same string, or the same value of a property with a datatype, again does not create a new literal.
+	 * Booleans and small ints and longs are always shared.  {@code 0} disables the cache of labels.
+	 *
+	 * default: `1024`
+	 */
+	public static final Option<Integer> LITERAL_CACHE_SIZE = Option.create("literal.cache.size", 1024);
+
+	/**
+	 * The number of bytes of statements held in memory at once when sorting a file which is larger than the heap; the
+	 * statements are spilled to sorted runs on disk each time they reach it.
+	 *
+	 * default: `64MB`
+	 *
+	 * @see RDFMapper#streamValues(Path, Class)
+	 */
+	public static final Option<Long> SORT_MEMORY_BUDGET = Option.create("sort.memory.budget", 64L * 1024 * 1024);
+
+	/**
+	 * The directory the runs of an external sort are written to, it should have room for about twice the size of the
+	 * file being sorted.
+	 *
+	 * default: the value of {@code java.io.tmpdir}
+	 *
+	 * @see RDFMapper#streamValues(Path, Class)
+	 */
+	public static final Option<Path> SORT_DIRECTORY = Option.create("sort.directory", Paths.get(System.getProperty("java.io.tmpdir")));
+
+	/**
+	 * The least number of milliseconds between two summaries of the conditions the mapper found again after logging
+	 * them the first time, such as cardinality violations which are ignored.  {@code 0} logs every occurrence.
+	 *
+	 * default: `60000`
+	 *
+	 * @see RDFMapper#diagnostics()
+	 */
+	public static final Option<Long> DIAGNOSTICS_INTERVAL = Option.create("diagnostics.interval", 60_000L);
 }
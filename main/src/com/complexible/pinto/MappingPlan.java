@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.openrdf.model.IRI;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Everything an {@link RDFMapper} needs to know about a class to map it which does not depend on the instance being
+ * mapped: the IRIs and annotations of its properties, its {@code rdf:type}, the properties which make up its
+ * identifier and, for enums, the IRIs of the constants.  Plans are compiled once per class by each mapper, since the
+ * IRIs depend on the mapper's namespaces and options.</p>
+ *
+ * <p>An annotation with an invalid IRI does not fail the compilation of the plan; the error is kept and raised when the
+ * IRI is used, as it would have been had the annotation been read at that point.  {@link #validate()} raises any such
+ * errors up front.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class MappingPlan {
+    private final Class<?> mClass;
+    private final Resolved mType;
+    private final List<Property> mProperties;
+    private final List<String> mIdProperties;
+    private final Map<Enum<?>, Resolved> mEnumIris;
+
+    MappingPlan(final Class<?> theClass, final Resolved theType, final List<Property> theProperties,
+                final List<String> theIdProperties, final Map<Enum<?>, Resolved> theEnumIris) {
+        mClass = theClass;
+        mType = theType;
+        mProperties = ImmutableList.copyOf(theProperties);
+        mIdProperties = ImmutableList.copyOf(theIdProperties);
+        mEnumIris = ImmutableMap.copyOf(theEnumIris);
+    }
+
+    Class<?> type() {
+        return mClass;
+    }
+
+    /**
+     * Return the {@code rdf:type} of instances of the class, or null if there is none
+     */
+    IRI rdfType() {
+        return mType.get();
+    }
+
+    Resolved resolvedType() {
+        return mType;
+    }
+
+    /**
+     * Return the mapped properties of the class, this excludes {@code getClass()}
+     */
+    List<Property> properties() {
+        return mProperties;
+    }
+
+    /**
+     * Return the names of the properties annotated with {@link com.complexible.pinto.annotations.RdfId}, sorted so
+     * that the identifier generated from them is stable
+     */
+    List<String> idProperties() {
+        return mIdProperties;
+    }
+
+    /**
+     * Return the IRI of the enum constant, the plan must be for an enum class
+     */
+    IRI enumIri(final Enum<?> theEnum) {
+        return mEnumIris.get(theEnum).get();
+    }
+
+    /**
+     * Return the IRIs of the constants of the enum, keyed by constant, empty if the class is not an enum
+     */
+    Map<Enum<?>, Resolved> enumIris() {
+        return mEnumIris;
+    }
+
+    /**
+     * Raise any error from resolving the IRIs of the plan now, rather than when they are used
+     *
+     * @throws RDFMappingException if an annotation has an invalid IRI
+     */
+    void validate() {
+        mType.get();
+
+        for (Property aProperty : mProperties) {
+            aProperty.iri();
+            aProperty.datatype();
+        }
+
+        for (Resolved aIri : mEnumIris.values()) {
+            aIri.get();
+        }
+    }
+
+    /**
+     * The plan for a single property of a class
+     */
+    static final class Property {
+        private final PropertyDescriptor mDescriptor;
+        private final Resolved mIri;
+        private final Resolved mDatatype;
+        private final boolean mHasDatatype;
+        private final String mLanguage;
+        private final boolean mList;
+        private final Class<?> mElementType;
+
+        /**
+         * The type of the keys of a map property, or null if it's not a map or the type is not known
+         */
+        private final Class<?> mKeyType;
+
+        Property(final PropertyDescriptor theDescriptor, final Resolved theIri, final Resolved theDatatype,
+                 final boolean theHasDatatype, final String theLanguage, final boolean theList,
+                 final Class<?> theElementType) {
+            mDescriptor = theDescriptor;
+            mIri = theIri;
+            mDatatype = theDatatype;
+            mHasDatatype = theHasDatatype;
+            mLanguage = theLanguage;
+            mList = theList;
+            mElementType = theElementType;
+            mKeyType = keyType(theDescriptor);
+        }
+
+        private static Class<?> keyType(final PropertyDescriptor theDescriptor) {
+            if (theDescriptor.getPropertyType() == null
+                || !Map.class.isAssignableFrom(theDescriptor.getPropertyType())
+                || theDescriptor.getReadMethod() == null
+                || !(theDescriptor.getReadMethod().getGenericReturnType() instanceof ParameterizedType)) {
+                return null;
+            }
+
+            final Type[] aTypes = ((ParameterizedType) theDescriptor.getReadMethod().getGenericReturnType())
+                                      .getActualTypeArguments();
+
+            return aTypes.length == 2 && aTypes[0] instanceof Class ? (Class<?>) aTypes[0] : null;
+        }
+
+        PropertyDescriptor descriptor() {
+            return mDescriptor;
+        }
+
+        String name() {
+            return mDescriptor.getName();
+        }
+
+        /**
+         * Return the IRI of the property, or null if its annotation is invalid and invalid annotations are ignored
+         */
+        IRI iri() {
+            return mIri.get();
+        }
+
+        Resolved resolvedIri() {
+            return mIri;
+        }
+
+        /**
+         * Return the datatype given by the annotation, or null if there is none
+         */
+        IRI datatype() {
+            return mDatatype.get();
+        }
+
+        Resolved resolvedDatatype() {
+            return mDatatype;
+        }
+
+        /**
+         * Return whether or not the annotation gives a datatype for the property, even if it is invalid
+         */
+        boolean hasDatatype() {
+            return mHasDatatype;
+        }
+
+        /**
+         * Return the language given by the annotation, or null if there is none
+         */
+        String language() {
+            return mLanguage;
+        }
+
+        /**
+         * Return whether or not collection values are serialized as an {@code rdf:List}
+         */
+        boolean isList() {
+            return mList;
+        }
+
+        /**
+         * Return the type of the elements of a collection property, or the type of the property for anything else
+         */
+        Class<?> elementType() {
+            return mElementType;
+        }
+
+        /**
+         * Return the declared type of the keys of a map property, or null if it's not a map or the type is not known
+         */
+        Class<?> keyType() {
+            return mKeyType;
+        }
+    }
+
+    /**
+     * An IRI resolved from an annotation, or the error resolving it
+     */
+    static final class Resolved {
+        static final Resolved NONE = new Resolved(null, null);
+
+        private final IRI mIri;
+        private final String mError;
+
+        private Resolved(final IRI theIri, final String theError) {
+            mIri = theIri;
+            mError = theError;
+        }
+
+        static Resolved of(final IRI theIri) {
+            return theIri == null ? NONE : new Resolved(theIri, null);
+        }
+
+        static Resolved invalid(final String theError) {
+            return new Resolved(null, theError);
+        }
+
+        /**
+         * Return the IRI
+         *
+         * @return the IRI, or null if there is none
+         * @throws RDFMappingException if the IRI was invalid
+         */
+        IRI get() {
+            if (mError != null) {
+                throw new RDFMappingException(mError);
+            }
+
+            return mIri;
+        }
+
+        /**
+         * Return the IRI, or null if there is none or it was invalid, without raising the error
+         */
+        IRI iri() {
+            return mIri;
+        }
+
+        /**
+         * Return the error resolving the IRI, or null if it was valid
+         */
+        String error() {
+            return mError;
+        }
+    }
+}
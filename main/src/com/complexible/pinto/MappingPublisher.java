@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.google.common.base.Preconditions;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * <p>A cold {@link Publisher} of the objects read from a graph, one per subject.  Each subscriber gets its own pass
+ * over the subjects, and an object is only read once the subscriber has requested it, so a slow subscriber slows the
+ * reading down rather than having objects pile up in memory.</p>
+ *
+ * <p>Objects are read and delivered on the mapper's executor, one subscriber's objects by one task at a time, so
+ * the signals to a subscriber are never concurrent.  An error reading an object is delivered by {@code onError} and
+ * ends the subscription.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class MappingPublisher<T> implements Publisher<T> {
+    private final RDFMapper mMapper;
+    private final Model mGraph;
+    private final Class<T> mClass;
+    private final Supplier<Iterator<? extends Resource>> mSubjects;
+    private final Executor mExecutor;
+
+    MappingPublisher(final RDFMapper theMapper, final Model theGraph, final Class<T> theClass,
+                     final Supplier<Iterator<? extends Resource>> theSubjects, final Executor theExecutor) {
+        mMapper = theMapper;
+        mGraph = theGraph;
+        mClass = theClass;
+        mSubjects = theSubjects;
+        mExecutor = theExecutor;
+    }
+
+    @Override
+    public void subscribe(final Subscriber<? super T> theSubscriber) {
+        Preconditions.checkNotNull(theSubscriber);
+
+        final MappingSubscription aSubscription = new MappingSubscription(theSubscriber);
+
+        theSubscriber.onSubscribe(aSubscription);
+
+        // an empty source completes without waiting for demand
+        aSubscription.schedule();
+    }
+
+    private final class MappingSubscription implements Subscription {
+        private final Subscriber<? super T> mSubscriber;
+
+        /**
+         * The number of objects requested, but not yet delivered, {@code Long.MAX_VALUE} when unbounded
+         */
+        private final AtomicLong mRequested = new AtomicLong();
+
+        /**
+         * The number of times the delivery loop has been asked to run; it runs only while this is non-zero, so there
+         * is never more than one delivering to the subscriber at a time
+         */
+        private final AtomicInteger mWip = new AtomicInteger();
+
+        private volatile boolean mDone = false;
+
+        /**
+         * An invalid request, to be signalled by the delivery loop
+         */
+        private volatile Throwable mError;
+
+        /**
+         * The subjects left to read, only accessed by the delivery loop
+         */
+        private Iterator<? extends Resource> mRemaining;
+
+        MappingSubscription(final Subscriber<? super T> theSubscriber) {
+            mSubscriber = theSubscriber;
+        }
+
+        @Override
+        public void request(final long theCount) {
+            if (theCount <= 0) {
+                // signalled from the delivery loop so it cannot overlap an onNext
+                mError = new IllegalArgumentException("The number of objects requested must be positive, was " + theCount);
+                schedule();
+                return;
+            }
+
+            mRequested.accumulateAndGet(theCount, (theCurrent, theAdded) -> {
+                final long aSum = theCurrent + theAdded;
+                return aSum < 0 ? Long.MAX_VALUE : aSum;
+            });
+
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            mDone = true;
+        }
+
+        void schedule() {
+            if (mWip.getAndIncrement() == 0) {
+                mExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int aMissed = 1;
+
+            do {
+                if (mDone) {
+                    return;
+                }
+
+                if (mError != null) {
+                    mDone = true;
+                    mSubscriber.onError(mError);
+                    return;
+                }
+
+                try {
+                    if (mRemaining == null) {
+                        mRemaining = mSubjects.get();
+                    }
+
+                    final long aRequested = mRequested.get();
+                    long aEmitted = 0;
+
+                    while (aEmitted != aRequested && !mDone && mRemaining.hasNext()) {
+                        final T aObj = mMapper.readOrSkip(mGraph, mClass, mRemaining.next());
+
+                        if (aObj != null) {
+                            mSubscriber.onNext(aObj);
+                            aEmitted++;
+                        }
+                    }
+
+                    if (!mDone && !mRemaining.hasNext()) {
+                        mDone = true;
+                        mSubscriber.onComplete();
+                        return;
+                    }
+
+                    if (aEmitted != 0 && aRequested != Long.MAX_VALUE) {
+                        mRequested.addAndGet(-aEmitted);
+                    }
+                }
+                catch (RuntimeException e) {
+                    if (!mDone) {
+                        mDone = true;
+                        mSubscriber.onError(e);
+                    }
+
+                    return;
+                }
+
+                aMissed = mWip.addAndGet(-aMissed);
+            }
+            while (aMissed != 0);
+        }
+    }
+}
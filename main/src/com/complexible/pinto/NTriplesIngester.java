@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import org.openrdf.model.Statement;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFParser;
+import org.openrdf.rio.Rio;
+import org.openrdf.rio.helpers.AbstractRDFHandler;
+import org.openrdf.rio.helpers.BasicParserSettings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>Parses an N-Triples file into a {@link SubjectIndex} in parallel.  The file is memory-mapped and split into chunks
+ * at line boundaries, which is always safe for N-Triples since every statement is on a line of its own, and each chunk
+ * is parsed by its own parser, on the executor, straight from the mapped pages.  The labels of blank nodes are kept, so
+ * a blank node used in several chunks is the same node in the index.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class NTriplesIngester {
+
+    /**
+     * The smallest chunk worth handing to a thread of its own
+     */
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * The number of chunks per processor, more than one so that a chunk which is slow to parse does not hold up the
+     * others
+     */
+    private static final int CHUNKS_PER_PROCESSOR = 4;
+
+    private NTriplesIngester() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Parse the file
+     *
+     * @param theFile           the N-Triples file
+     * @param theValueFactory   the value factory for the parsed statements
+     * @param theExecutor       the executor to parse the chunks on
+     * @return                  the statements of the file, indexed by subject
+     * @throws IOException      if the file cannot be read
+     * @throws RDFMappingException if the file is not valid N-Triples
+     */
+    static SubjectIndex ingest(final Path theFile, final ValueFactory theValueFactory,
+                               final Executor theExecutor) throws IOException {
+        final SubjectIndex aIndex = new SubjectIndex();
+
+        try (FileChannel aChannel = FileChannel.open(theFile, StandardOpenOption.READ)) {
+            final List<CompletableFuture<Void>> aParses = Lists.newArrayList();
+
+            final List<Long> aBoundaries = boundaries(aChannel);
+
+            for (int i = 1; i < aBoundaries.size(); i++) {
+                final long aStart = aBoundaries.get(i - 1);
+                final long aEnd = aBoundaries.get(i);
+
+                aParses.add(CompletableFuture.runAsync(() -> parse(aChannel, aStart, aEnd, theValueFactory, aIndex),
+                                                       theExecutor));
+            }
+
+            CompletableFuture.allOf(aParses.toArray(new CompletableFuture<?>[aParses.size()])).join();
+        }
+        catch (CompletionException e) {
+            Throwables.propagateIfInstanceOf(e.getCause(), RDFMappingException.class);
+
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+
+            throw new RDFMappingException(e.getCause());
+        }
+
+        return aIndex;
+    }
+
+    /**
+     * Return the offsets the chunks of the file start at, each just after a line break, and the size of the file
+     */
+    private static List<Long> boundaries(final FileChannel theChannel) throws IOException {
+        final long aSize = theChannel.size();
+        final int aChunks = (int) Math.max(1, Math.min(aSize / MIN_CHUNK_SIZE,
+                                                       Runtime.getRuntime().availableProcessors() * CHUNKS_PER_PROCESSOR));
+
+        // a chunk is mapped as a single buffer, so it cannot be larger than a buffer can be, leaving room for the
+        // rest of the line it ends in
+        final long aChunkSize = Math.max(1, Math.min(aSize / aChunks, Integer.MAX_VALUE / 2));
+
+        final List<Long> aBoundaries = Lists.newArrayList(0L);
+        final ByteBuffer aBuffer = ByteBuffer.allocate(8192);
+
+        long aPosition = aChunkSize;
+
+        while (aPosition < aSize) {
+            final long aLineEnd = nextLine(theChannel, aPosition, aBuffer);
+
+            if (aLineEnd >= aSize) {
+                break;
+            }
+
+            aBoundaries.add(aLineEnd);
+            aPosition = aLineEnd + aChunkSize;
+        }
+
+        aBoundaries.add(aSize);
+
+        return aBoundaries;
+    }
+
+    /**
+     * Return the offset just after the first line break at or after the position, or the size of the file if there is
+     * none
+     */
+    private static long nextLine(final FileChannel theChannel, final long thePosition,
+                                 final ByteBuffer theBuffer) throws IOException {
+        long aPosition = thePosition;
+
+        while (true) {
+            theBuffer.clear();
+
+            final int aRead = theChannel.read(theBuffer, aPosition);
+
+            if (aRead <= 0) {
+                return theChannel.size();
+            }
+
+            for (int i = 0; i < aRead; i++) {
+                if (theBuffer.get(i) == '\n') {
+                    return aPosition + i + 1;
+                }
+            }
+
+            aPosition += aRead;
+        }
+    }
+
+    private static void parse(final FileChannel theChannel, final long theStart, final long theEnd,
+                              final ValueFactory theValueFactory, final SubjectIndex theIndex) {
+        final ByteBuffer aChunk;
+
+        try {
+            aChunk = theChannel.map(FileChannel.MapMode.READ_ONLY, theStart, theEnd - theStart);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final RDFParser aParser = Rio.createParser(RDFFormat.NTRIPLES, theValueFactory);
+        aParser.getParserConfig().set(BasicParserSettings.PRESERVE_BNODE_IDS, true);
+        aParser.setRDFHandler(new AbstractRDFHandler() {
+            @Override
+            public void handleStatement(final Statement theStatement) {
+                theIndex.index(theStatement);
+            }
+        });
+
+        try {
+            aParser.parse(new ByteBufferInputStream(aChunk), "");
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        catch (RuntimeException e) {
+            Throwables.propagateIfInstanceOf(e, RDFMappingException.class);
+            throw new RDFMappingException(String.format("Error parsing the statements between bytes %d and %d",
+                                                        theStart, theEnd), e);
+        }
+    }
+
+    /**
+     * An {@link InputStream} over the mapped pages of a chunk, so they are parsed without being copied to the heap
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer mBuffer;
+
+        private ByteBufferInputStream(final ByteBuffer theBuffer) {
+            mBuffer = theBuffer;
+        }
+
+        @Override
+        public int read() {
+            return mBuffer.hasRemaining() ? mBuffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] theBytes, final int theOffset, final int theLength) {
+            if (!mBuffer.hasRemaining()) {
+                return -1;
+            }
+
+            final int aLength = Math.min(theLength, mBuffer.remaining());
+
+            mBuffer.get(theBytes, theOffset, aLength);
+
+            return aLength;
+        }
+
+        @Override
+        public int available() {
+            return mBuffer.remaining();
+        }
+    }
+}
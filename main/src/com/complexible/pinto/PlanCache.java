@@ -0,0 +1,445 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.pinto.metrics.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import org.openrdf.model.IRI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.beans.PropertyDescriptor;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * <p>A file of the {@link MappingPlan plans} compiled by a mapper, so that a new JVM does not have to scan the
+ * annotations of the same classes again.  Each plan is keyed by the name of its class and a hash of the bytecode of the
+ * class and its superclasses; a plan whose class has changed since it was saved is compiled again, and replaced when the
+ * cache is next saved.  The whole file is keyed by a fingerprint of the mapper's namespaces, mappings and options, since
+ * the IRIs in a plan depend on them.</p>
+ *
+ * <p>The cache is best effort: a file which is missing, unreadable or from a different version or configuration is
+ * treated as empty, and a failure to save it is logged rather than raised.</p>
+ *
+ * <p>The {@link PropertyDescriptor descriptors} of a class are not cached; they are needed to get and set the values
+ * of the properties, and are introspected whether or not the plan is found in the cache.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class PlanCache {
+	private static final Logger LOGGER = LoggerFactory.getLogger(PlanCache.class);
+
+	/**
+	 * Marks the start of a cache file, followed by the {@link #VERSION} of its format
+	 */
+	private static final int MAGIC = 0x50504C4E;
+
+	private static final int VERSION = 1;
+
+	private static final byte NONE = 0;
+	private static final byte VALID = 1;
+	private static final byte INVALID = 2;
+
+	/**
+	 * The {@link #hash(Class) hashes} of the classes, empty if the bytecode of the class cannot be found
+	 */
+	private static final ClassValue<Optional<String>> HASHES = new ClassValue<Optional<String>>() {
+		@Override
+		protected Optional<String> computeValue(final Class<?> theClass) {
+			return computeHash(theClass);
+		}
+	};
+
+	private final Path mFile;
+	private final String mFingerprint;
+	private final IRICache mIRIs;
+
+	private final ConcurrentMap<String, Entry> mEntries = new ConcurrentHashMap<>();
+
+	/**
+	 * Whether or not there are entries which have not been saved
+	 */
+	private final AtomicBoolean mDirty = new AtomicBoolean(false);
+
+	private final CacheStats mStats = new CacheStats("plans");
+
+	private PlanCache(final Path theFile, final String theFingerprint, final IRICache theIRIs) {
+		mFile = theFile;
+		mFingerprint = theFingerprint;
+		mIRIs = theIRIs;
+	}
+
+	/**
+	 * Open the cache in the file, reading the plans it contains if it exists and was written for a mapper with the
+	 * same fingerprint
+	 *
+	 * @param theFile           the file
+	 * @param theFingerprint    the fingerprint of the configuration of the mapper
+	 * @param theIRIs           the cache of the mapper's IRIs, for the IRIs of the plans
+	 * @return                  the cache
+	 */
+	static PlanCache open(final Path theFile, final String theFingerprint, final IRICache theIRIs) {
+		final PlanCache aCache = new PlanCache(theFile, theFingerprint, theIRIs);
+
+		if (Files.isRegularFile(theFile)) {
+			try (DataInputStream aIn = new DataInputStream(new BufferedInputStream(Files.newInputStream(theFile)))) {
+				aCache.read(aIn);
+			}
+			catch (IOException | RuntimeException e) {
+				LOGGER.info("Could not read the plan cache {}, it will be rebuilt: {}", theFile, e.getMessage());
+				aCache.mEntries.clear();
+			}
+		}
+
+		return aCache;
+	}
+
+	CacheStats stats() {
+		return mStats;
+	}
+
+	/**
+	 * Return the plan of the class from the cache
+	 *
+	 * @param theClass          the class
+	 * @param theDescriptors    the mapped properties of the class
+	 * @param theElementType    the function giving the element type of a property
+	 * @return                  the plan, or null if it is not cached, or the class has changed since it was
+	 */
+	MappingPlan load(final Class<?> theClass, final List<PropertyDescriptor> theDescriptors,
+	                 final Function<PropertyDescriptor, Class<?>> theElementType) {
+		mStats.lookup();
+
+		final Entry aEntry = mEntries.get(theClass.getName());
+
+		if (aEntry == null || !aEntry.mHash.equals(hash(theClass))
+		    || aEntry.mProperties.size() != theDescriptors.size()) {
+			mStats.miss();
+			return null;
+		}
+
+		final List<MappingPlan.Property> aProperties = Lists.newArrayListWithCapacity(theDescriptors.size());
+
+		for (PropertyDescriptor aDescriptor : theDescriptors) {
+			final StoredProperty aStored = aEntry.mProperties.get(aDescriptor.getName());
+
+			if (aStored == null) {
+				mStats.miss();
+				return null;
+			}
+
+			aProperties.add(new MappingPlan.Property(aDescriptor, aStored.mIri, aStored.mDatatype,
+			                                         aStored.mHasDatatype, aStored.mLanguage, aStored.mList,
+			                                         theElementType.apply(aDescriptor)));
+		}
+
+		final Map<Enum<?>, MappingPlan.Resolved> aEnumIris = Maps.newLinkedHashMap();
+
+		if (theClass.isEnum()) {
+			for (Object aObj : theClass.getEnumConstants()) {
+				final MappingPlan.Resolved aIri = aEntry.mEnumIris.get(((Enum<?>) aObj).name());
+
+				if (aIri == null) {
+					mStats.miss();
+					return null;
+				}
+
+				aEnumIris.put((Enum<?>) aObj, aIri);
+			}
+		}
+
+		return new MappingPlan(theClass, aEntry.mType, aProperties, aEntry.mIdProperties, aEnumIris);
+	}
+
+	/**
+	 * Add the plan to the cache, replacing any previous plan of its class.  Plans of classes whose bytecode cannot be
+	 * found, such as generated classes, are not cached.
+	 *
+	 * @param thePlan   the plan
+	 */
+	void store(final MappingPlan thePlan) {
+		final String aHash = hash(thePlan.type());
+
+		if (aHash == null) {
+			return;
+		}
+
+		final Map<String, StoredProperty> aProperties = Maps.newLinkedHashMap();
+
+		for (MappingPlan.Property aProperty : thePlan.properties()) {
+			aProperties.put(aProperty.name(), new StoredProperty(aProperty.resolvedIri(), aProperty.resolvedDatatype(),
+			                                                     aProperty.hasDatatype(), aProperty.language(),
+			                                                     aProperty.isList()));
+		}
+
+		final Map<String, MappingPlan.Resolved> aEnumIris = Maps.newLinkedHashMap();
+
+		for (Map.Entry<Enum<?>, MappingPlan.Resolved> aEnumIri : thePlan.enumIris().entrySet()) {
+			aEnumIris.put(aEnumIri.getKey().name(), aEnumIri.getValue());
+		}
+
+		mEntries.put(thePlan.type().getName(), new Entry(aHash, thePlan.resolvedType(), aProperties,
+		                                                 thePlan.idProperties(), aEnumIris));
+		mDirty.set(true);
+	}
+
+	/**
+	 * Write the cache to its file if plans have been added since it was read or last saved.  The file is replaced
+	 * atomically, so a concurrent reader sees either the old or the new cache.
+	 */
+	void save() {
+		if (!mDirty.getAndSet(false)) {
+			return;
+		}
+
+		try {
+			final Path aDir = mFile.toAbsolutePath().getParent();
+
+			Files.createDirectories(aDir);
+
+			final Path aTemp = Files.createTempFile(aDir, mFile.getFileName().toString(), ".tmp");
+
+			try {
+				try (DataOutputStream aOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(aTemp)))) {
+					write(aOut);
+				}
+
+				Files.move(aTemp, mFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			finally {
+				Files.deleteIfExists(aTemp);
+			}
+		}
+		catch (IOException e) {
+			mDirty.set(true);
+			LOGGER.warn("Could not save the plan cache {}: {}", mFile, e.getMessage());
+		}
+	}
+
+	private void read(final DataInputStream theIn) throws IOException {
+		if (theIn.readInt() != MAGIC) {
+			throw new IOException("Not a plan cache");
+		}
+
+		if (theIn.readInt() != VERSION || !mFingerprint.equals(theIn.readUTF())) {
+			LOGGER.debug("The plan cache {} is for a different version or configuration and will be replaced", mFile);
+			return;
+		}
+
+		final int aCount = theIn.readInt();
+
+		for (int i = 0; i < aCount; i++) {
+			final String aClass = theIn.readUTF();
+			final String aHash = theIn.readUTF();
+			final MappingPlan.Resolved aType = readResolved(theIn);
+
+			final int aPropertyCount = theIn.readInt();
+			final Map<String, StoredProperty> aProperties = Maps.newLinkedHashMap();
+
+			for (int j = 0; j < aPropertyCount; j++) {
+				final String aName = theIn.readUTF();
+				final MappingPlan.Resolved aIri = readResolved(theIn);
+				final MappingPlan.Resolved aDatatype = readResolved(theIn);
+				final boolean aHasDatatype = theIn.readBoolean();
+				final String aLanguage = theIn.readBoolean() ? theIn.readUTF() : null;
+				final boolean aList = theIn.readBoolean();
+
+				aProperties.put(aName, new StoredProperty(aIri, aDatatype, aHasDatatype, aLanguage, aList));
+			}
+
+			final int aIdCount = theIn.readInt();
+			final List<String> aIdProperties = Lists.newArrayListWithCapacity(aIdCount);
+
+			for (int j = 0; j < aIdCount; j++) {
+				aIdProperties.add(theIn.readUTF());
+			}
+
+			final int aEnumCount = theIn.readInt();
+			final Map<String, MappingPlan.Resolved> aEnumIris = Maps.newLinkedHashMap();
+
+			for (int j = 0; j < aEnumCount; j++) {
+				aEnumIris.put(theIn.readUTF(), readResolved(theIn));
+			}
+
+			mEntries.put(aClass, new Entry(aHash, aType, aProperties, aIdProperties, aEnumIris));
+		}
+	}
+
+	private void write(final DataOutputStream theOut) throws IOException {
+		theOut.writeInt(MAGIC);
+		theOut.writeInt(VERSION);
+		theOut.writeUTF(mFingerprint);
+
+		final Map<String, Entry> aEntries = Maps.newTreeMap();
+		aEntries.putAll(mEntries);
+
+		theOut.writeInt(aEntries.size());
+
+		for (Map.Entry<String, Entry> aEntry : aEntries.entrySet()) {
+			final Entry aPlan = aEntry.getValue();
+
+			theOut.writeUTF(aEntry.getKey());
+			theOut.writeUTF(aPlan.mHash);
+			writeResolved(theOut, aPlan.mType);
+
+			theOut.writeInt(aPlan.mProperties.size());
+
+			for (Map.Entry<String, StoredProperty> aProperty : aPlan.mProperties.entrySet()) {
+				final StoredProperty aStored = aProperty.getValue();
+
+				theOut.writeUTF(aProperty.getKey());
+				writeResolved(theOut, aStored.mIri);
+				writeResolved(theOut, aStored.mDatatype);
+				theOut.writeBoolean(aStored.mHasDatatype);
+				theOut.writeBoolean(aStored.mLanguage != null);
+
+				if (aStored.mLanguage != null) {
+					theOut.writeUTF(aStored.mLanguage);
+				}
+
+				theOut.writeBoolean(aStored.mList);
+			}
+
+			theOut.writeInt(aPlan.mIdProperties.size());
+
+			for (String aId : aPlan.mIdProperties) {
+				theOut.writeUTF(aId);
+			}
+
+			theOut.writeInt(aPlan.mEnumIris.size());
+
+			for (Map.Entry<String, MappingPlan.Resolved> aEnumIri : aPlan.mEnumIris.entrySet()) {
+				theOut.writeUTF(aEnumIri.getKey());
+				writeResolved(theOut, aEnumIri.getValue());
+			}
+		}
+	}
+
+	private MappingPlan.Resolved readResolved(final DataInputStream theIn) throws IOException {
+		switch (theIn.readByte()) {
+			case NONE:
+				return MappingPlan.Resolved.NONE;
+			case VALID:
+				return MappingPlan.Resolved.of(mIRIs.get(theIn.readUTF()));
+			case INVALID:
+				return MappingPlan.Resolved.invalid(theIn.readUTF());
+			default:
+				throw new IOException("Invalid plan cache entry");
+		}
+	}
+
+	private static void writeResolved(final DataOutputStream theOut, final MappingPlan.Resolved theResolved)
+		throws IOException {
+		if (theResolved.error() != null) {
+			theOut.writeByte(INVALID);
+			theOut.writeUTF(theResolved.error());
+		}
+		else if (theResolved.iri() != null) {
+			theOut.writeByte(VALID);
+			theOut.writeUTF(theResolved.iri().stringValue());
+		}
+		else {
+			theOut.writeByte(NONE);
+		}
+	}
+
+	/**
+	 * Return a hash of the bytecode of the class and its superclasses, which is where its properties and their
+	 * annotations come from.  The bytecode of a loaded class does not change, so it's only hashed the first time.
+	 *
+	 * @param theClass  the class
+	 * @return          the hash, or null if the bytecode of the class cannot be found
+	 */
+	static String hash(final Class<?> theClass) {
+		return HASHES.get(theClass).orElse(null);
+	}
+
+	private static Optional<String> computeHash(final Class<?> theClass) {
+		final Hasher aHasher = Hashing.sha256().newHasher();
+
+		for (Class<?> aClass = theClass; aClass != null && aClass != Object.class; aClass = aClass.getSuperclass()) {
+			try (InputStream aIn = aClass.getResourceAsStream("/" + aClass.getName().replace('.', '/') + ".class")) {
+				if (aIn == null) {
+					return Optional.empty();
+				}
+
+				ByteStreams.copy(aIn, Funnels.asOutputStream(aHasher));
+			}
+			catch (IOException e) {
+				return Optional.empty();
+			}
+		}
+
+		return Optional.of(aHasher.hash().toString());
+	}
+
+	private static final class Entry {
+		private final String mHash;
+		private final MappingPlan.Resolved mType;
+		private final Map<String, StoredProperty> mProperties;
+		private final List<String> mIdProperties;
+		private final Map<String, MappingPlan.Resolved> mEnumIris;
+
+		Entry(final String theHash, final MappingPlan.Resolved theType, final Map<String, StoredProperty> theProperties,
+		      final List<String> theIdProperties, final Map<String, MappingPlan.Resolved> theEnumIris) {
+			mHash = theHash;
+			mType = theType;
+			mProperties = theProperties;
+			mIdProperties = ImmutableList.copyOf(theIdProperties);
+			mEnumIris = theEnumIris;
+		}
+	}
+
+	private static final class StoredProperty {
+		private final MappingPlan.Resolved mIri;
+		private final MappingPlan.Resolved mDatatype;
+		private final boolean mHasDatatype;
+		private final String mLanguage;
+		private final boolean mList;
+
+		StoredProperty(final MappingPlan.Resolved theIri, final MappingPlan.Resolved theDatatype,
+		               final boolean theHasDatatype, final String theLanguage, final boolean theList) {
+			mIri = theIri;
+			mDatatype = theDatatype;
+			mHasDatatype = theHasDatatype;
+			mLanguage = theLanguage;
+			mList = theList;
+		}
+	}
+}
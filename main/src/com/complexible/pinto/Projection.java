@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>The properties to read from the RDF for an object, a field mask.  A projection is created from property names,
+ * e.g. {@code name}, and paths through the properties of nested objects, e.g. {@code employees.name}.  A property named
+ * on its own is read in full, including everything in the objects it refers to, while a path reads only the named
+ * properties of those objects.  The elements of a collection, and the keys and values of a map, are projected in the
+ * same way as a single value.</p>
+ *
+ * <p>Properties which are not part of the projection are left unset, and the objects they refer to are never
+ * created, so reading a handful of properties of a large bean costs a handful of properties.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ *
+ * @see RDFMapper#readValue(org.openrdf.model.Model, Class, org.openrdf.model.Resource, Projection)
+ * @see MappingOptions#PROJECTION
+ */
+public final class Projection {
+
+	/**
+	 * The projection of every property
+	 */
+	public static final Projection ALL = new Projection(null);
+
+	private static final Splitter PATH = Splitter.on('.').trimResults();
+
+	/**
+	 * The projections of the nested objects, keyed by the name of the property which refers to them, or null if every
+	 * property is part of the projection
+	 */
+	private final Map<String, Projection> mProperties;
+
+	private Projection(final Map<String, Projection> theProperties) {
+		mProperties = theProperties;
+	}
+
+	/**
+	 * Create a projection of the given properties
+	 *
+	 * @param thePaths  the names of the properties, or paths to the properties of nested objects
+	 * @return          the projection
+	 * @throws IllegalArgumentException if a path is empty, or has an empty segment
+	 */
+	public static Projection of(final String... thePaths) {
+		return of(Arrays.asList(thePaths));
+	}
+
+	/**
+	 * Create a projection of the given properties
+	 *
+	 * @param thePaths  the names of the properties, or paths to the properties of nested objects
+	 * @return          the projection
+	 * @throws IllegalArgumentException if a path is empty, or has an empty segment
+	 */
+	public static Projection of(final Iterable<String> thePaths) {
+		final List<List<String>> aPaths = Lists.newArrayList();
+
+		for (String aPath : thePaths) {
+			final List<String> aSegments = PATH.splitToList(aPath);
+
+			Preconditions.checkArgument(!aSegments.contains(""), "Invalid property path: '%s'", aPath);
+
+			aPaths.add(aSegments);
+		}
+
+		return create(aPaths);
+	}
+
+	private static Projection create(final List<List<String>> thePaths) {
+		final Map<String, List<List<String>>> aByProperty = Maps.newLinkedHashMap();
+
+		for (List<String> aPath : thePaths) {
+			aByProperty.computeIfAbsent(aPath.get(0), theName -> Lists.newArrayList())
+			           .add(aPath.subList(1, aPath.size()));
+		}
+
+		final ImmutableMap.Builder<String, Projection> aProperties = ImmutableMap.builder();
+
+		for (Map.Entry<String, List<List<String>>> aEntry : aByProperty.entrySet()) {
+			// naming the property on its own selects all of it, whatever else is named beneath it
+			aProperties.put(aEntry.getKey(), aEntry.getValue().stream().anyMatch(List::isEmpty)
+			                                 ? ALL
+			                                 : create(aEntry.getValue()));
+		}
+
+		return new Projection(aProperties.build());
+	}
+
+	/**
+	 * Return whether or not this projects every property
+	 *
+	 * @return true if this is {@link #ALL}
+	 */
+	public boolean isAll() {
+		return mProperties == null;
+	}
+
+	/**
+	 * Return whether or not the property is part of the projection
+	 */
+	boolean includes(final String theProperty) {
+		return mProperties == null || mProperties.containsKey(theProperty);
+	}
+
+	/**
+	 * Return the projection of the objects the property refers to
+	 */
+	Projection select(final String theProperty) {
+		return mProperties == null ? ALL : mProperties.getOrDefault(theProperty, ALL);
+	}
+
+	@Override
+	public boolean equals(final Object theObj) {
+		return theObj == this
+		       || (theObj instanceof Projection && Objects.equals(mProperties, ((Projection) theObj).mProperties));
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(mProperties);
+	}
+
+	@Override
+	public String toString() {
+		if (mProperties == null) {
+			return "*";
+		}
+
+		final List<String> aPaths = Lists.newArrayList();
+
+		for (Map.Entry<String, Projection> aEntry : mProperties.entrySet()) {
+			aPaths.add(aEntry.getValue().isAll()
+			           ? aEntry.getKey()
+			           : aEntry.getKey() + ".{" + aEntry.getValue() + "}");
+		}
+
+		return String.join(", ", aPaths);
+	}
+}
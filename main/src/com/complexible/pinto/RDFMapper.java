@@ -18,13 +18,12 @@ import com.complexible.common.base.Option;
 import com.complexible.common.base.Options;
 import com.complexible.common.beans.Beans;
 import com.complexible.common.openrdf.model.Models2;
-import com.complexible.common.openrdf.model.Statements;
 import com.complexible.common.openrdf.util.ModelBuilder;
 import com.complexible.common.openrdf.util.ResourceBuilder;
-import com.complexible.common.reflect.Classes;
 import com.complexible.common.reflect.Methods;
 import com.complexible.common.util.Namespaces;
 import com.complexible.common.utils.Dates2;
+import com.complexible.pinto.MappingListener.Operation;
 import com.complexible.pinto.annotations.Iri;
 import com.complexible.pinto.annotations.RdfId;
 import com.complexible.pinto.annotations.RdfProperty;
@@ -33,6 +32,8 @@ import com.complexible.pinto.factory.CollectionFactory;
 import com.complexible.pinto.factory.DefaultCollectionFactory;
 import com.complexible.pinto.factory.DefaultMapFactory;
 import com.complexible.pinto.factory.MapFactory;
+import com.complexible.pinto.metrics.Diagnostics;
+import com.complexible.pinto.metrics.MapperMetrics;
 import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
@@ -40,23 +41,49 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.*;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Floats;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.commons.beanutils.FluentPropertyBeanIntrospector;
 import org.apache.commons.beanutils.PropertyUtils;
 import org.openrdf.model.*;
 import org.openrdf.model.impl.SimpleValueFactory;
+import org.openrdf.model.util.Models;
+import org.openrdf.model.vocabulary.RDF;
 import org.openrdf.model.vocabulary.RDFS;
 import org.openrdf.model.vocabulary.XMLSchema;
+import org.openrdf.rio.RDFHandler;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.helpers.NOPLogger;
 import sun.reflect.generics.reflectiveObjects.WildcardTypeImpl;
 
 import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.*;
 import java.net.URISyntaxException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 
@@ -67,13 +94,19 @@ import java.util.stream.StreamSupport;
  * @version 2.0
  * @since 1.0
  */
-public final class RDFMapper {
+public final class RDFMapper implements AutoCloseable {
 
     public static final String DEFAULT_NAMESPACE = "tag:complexible:pinto:";
     public static final String DEFAULT_PREFIX = "";
     public static final IRI KEY = SimpleValueFactory.getInstance().createIRI(DEFAULT_NAMESPACE, "_key");
     public static final IRI VALUE = SimpleValueFactory.getInstance().createIRI(DEFAULT_NAMESPACE, "_value");
     public static final IRI HAS_ENTRY = SimpleValueFactory.getInstance().createIRI(DEFAULT_NAMESPACE, "_hasEntry");
+
+    /**
+     * The namespace of the predicates of the entries of a {@link MappingOptions#COMPACT_MAPS compact} map with string
+     * keys, the local name is the URL-encoded key
+     */
+    public static final String MAP_KEY_NAMESPACE = DEFAULT_NAMESPACE + "_key:";
     /**
      * The logger for monitoring and debugging purposes
      */
@@ -86,6 +119,45 @@ public final class RDFMapper {
     private static final ImmutableSet<IRI> SHORT_TYPES = ImmutableSet.of(XMLSchema.SHORT, XMLSchema.UNSIGNED_SHORT);
     private static final ImmutableSet<IRI> BYTE_TYPES = ImmutableSet.of(XMLSchema.BYTE, XMLSchema.UNSIGNED_BYTE);
 
+    /**
+     * Marker for a property which has no value in the graph, as opposed to one whose value was read as {@code null}, or
+     * for a reference which is beyond the {@link FetchPlan} of the read
+     */
+    private static final Object NO_VALUE = new Object();
+
+    /**
+     * A value which could not be read, returned in place of raising an error when the mapper records its problems in
+     * an {@link ErrorReport}
+     */
+    private static final class Invalid {
+        /**
+         * The cause of the problem, which is the same wherever it is found, so that the report can group them
+         */
+        private final String mCause;
+
+        /**
+         * The description of this occurrence of the problem, e.g. with the value which could not be read
+         */
+        private final String mDetail;
+
+        private Invalid(final String theCause, final String theDetail) {
+            mCause = theCause;
+            mDetail = theDetail;
+        }
+    }
+
+    /**
+     * Raised, once the problem has been recorded in the {@link ErrorReport}, to abandon the read of an object.  The
+     * one instance has no stack trace, so skipping an object costs no more than returning from it.
+     */
+    private static final class Skipped extends RuntimeException {
+        private static final Skipped INSTANCE = new Skipped();
+
+        private Skipped() {
+            super(null, null, false, false);
+        }
+    }
+
     static {
         PropertyUtils.addBeanIntrospector(new FluentPropertyBeanIntrospector());
     }
@@ -100,12 +172,80 @@ public final class RDFMapper {
     private final String mDefaultNamespace;
     private final Map<Class<?>, RDFCodec<?>> mCodecs;
 
+    /**
+     * The fetch plans of the classes which are not read in full by default
+     */
+    private final Map<Class<?>, FetchPlan> mFetchPlans;
+
+    /**
+     * The listener for tracing mapping calls, or null when there is none, in which case nothing is timed
+     */
+    private final MappingListener mListener;
+
+    /**
+     * The compiled {@link MappingPlan plans} of the classes this mapper has seen, or was asked to precompile
+     */
+    private final ConcurrentMap<Class<?>, MappingPlan> mPlans;
+
+    /**
+     * The cache of plans saved by earlier runs, or null if there is none
+     */
+    private final PlanCache mPlanCache;
+
+    /**
+     * The IRIs created by the mapper, shared rather than created again
+     */
+    private final IRICache mIRIs;
+
+    /**
+     * The literals written by the mapper, shared rather than created again
+     */
+    private final LiteralCache mLiterals;
+
+    /**
+     * The instantiators of the classes the mapper has created instances of
+     */
+    private final InstantiatorCache mInstantiators;
+
+    /**
+     * The interner of the values read from literals, or null if the {@link MappingOptions#INTERN_POLICY policy}
+     * interns nothing
+     */
+    private final ValueInterner mInterner;
+
+    /**
+     * The executor for the asynchronous calls, the mapper owns it and shuts it down on {@link #close()} when it is a
+     * {@link MappingExecutor}, which starts its threads on the first asynchronous call
+     */
+    private final Executor mExecutor;
+
+    /**
+     * The counts of the conditions found while mapping, which are logged once rather than each time they're found
+     */
+    private final Diagnostics mDiagnostics;
+
+    /**
+     * The report the problems found reading objects are recorded in, or null if they are raised as errors
+     */
+    private final ErrorReport mErrors;
+
     private RDFMapper(final Map<IRI, Class> theMappings,
                       final Map<Class<?>, Function<Object, Resource>> theIdFunctions,
                       final ValueFactory theValueFactory,
                       final Map<String, String> theNamespaces,
                       final CollectionFactory theFactory, final MapFactory theMapFactory,
-                      final Map<Class<?>, RDFCodec<?>> theCodecs, final Options theMappingOptions) {
+                      final Map<Class<?>, RDFCodec<?>> theCodecs, final Options theMappingOptions,
+                      final Map<Class<?>, FetchPlan> theFetchPlans,
+                      final MappingListener theListener,
+                      final ConcurrentMap<Class<?>, MappingPlan> thePlans,
+                      final PlanCache thePlanCache,
+                      final IRICache theIRIs,
+                      final LiteralCache theLiterals,
+                      final InstantiatorCache theInstantiators,
+                      final ValueInterner theInterner,
+                      final Executor theExecutor,
+                      final Diagnostics theDiagnostics,
+                      final ErrorReport theErrors) {
 
         mCollectionFactory = theFactory;
         mMapFactory = theMapFactory;
@@ -113,6 +253,17 @@ public final class RDFMapper {
         mNamespaces = theNamespaces;
         mCodecs = theCodecs;
         mMappingOptions = theMappingOptions;
+        mFetchPlans = ImmutableMap.copyOf(theFetchPlans);
+        mListener = theListener;
+        mPlans = thePlans;
+        mPlanCache = thePlanCache;
+        mIRIs = theIRIs;
+        mLiterals = theLiterals;
+        mInstantiators = theInstantiators;
+        mInterner = theInterner;
+        mExecutor = theExecutor;
+        mDiagnostics = theDiagnostics;
+        mErrors = theErrors;
 
         mMappings = ImmutableBiMap.copyOf(theMappings);
         mIdFunctions = ImmutableMap.copyOf(theIdFunctions);
@@ -122,261 +273,1422 @@ public final class RDFMapper {
 
     private static boolean isIgnored(final PropertyDescriptor thePropertyDescriptor) {
         // we'll ignore getClass() on the bean
-        return thePropertyDescriptor.getName().equals("class")
+        if (thePropertyDescriptor.getName().equals("class")
                 && thePropertyDescriptor.getReadMethod().getDeclaringClass() == Object.class
-                && thePropertyDescriptor.getReadMethod().getReturnType().equals(Class.class);
+                && thePropertyDescriptor.getReadMethod().getReturnType().equals(Class.class)) {
+            return true;
+        }
+
+        // and the source graph of a SourcedObject, which is set by the mapper rather than mapped
+        return thePropertyDescriptor.getName().equals("sourceGraph")
+                && thePropertyDescriptor.getReadMethod() != null
+                && SourcedObject.class.isAssignableFrom(thePropertyDescriptor.getReadMethod().getDeclaringClass());
+    }
+
+    /**
+     * Create a new {@link RDFMapper} with the default settings
+     *
+     * @return a new {@code RDFMapper}
+     */
+    public static RDFMapper create() {
+        return builder().build();
+    }
+
+    /**
+     * Return a {@link Builder} for configurating and creating a new {@link RDFMapper}
+     *
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Return a mapper for bulk reads which, rather than failing on the first object with a problem, such as a literal
+     * which is not valid for its datatype, or a property with a single value which has several, records the problem in
+     * the report and skips the object.  The objects with problems are left out of the results of
+     * {@link #readValues(Path, Class)}, {@link #streamValues(Path, Class)}, {@link #readValues(Iterator, Class)},
+     * {@link #readValuesAsync(Model, Class, Iterable)}, {@link #readBinary(ReadableByteChannel, Class)} and the
+     * {@link #publishValues(Model, Class) publishers}, so one bad record neither aborts nor slows down the run; no
+     * error is raised for them, and nothing is logged.  A single {@code readValue} still fails, with its problem
+     * recorded in the report as well.
+     *
+     * <p>The returned mapper shares its configuration, plans and caches with this one.</p>
+     *
+     * @param theReport the report to record the problems in
+     * @return          the mapper
+     */
+    public RDFMapper withErrorReport(final ErrorReport theReport) {
+        Preconditions.checkNotNull(theReport);
+
+        return new RDFMapper(mMappings, mIdFunctions, mValueFactory, mNamespaces, mCollectionFactory, mMapFactory,
+                             mCodecs, mMappingOptions, mFetchPlans, mListener, mPlans, mPlanCache, mIRIs, mLiterals,
+                             mInstantiators, mInterner, mExecutor, mDiagnostics, theReport);
+    }
+
+    /**
+     * Return the counts of the conditions the mapper found in the data it mapped, and logged only the first time, such
+     * as cardinality violations it was set to ignore, or map entries it could not read
+     *
+     * @return the diagnostics
+     * @see MappingOptions#DIAGNOSTICS_INTERVAL
+     */
+    public Diagnostics diagnostics() {
+        return mDiagnostics;
+    }
+
+    /**
+     * Release the threads of the mapper's default executor, once the asynchronous calls already started are done; an
+     * executor given to the {@link Builder#executor(Executor) builder} is left as it is.  The mapper can still be used
+     * to map synchronously, {@link #readValues(Path, Class)} then running on the calling thread alone, but its
+     * asynchronous calls are rejected.  The mappers returned by
+     * {@link #withErrorReport(ErrorReport)} share the executor of the mapper they were created from.
+     */
+    @Override
+    public void close() {
+        if (mExecutor instanceof MappingExecutor) {
+            ((MappingExecutor) mExecutor).shutdown();
+        }
+    }
+
+    /**
+     * Return the executor for the parallel work of a synchronous call: the mapper's executor, or once the mapper is
+     * {@link #close() closed} and its default executor rejects tasks, the calling thread.
+     */
+    private Executor syncExecutor() {
+        return mExecutor instanceof MappingExecutor && ((MappingExecutor) mExecutor).isShutdown()
+               ? MoreExecutors.directExecutor()
+               : mExecutor;
+    }
+
+    private Object processValue(Model theGraph, Value value, Class<?> theClass, Projection theProjection, FetchPlan theFetchPlan) {
+        if (value instanceof Literal) {
+            return valueToObject(value, theGraph, theClass, null, theProjection, theFetchPlan);
+        } else {
+            return readReference(theGraph, type(theGraph, (Resource) value), (Resource) value, theProjection, theFetchPlan);
+        }
+    }
+
+    /**
+     * Read an entry of a map
+     *
+     * @return the problem with the entry, or null if there is none
+     */
+    private Invalid processMapEntry(Model theGraph, Value aMapEntry, Map<Object, Object> aMap, Class<?> theClass,
+                                    MappingPlan.Property theProperty, Projection theProjection, FetchPlan theFetchPlan) {
+        final Value aKey = theGraph.filter((Resource) aMapEntry, KEY, null).stream().map(Statement::getObject).findFirst().orElse(null);
+        final Value aValue = theGraph.filter((Resource) aMapEntry, VALUE, null).stream().map(Statement::getObject).findFirst().orElse(null);
+
+
+        Object aKeyObj = processValue(theGraph, aKey, theClass, theProjection, theFetchPlan);
+        Object aValueObj = processValue(theGraph, aValue, theClass, theProjection, theFetchPlan);
+
+        if (aKeyObj instanceof Invalid) {
+            return (Invalid) aKeyObj;
+        }
+        else if (aValueObj instanceof Invalid) {
+            return (Invalid) aValueObj;
+        }
+
+        if (aKeyObj == NO_VALUE || aValueObj == NO_VALUE) {
+            // beyond the fetch plan, and not stubbed
+            return null;
+        }
+
+        if (aKeyObj == null || aValueObj == null) {
+            mDiagnostics.report(Diagnostics.Kind.INVALID_MAP_ENTRY, theClass, theProperty.name(),
+                                "Skipping map entry, key or value could not be created.");
+            return null;
+        }
+
+        aMap.put(aKeyObj, aValueObj);
+
+        return null;
+    }
+
+    /**
+     * Read an entry of a {@link MappingOptions#COMPACT_MAPS compact} map, a single statement whose predicate is made
+     * from the key
+     *
+     * @return the problem with the entry, or null if there is none
+     */
+    private Invalid processCompactMapEntry(final Model theGraph, final Statement theEntry, final Map<Object, Object> theMap,
+                                           final Class<?> theClass, final MappingPlan.Property theProperty,
+                                           final Projection theProjection, final FetchPlan theFetchPlan) {
+        final Object aKeyObj = predicateToKey(theEntry.getPredicate(), theProperty.keyType());
+
+        if (aKeyObj == null) {
+            mDiagnostics.report(Diagnostics.Kind.INVALID_MAP_ENTRY, theClass, theProperty.name(),
+                                "Skipping map entry, key could not be created from {}", theEntry.getPredicate());
+            return null;
+        }
+
+        final Object aValueObj = processValue(theGraph, theEntry.getObject(), theClass, theProjection, theFetchPlan);
+
+        if (aValueObj instanceof Invalid) {
+            return (Invalid) aValueObj;
+        }
+
+        if (aValueObj == NO_VALUE) {
+            return null;
+        }
+
+        if (aValueObj == null) {
+            mDiagnostics.report(Diagnostics.Kind.INVALID_MAP_ENTRY, theClass, theProperty.name(),
+                                "Skipping map entry, key or value could not be created.");
+            return null;
+        }
+
+        theMap.put(aKeyObj, aValueObj);
+
+        return null;
+    }
+
+    /**
+     * Return the predicate of the entry of a compact map with the key, or null if the key cannot be used as one
+     */
+    private IRI keyToPredicate(final Object theKey, final Class<?> theKeyType) {
+        if (theKey instanceof String) {
+            try {
+                return mIRIs.get(MAP_KEY_NAMESPACE + URLEncoder.encode((String) theKey, Charsets.UTF_8.name()));
+            }
+            catch (UnsupportedEncodingException e) {
+                throw new AssertionError(e);
+            }
+        }
+        else if (theKey instanceof Enum && ((Enum) theKey).getDeclaringClass() == theKeyType) {
+            // the enum is only known from the declared type of the map when it's read
+            return enumToURI((Enum) theKey);
+        }
+
+        return null;
+    }
+
+    /**
+     * Return the key of the entry of a compact map with the predicate, or null if the predicate is not that of a key
+     */
+    private Object predicateToKey(final IRI thePredicate, final Class<?> theKeyType) {
+        final String aPredicate = thePredicate.stringValue();
+
+        if (aPredicate.startsWith(MAP_KEY_NAMESPACE)) {
+            try {
+                return URLDecoder.decode(aPredicate.substring(MAP_KEY_NAMESPACE.length()), Charsets.UTF_8.name());
+            }
+            catch (UnsupportedEncodingException e) {
+                throw new AssertionError(e);
+            }
+            catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        else if (theKeyType != null && theKeyType.isEnum()) {
+            for (Object aConstant : theKeyType.getEnumConstants()) {
+                if (thePredicate.equals(enumToURI((Enum) aConstant))) {
+                    return aConstant;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private <T> T newInstance(final Class<T> theClass) {
+        final Instantiator<T> aInstantiator = mInstantiators.of(theClass);
+
+        return aInstantiator.newInstance(aInstantiator.arguments());
+    }
+
+    /**
+     * Read the object from the RDF.
+     * <p>
+     * If there is more than one resource in the graph, you should use {@link #readValue(Model, Class, Resource)} and
+     * specify the identifier of the object you wish to read.  Otherwise, an {@link RDFMappingException} will be thrown
+     * to indicate that it's not clear what resource should be read.
+     *
+     * @param theGraph the RDF
+     * @param theClass the type of the object to read
+     * @return the object
+     * @throws RDFMappingException if the object could not be created
+     */
+    public <T> T readValue(final Model theGraph, final Class<T> theClass) {
+        final Projection aProjection = projection();
+        final FetchPlan aFetchPlan = fetchPlan(theClass);
+
+        if (mListener == null && mErrors == null) {
+            return readSingle(theGraph, theClass, aProjection, aFetchPlan);
+        }
+
+        try {
+            return readSingle(theGraph, theClass, aProjection, aFetchPlan);
+        }
+        catch (RuntimeException e) {
+            throw failed(theClass, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T readSingle(final Model theGraph, final Class<T> theClass, final Projection theProjection,
+                             final FetchPlan theFetchPlan) {
+        RDFCodec<T> aCodec = (RDFCodec<T>) mCodecs.get(theClass);
+
+        final Collection<Resource> aSubjects = theGraph.subjects();
+
+        if (aSubjects.size() > 1) {
+            throw new RDFMappingException("Multiple subjects found, need to specify the identifier of the object to create.");
+        } else if (aSubjects.isEmpty()) {
+            return aCodec == null ? newInstance(theClass)
+                    : decode(aCodec, theClass, theGraph, SimpleValueFactory.getInstance().createBNode());
+        }
+
+        final Resource aSubj = aSubjects.iterator().next();
+
+        if (aCodec != null) {
+            return decode(aCodec, theClass, theGraph, aSubj);
+        } else {
+            return readObject(theGraph, theClass, aSubj, theProjection, theFetchPlan);
+        }
+    }
+
+    /**
+     * Read the object from the RDF
+     *
+     * @param theGraph the RDF
+     * @param theClass the type of the object to read
+     * @param theObj   the identifier of the object to create
+     * @return the object
+     * @throws RDFMappingException if the object could not be created
+     */
+    public <T> T readValue(final Model theGraph, final Class<T> theClass, final Resource theObj) {
+        return readRoot(theGraph, theClass, theObj, projection(), fetchPlan(theClass));
+    }
+
+    /**
+     * Read only the projected properties of the object from the RDF.  The properties which are not part of the
+     * projection are left unset, and the objects they refer to are not read at all.
+     *
+     * @param theGraph      the RDF
+     * @param theClass      the type of the object to read
+     * @param theObj        the identifier of the object to create
+     * @param theProjection the properties to read
+     * @return the object
+     * @throws RDFMappingException if the object could not be created
+     * @see MappingOptions#PROJECTION
+     */
+    public <T> T readValue(final Model theGraph, final Class<T> theClass, final Resource theObj,
+                           final Projection theProjection) {
+        Preconditions.checkNotNull(theProjection);
+
+        return readRoot(theGraph, theClass, theObj, theProjection, fetchPlan(theClass));
+    }
+
+    /**
+     * Read the object, and the objects it refers to, as far as the fetch plan goes, from the RDF.  The references
+     * beyond the plan are left unset, or set to stubs which carry only their identifier.
+     *
+     * @param theGraph     the RDF
+     * @param theClass     the type of the object to read
+     * @param theObj       the identifier of the object to create
+     * @param theFetchPlan the references to follow
+     * @return the object
+     * @throws RDFMappingException if the object could not be created
+     * @see Builder#fetchPlan(Class, FetchPlan)
+     */
+    public <T> T readValue(final Model theGraph, final Class<T> theClass, final Resource theObj,
+                           final FetchPlan theFetchPlan) {
+        Preconditions.checkNotNull(theFetchPlan);
+
+        return readRoot(theGraph, theClass, theObj, projection(), theFetchPlan);
+    }
+
+    private <T> T readRoot(final Model theGraph, final Class<T> theClass, final Resource theObj,
+                           final Projection theProjection, final FetchPlan theFetchPlan) {
+        if (mListener == null && mErrors == null) {
+            return readObject(theGraph, theClass, theObj, theProjection, theFetchPlan);
+        }
+
+        try {
+            return readObject(theGraph, theClass, theObj, theProjection, theFetchPlan);
+        }
+        catch (RuntimeException e) {
+            throw failed(theClass, e);
+        }
+    }
+
+    /**
+     * Return the error a read of an object of the class failed with, after reporting it to the listener.  An object
+     * skipped because of a problem recorded in the {@link ErrorReport} fails with an {@link RDFMappingException}.
+     */
+    private RuntimeException failed(final Class<?> theClass, final RuntimeException theError) {
+        final RuntimeException aError = theError instanceof Skipped
+                                        ? new RDFMappingException("The object could not be read, its problem is recorded in the error report")
+                                        : theError;
+
+        if (mListener != null) {
+            mListener.error(Operation.READ, theClass, aError);
+        }
+
+        return aError;
+    }
+
+    /**
+     * Read an object as part of a bulk read.  When the mapper records its problems in an {@link ErrorReport}, an
+     * object with a problem is skipped, otherwise this is the same as {@link #readValue(Model, Class, Resource)}.
+     *
+     * @return the object, or null if it was skipped
+     */
+    <T> T readOrSkip(final Model theGraph, final Class<T> theClass, final Resource theObj) {
+        if (mErrors == null) {
+            return readValue(theGraph, theClass, theObj);
+        }
+
+        try {
+            return readObject(theGraph, theClass, theObj, projection(), fetchPlan(theClass));
+        }
+        catch (Skipped e) {
+            // the problem was recorded where it was found
+        }
+        catch (RuntimeException e) {
+            if (mListener != null) {
+                mListener.error(Operation.READ, theClass, e);
+            }
+
+            mErrors.record(theClass, null, e.getClass().getSimpleName(), theObj,
+                           e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+
+        mErrors.skip();
+
+        return null;
+    }
+
+    /**
+     * Return the projection applied to the objects read without one
+     */
+    private Projection projection() {
+        final Projection aProjection = mMappingOptions.get(MappingOptions.PROJECTION);
+
+        return aProjection == null ? Projection.ALL : aProjection;
+    }
+
+    /**
+     * Return the fetch plan applied to the objects of the class read without one
+     */
+    private FetchPlan fetchPlan(final Class<?> theClass) {
+        return mFetchPlans.getOrDefault(theClass, FetchPlan.ALL);
+    }
+
+    /**
+     * Read an object which is referred to by the one being read, or return a stub, or {@link #NO_VALUE}, if it's beyond
+     * the fetch plan
+     */
+    private Object readReference(final Model theGraph, final Class<?> theClass, final Resource theObj,
+                                 final Projection theProjection, final FetchPlan theFetchPlan) {
+        if (theFetchPlan.fetches()) {
+            return readObject(theGraph, theClass, theObj, theProjection, theFetchPlan);
+        }
+
+        if (theFetchPlan.isStubs() && theClass != null && Identifiable.class.isAssignableFrom(theClass)) {
+            final Object aStub = newInstance(theClass);
+
+            ((Identifiable) aStub).id(theObj);
+
+            return aStub;
+        }
+
+        return NO_VALUE;
+    }
+
+    /**
+     * Read the object, this is used for the objects nested in the one being read as well
+     */
+    private <T> T readObject(final Model theGraph, final Class<T> theClass, final Resource theObj,
+                             final Projection theProjection, final FetchPlan theFetchPlan) {
+        if (theClass == null) {
+            return null;
+        }
+
+        if (mListener == null) {
+            return read(theGraph, theClass, theObj, theProjection, theFetchPlan);
+        }
+
+        final long aStart = System.nanoTime();
+        mListener.beginRead(theClass, theObj);
+
+        try {
+            return read(theGraph, theClass, theObj, theProjection, theFetchPlan);
+        }
+        finally {
+            mListener.endRead(theClass, theObj, theGraph.filter(theObj, null, null).size(), System.nanoTime() - aStart);
+        }
+    }
+
+    private <T> T read(final Model theGraph, final Class<T> theClass, final Resource theObj,
+                       final Projection theProjection, final FetchPlan theFetchPlan) {
+        final Instantiator<T> aInstantiator = mInstantiators.of(theClass);
+
+        if (aInstantiator.parameters().isEmpty()) {
+            final T aInst = aInstantiator.newInstance(aInstantiator.arguments());
+
+            if (aInst instanceof Identifiable) {
+                ((Identifiable)aInst).id(theObj);
+            }
+
+            if (aInst instanceof SourcedObject) {
+                ((SourcedObject) aInst).setSourceGraph(new DescriptionView(theGraph, theObj, theProjection, theFetchPlan));
+            }
+
+            for (MappingPlan.Property aProperty : plan(theClass).properties()) {
+                if (!theProjection.includes(aProperty.name())) {
+                    continue;
+                }
+
+                final Object aObj = readProperty(theGraph, theClass, theObj, aProperty, theProjection.select(aProperty.name()),
+                                                theFetchPlan.select(aProperty.name()));
+
+                if (aObj instanceof Invalid) {
+                    throw skip(theClass, theObj, aProperty, (Invalid) aObj);
+                }
+                else if (aObj != NO_VALUE) {
+                    setProperty(aInst, aProperty.descriptor(), aObj);
+                }
+            }
+
+            return aInst;
+        }
+
+        // the constructor takes some of the property values, so we have to read all of them before we can create the
+        // instance.  whatever is not passed to the constructor is set afterwards
+        final Object[] aArgs = aInstantiator.arguments();
+        final Map<PropertyDescriptor, Object> aRemaining = Maps.newLinkedHashMap();
+
+        for (MappingPlan.Property aProperty : plan(theClass).properties()) {
+            if (!theProjection.includes(aProperty.name())) {
+                continue;
+            }
+
+            final Object aObj = readProperty(theGraph, theClass, theObj, aProperty, theProjection.select(aProperty.name()),
+                                                theFetchPlan.select(aProperty.name()));
+
+            if (aObj instanceof Invalid) {
+                throw skip(theClass, theObj, aProperty, (Invalid) aObj);
+            }
+            else if (aObj == NO_VALUE) {
+                continue;
+            }
+
+            final PropertyDescriptor aDescriptor = aProperty.descriptor();
+
+            final int aIndex = aInstantiator.parameters().indexOf(aDescriptor.getName());
+
+            if (aIndex != -1) {
+                // leave the default in place rather than passing null for what may be a primitive
+                if (aObj != null) {
+                    aArgs[aIndex] = aObj;
+                }
+            }
+            else {
+                // set like any other property, so one which is read-only fails as it does without the constructor
+                aRemaining.put(aDescriptor, aObj);
+            }
+        }
+
+        final T aInst = aInstantiator.newInstance(aArgs);
+
+        if (aInst instanceof Identifiable) {
+            ((Identifiable)aInst).id(theObj);
+        }
+
+        if (aInst instanceof SourcedObject) {
+            ((SourcedObject) aInst).setSourceGraph(new DescriptionView(theGraph, theObj, theProjection, theFetchPlan));
+        }
+
+        for (Map.Entry<PropertyDescriptor, Object> aEntry : aRemaining.entrySet()) {
+            setProperty(aInst, aEntry.getKey(), aEntry.getValue());
+        }
+
+        return aInst;
+    }
+
+    /**
+     * Record the problem with the property of the object in the {@link ErrorReport}, and return the signal to skip the
+     * object being read
+     */
+    private Skipped skip(final Class<?> theClass, final Resource theObj, final MappingPlan.Property theProperty,
+                         final Invalid theInvalid) {
+        mErrors.record(theClass, theProperty.name(), theInvalid.mCause, theObj, theInvalid.mDetail);
+
+        return Skipped.INSTANCE;
+    }
+
+    /**
+     * Read the value of the property from the RDF, the projection & fetch plan are the ones applied to the objects it
+     * refers to
+     *
+     * @return the value, or {@link #NO_VALUE} if there is no value for the property in the graph, or it's beyond the
+     * fetch plan
+     */
+    private Object readProperty(final Model theGraph, final Class<?> theClass, final Resource theObj,
+                                final MappingPlan.Property theProperty, final Projection theProjection,
+                                final FetchPlan theFetchPlan) {
+        if (mListener == null) {
+            return readPropertyValue(theGraph, theClass, theObj, theProperty, theProjection, theFetchPlan);
+        }
+
+        final long aStart = System.nanoTime();
+        mListener.beginProperty(Operation.READ, theClass, theProperty.name());
+
+        try {
+            return readPropertyValue(theGraph, theClass, theObj, theProperty, theProjection, theFetchPlan);
+        }
+        finally {
+            mListener.endProperty(Operation.READ, theClass, theProperty.name(), System.nanoTime() - aStart);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readPropertyValue(final Model theGraph, final Class<?> theClass, final Resource theObj,
+                                     final MappingPlan.Property theProperty, final Projection theProjection,
+                                     final FetchPlan theFetchPlan) {
+        try {
+            final PropertyDescriptor aDescriptor = theProperty.descriptor();
+            final IRI aProperty = theProperty.iri();
+
+            if (aProperty == null) {
+                return NO_VALUE;
+            }
+
+            // use the subject index of the graph rather than scanning all of it
+            Collection<Value> aValues = theGraph.filter(theObj, aProperty, null).stream().map(Statement::getObject).collect(Collectors.toList());
+
+            if (aValues.isEmpty()) {
+                return NO_VALUE;
+            }
+            else if (Collection.class.isAssignableFrom(aDescriptor.getPropertyType())) {
+                final Collection aIterable = mCollectionFactory.create(aDescriptor);
+
+                Collection<Value> aElems = Lists.newArrayListWithCapacity(aValues.size());
+
+                // this will allow the mixing of RDF lists of values with single values.  in "well-formed" data that
+                // kind of mixing probably won't ever happen.  but it's easier/better to be lax about what we'll accept
+                // here, and this will cover one or more list assertions as well as multiple property assertions forming
+                // the list as well as the mix of both
+                for (Value aValue : aValues) {
+                    if (aValue instanceof Resource && Models2.isList(theGraph, (Resource) aValue)) {
+                        aElems.addAll(Models2.asList(theGraph, (Resource) aValue));
+                    }
+                    else {
+                        aElems.add(aValue);
+                    }
+                }
+
+                for (Value aElem : aElems) {
+                    final Object aObj = valueToObject(aElem, theGraph, theClass, theProperty, theProjection, theFetchPlan);
+
+                    if (aObj instanceof Invalid) {
+                        return aObj;
+                    }
+                    else if (aObj != NO_VALUE) {
+                        aIterable.add(aObj);
+                    }
+                }
+
+                // leave the property unset if none of its elements are within the fetch plan
+                return aIterable.isEmpty() && !aElems.isEmpty() ? NO_VALUE : aIterable;
+            }
+            else if (Map.class.isAssignableFrom(aDescriptor.getPropertyType())) {
+                Value aPropValue = handleCardinalityViolations(theClass, aDescriptor, aValues);
+
+                if (aPropValue == null) {
+                    return cardinalityViolation(aValues);
+                }
+
+
+                final Map aMap = mMapFactory.create(aDescriptor);
+
+                if (theGraph.contains((Resource) aPropValue, HAS_ENTRY, null)) {
+                    for (Value aMapEntry : theGraph.filter((Resource) aPropValue, HAS_ENTRY, null).objects()) {
+                        final Invalid aInvalid = processMapEntry(theGraph, aMapEntry, aMap, theClass, theProperty,
+                                                                 theProjection, theFetchPlan);
+
+                        if (aInvalid != null) {
+                            return aInvalid;
+                        }
+                    }
+                }
+                else {
+                    // read as compact whether or not the option is set, so a mapper reads the maps of one which writes
+                    // them compactly.  empty maps are not written at all, so a map node without entries is compact
+                    for (Statement aEntry : theGraph.filter((Resource) aPropValue, null, null)) {
+                        final Invalid aInvalid = processCompactMapEntry(theGraph, aEntry, aMap, theClass, theProperty,
+                                                                        theProjection, theFetchPlan);
+
+                        if (aInvalid != null) {
+                            return aInvalid;
+                        }
+                    }
+                }
+
+                return aMap;
+            }
+            else {
+                final Value aValue = handleCardinalityViolations(theClass, aDescriptor, aValues);
+
+                if (aValue == null) {
+                    return cardinalityViolation(aValues);
+                }
+
+                return valueToObject(aValue, theGraph, theClass, theProperty, theProjection, theFetchPlan);
+            }
+        }
+        catch (Exception e) {
+            Throwables.propagateIfInstanceOf(e, Skipped.class);
+            Throwables.propagateIfInstanceOf(e, RDFMappingException.class);
+            throw new RDFMappingException(e);
+        }
+    }
+
+    private void setProperty(final Object theInst, final PropertyDescriptor aDescriptor, final Object theValue) {
+        try {
+            // this will fail spectacularly if there is a mismatch between the incoming RDF and what the bean
+            // defines.  we can either check that eagerly and fail spectacularly then, or do it here and be
+            // lazy.  we'll go with lazy
+            PropertyUtils.setProperty(theInst, aDescriptor.getName(), theValue);
+        }
+        catch (IllegalAccessException e) {
+            throw new RDFMappingException("Illegal access while setting property: " + aDescriptor.getName(), e);
+        }
+        catch (InvocationTargetException e) {
+            throw new RDFMappingException("Exception thrown by an invoked method or constructor while setting property: " + aDescriptor.getName(), e);
+        }
+        catch (NoSuchMethodException e) {
+            throw new RDFMappingException("No such method while setting property: " + aDescriptor.getName(), e);
+        }
+        catch (Exception e) {
+            Throwables.propagateIfInstanceOf(e, RDFMappingException.class);
+            throw new RDFMappingException(e);
+        }
+    }
+
+    /**
+     * Return the value of a property which takes a single value, or null if it has several and the violation is
+     * recorded in the {@link ErrorReport} rather than raised
+     */
+    private Value handleCardinalityViolations(Class<?> theClass, PropertyDescriptor aDescriptor, Collection<Value> aValues) {
+        if (aValues.size() > 1) {
+            if (mListener != null) {
+                mListener.cardinalityViolation(theClass, aDescriptor.getName(), aValues.size());
+            }
+
+            if (mMappingOptions.is(MappingOptions.IGNORE_CARDINALITY_VIOLATIONS)) {
+                mDiagnostics.report(Diagnostics.Kind.CARDINALITY_VIOLATION, theClass, aDescriptor.getName(),
+                                    "Property type of {} is {}, expected a single value, but {} were found.  MappingOptions is set to ignore this, so using only the first value.",
+                                    aDescriptor.getName(), aDescriptor.getPropertyType(), aValues.size());
+            } else if (mErrors != null) {
+                return null;
+            } else {
+                throw new RDFMappingException(String.format("%s values found, but property type is %s",
+                        aValues.size(), aDescriptor.getPropertyType()));
+            }
+        }
+
+        return aValues.iterator().next();
+    }
+
+    private static Invalid cardinalityViolation(final Collection<Value> theValues) {
+        return new Invalid("several values found for a property with a single value",
+                           String.format("%s values found for a property with a single value", theValues.size()));
+    }
+
+    private Class type(final Model theGraph, final Resource theValue) {
+        final Iterable<Resource> aTypes = Models2.getTypes(theGraph, theValue);
+        for (Resource aType : aTypes) {
+            final Class aClass = mMappings.get(aType);
+            if (aClass != null) {
+                return aClass;
+            }
+        }
+
+        return null;
+    }
+
+    private String expand(final String theValue) {
+        final int aIndex = theValue.indexOf(":");
+        if (aIndex != -1) {
+            String aPrefix = theValue.substring(0, aIndex);
+            String aLocalName = theValue.substring(aIndex + 1);
+
+            final String aNS = mNamespaces.get(aPrefix);
+            if (aNS != null) {
+                return aNS + aLocalName;
+            }
+        }
+
+        return theValue;
+    }
+
+    /**
+     * Write the given value as RDF.
+     *
+     * @param theValue the value to write
+     * @return the value serialized as RDF
+     * @throws UnidentifiableObjectException thrown when an rdf:ID cannot be created for {@code theValue}
+     * @throws RDFMappingException           indicates a general error, such as issues transforming a property value
+     *                                       into RDF.
+     */
+    public <T> Model writeValue(final T theValue) {
+        if (mListener == null) {
+            return write(theValue).model();
+        }
+
+        try {
+            return write(theValue).model();
+        }
+        catch (RuntimeException e) {
+            mListener.error(Operation.WRITE, theValue == null ? null : theValue.getClass(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Return the changes between the RDF of the value and the RDF it was previously written as, or read from, so that
+     * only what has changed needs to be sent to a store.  The value, and each object nested in it which is written as
+     * a named resource, is compared with the statements about the same resource in the previous graph, including any
+     * blank nodes they refer to.  The value must be written with the identifier it had in the previous graph, e.g. by
+     * being {@link Identifiable}, or having {@link RdfId} properties.
+     *
+     * <p>Statements with blank nodes cannot be matched one by one, since their labels change each time an object is
+     * written.  When the blank node statements about a resource, e.g. the entries of a map, have changed, all of the
+     * previous ones are removed and all of the new ones are added.</p>
+     *
+     * <p>Only statements about the resources written for the value are compared: an object which is no longer
+     * referenced by the value loses the statement referring to it, but its own statements are not removed.</p>
+     *
+     * <p>When the value is a {@link SourcedObject} read by a mapper with a {@link Projection} or a {@link FetchPlan}
+     * which does not read everything, only what was read is compared: the properties in the projection, and the
+     * references within the fetch plan.  The statements of a stub, or of the properties which were not read, are
+     * neither removed nor added.</p>
+     *
+     * @param theValue    the value
+     * @param thePrevious the previous RDF of the value, it can contain other resources as well
+     * @return the changes
+     * @throws RDFMappingException if the value cannot be written
+     */
+    public <T> GraphDelta diff(final T theValue, final Model thePrevious) {
+        final ResourceBuilder aWritten;
+
+        try {
+            aWritten = write(theValue);
+        }
+        catch (RuntimeException e) {
+            if (mListener != null) {
+                mListener.error(Operation.WRITE, theValue == null ? null : theValue.getClass(), e);
+            }
+
+            throw e;
+        }
+
+        final Model aCurrent = aWritten.model();
+
+        final Set<Resource> aResources = Sets.newLinkedHashSet();
+        aResources.add(aWritten.getResource());
+
+        for (Resource aSubject : aCurrent.subjects()) {
+            if (!(aSubject instanceof BNode)) {
+                aResources.add(aSubject);
+            }
+        }
+
+        final Model aAdded = Models2.newModel();
+        final Model aRemoved = Models2.newModel();
+
+        final Map<Resource, Set<IRI>> aScope = readScope(theValue);
+
+        for (Resource aResource : aResources) {
+            final Set<IRI> aRead = aScope == null ? null : aScope.get(aResource);
+
+            if (aRead == null) {
+                diff(new DescriptionView(thePrevious, aResource), new DescriptionView(aCurrent, aResource), aAdded, aRemoved);
+            }
+            else if (!aRead.isEmpty()) {
+                diff(describe(thePrevious, aResource, aRead), describe(aCurrent, aResource, aRead), aAdded, aRemoved);
+            }
+        }
+
+        return new GraphDelta(aAdded, aRemoved);
+    }
+
+    /**
+     * Return the predicates which were read for each of the resources of the value, none for a stub, or null if the
+     * value was read in full or was not read by a mapper
+     */
+    private Map<Resource, Set<IRI>> readScope(final Object theValue) {
+        if (!(theValue instanceof SourcedObject)
+            || !(((SourcedObject) theValue).getSourceGraph() instanceof DescriptionView)) {
+            return null;
+        }
+
+        final DescriptionView aSource = (DescriptionView) ((SourcedObject) theValue).getSourceGraph();
+
+        if (aSource.isComplete()) {
+            return null;
+        }
+
+        final Map<Resource, Set<IRI>> aScope = Maps.newHashMap();
+
+        readScope(theValue, aSource.projection(), aSource.fetchPlan(), aScope);
+
+        return aScope;
+    }
+
+    /**
+     * Add the predicates read for the object, and the objects it refers to, to the scope, following the same
+     * projection & fetch plan as the read
+     */
+    private void readScope(final Object theValue, final Projection theProjection, final FetchPlan theFetchPlan,
+                           final Map<Resource, Set<IRI>> theScope) {
+        final Resource aId = id(theValue);
+        final Set<IRI> aSeen = theScope.get(aId);
+
+        if (aSeen != null && !aSeen.isEmpty()) {
+            return;
+        }
+
+        final Set<IRI> aRead = Sets.newHashSet(RDF.TYPE);
+        theScope.put(aId, aRead);
+
+        final Instantiator<?> aInstantiator = mInstantiators.of(theValue.getClass());
+
+        for (MappingPlan.Property aProperty : plan(theValue.getClass()).properties()) {
+            if (aProperty.iri() == null
+                || !theProjection.includes(aProperty.name())
+                || !aInstantiator.isReadable(theValue, aProperty.descriptor())) {
+                continue;
+            }
+
+            final FetchPlan aFetchPlan = theFetchPlan.select(aProperty.name());
+
+            if (isObjectType(aProperty.elementType())
+                && !aFetchPlan.fetches()
+                && !(aFetchPlan.isStubs() && Identifiable.class.isAssignableFrom(aProperty.elementType()))) {
+                // the references are beyond the fetch plan, so the property was left unset
+                continue;
+            }
+
+            aRead.add(aProperty.iri());
+
+            final Object aValue;
+
+            try {
+                aValue = aInstantiator.read(theValue, aProperty.descriptor());
+            }
+            catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+                throw new RDFMappingException(e);
+            }
+
+            final Collection<?> aValues = aValue instanceof Collection
+                                          ? (Collection<?>) aValue
+                                          : aValue instanceof Map
+                                            ? Lists.newArrayList(Iterables.concat(((Map<?, ?>) aValue).keySet(),
+                                                                                  ((Map<?, ?>) aValue).values()))
+                                            : Collections.singleton(aValue);
+
+            for (Object aObj : aValues) {
+                if (aObj == null || !isObjectType(aObj.getClass())) {
+                    continue;
+                }
+
+                if (aFetchPlan.fetches()) {
+                    readScope(aObj, theProjection.select(aProperty.name()), aFetchPlan, theScope);
+                }
+                else {
+                    // a stub, none of its statements were read
+                    theScope.putIfAbsent(id(aObj), Collections.emptySet());
+                }
+            }
+        }
+    }
+
+    /**
+     * Return whether or not values of the type are written as objects of their own, rather than as literals, enums,
+     * collections, maps, or by a codec
+     */
+    private boolean isObjectType(final Class<?> theType) {
+        return theType != null
+               && !(theType.isPrimitive() || theType.isArray() || theType.isEnum() || Beans.isPrimitive(theType)
+                    || Collection.class.isAssignableFrom(theType) || Map.class.isAssignableFrom(theType)
+                    || mCodecs.containsKey(theType) || theType.getName().startsWith("java."));
+    }
+
+    /**
+     * Return the statements of the resource with one of the predicates, and the statements of the blank nodes they
+     * refer to
+     */
+    private static Model describe(final Model theGraph, final Resource theResource, final Set<IRI> thePredicates) {
+        final Model aDescription = Models2.newModel();
+        final Deque<Resource> aQueue = new ArrayDeque<>();
+
+        for (IRI aPredicate : thePredicates) {
+            for (Statement aStmt : theGraph.filter(theResource, aPredicate, null)) {
+                aDescription.add(aStmt);
+
+                if (aStmt.getObject() instanceof BNode) {
+                    aQueue.add((BNode) aStmt.getObject());
+                }
+            }
+        }
+
+        final Set<Resource> aDescribed = Sets.newHashSet();
+
+        while (!aQueue.isEmpty()) {
+            final Resource aBNode = aQueue.pop();
+
+            if (!aDescribed.add(aBNode)) {
+                continue;
+            }
+
+            for (Statement aStmt : theGraph.filter(aBNode, null, null)) {
+                aDescription.add(aStmt);
+
+                if (aStmt.getObject() instanceof BNode) {
+                    aQueue.add((BNode) aStmt.getObject());
+                }
+            }
+        }
+
+        return aDescription;
+    }
+
+    /**
+     * Return the changes between the RDF of the object and its {@link SourcedObject#getSourceGraph() source graph}.
+     * For an object read by a mapper, the source graph is a view of the graph it was read from, and the objects nested
+     * in it are compared with that graph as well.
+     *
+     * @param theValue the value
+     * @return the changes
+     * @throws IllegalArgumentException if the object has no source graph
+     * @throws RDFMappingException      if the value cannot be written
+     * @see #diff(Object, Model)
+     */
+    public <T extends SourcedObject> GraphDelta diff(final T theValue) {
+        final Model aSource = theValue.getSourceGraph();
+
+        Preconditions.checkArgument(aSource != null, "The object has no source graph to compare with");
+
+        return diff(theValue, aSource instanceof DescriptionView ? ((DescriptionView) aSource).graph() : aSource);
+    }
+
+    /**
+     * Add the differences between the two descriptions of a resource to the added & removed statements
+     */
+    private static void diff(final Model theBefore, final Model theAfter, final Model theAdded, final Model theRemoved) {
+        final Model aBeforeBNodes = Models2.newModel();
+        final Model aAfterBNodes = Models2.newModel();
+
+        for (Statement aStmt : theBefore) {
+            if (aStmt.getSubject() instanceof BNode || aStmt.getObject() instanceof BNode) {
+                aBeforeBNodes.add(aStmt);
+            }
+            else if (!theAfter.contains(aStmt)) {
+                theRemoved.add(aStmt);
+            }
+        }
+
+        for (Statement aStmt : theAfter) {
+            if (aStmt.getSubject() instanceof BNode || aStmt.getObject() instanceof BNode) {
+                aAfterBNodes.add(aStmt);
+            }
+            else if (!theBefore.contains(aStmt)) {
+                theAdded.add(aStmt);
+            }
+        }
+
+        if (!Models.isomorphic(aBeforeBNodes, aAfterBNodes)) {
+            theRemoved.addAll(aBeforeBNodes);
+            theAdded.addAll(aAfterBNodes);
+        }
+    }
+
+    /**
+     * Read the object from the RDF on the mapper's {@link Builder#executor(Executor) executor}.  The graph must not be
+     * modified until the returned future is complete.
+     *
+     * @param theGraph the RDF
+     * @param theClass the type of the object to read
+     * @return the future object, completed exceptionally with an {@link RDFMappingException} if it could not be created
+     * @see #readValue(Model, Class)
+     */
+    public <T> CompletableFuture<T> readValueAsync(final Model theGraph, final Class<T> theClass) {
+        return CompletableFuture.supplyAsync(() -> readValue(theGraph, theClass), mExecutor);
+    }
+
+    /**
+     * Read the object from the RDF on the mapper's {@link Builder#executor(Executor) executor}.  The graph must not be
+     * modified until the returned future is complete.
+     *
+     * @param theGraph the RDF
+     * @param theClass the type of the object to read
+     * @param theObj   the identifier of the object to create
+     * @return the future object, completed exceptionally with an {@link RDFMappingException} if it could not be created
+     * @see #readValue(Model, Class, Resource)
+     */
+    public <T> CompletableFuture<T> readValueAsync(final Model theGraph, final Class<T> theClass, final Resource theObj) {
+        return CompletableFuture.supplyAsync(() -> readValue(theGraph, theClass, theObj), mExecutor);
+    }
+
+    /**
+     * Read each of the objects from the RDF, concurrently, on the mapper's {@link Builder#executor(Executor) executor}.
+     * The graph must not be modified until the returned future is complete.
+     *
+     * @param theGraph the RDF
+     * @param theClass the type of the objects to read
+     * @param theObjs  the identifiers of the objects to create
+     * @return the future objects, in the order of their identifiers.  Completed exceptionally if any of the objects
+     *         could not be created, unless the mapper {@link #withErrorReport(ErrorReport) skips} them
+     */
+    public <T> CompletableFuture<List<T>> readValuesAsync(final Model theGraph, final Class<T> theClass,
+                                                          final Iterable<? extends Resource> theObjs) {
+        return readAll(theGraph, theClass, theObjs, mExecutor);
+    }
+
+    private <T> CompletableFuture<List<T>> readAll(final Model theGraph, final Class<T> theClass,
+                                                   final Iterable<? extends Resource> theObjs,
+                                                   final Executor theExecutor) {
+        final List<CompletableFuture<T>> aFutures = Lists.newArrayList();
+
+        for (Resource aObj : theObjs) {
+            aFutures.add(CompletableFuture.supplyAsync(() -> readOrSkip(theGraph, theClass, aObj), theExecutor));
+        }
+
+        if (mErrors == null) {
+            return all(aFutures);
+        }
+
+        return all(aFutures).thenApply(theValues -> theValues.stream()
+                                                             .filter(Objects::nonNull)
+                                                             .collect(Collectors.toList()));
+    }
+
+    /**
+     * Write the given value as RDF on the mapper's {@link Builder#executor(Executor) executor}.  The value must not be
+     * modified until the returned future is complete.
+     *
+     * @param theValue the value to write
+     * @return the future RDF, completed exceptionally if the value could not be written
+     * @see #writeValue(Object)
+     */
+    public <T> CompletableFuture<Model> writeValueAsync(final T theValue) {
+        return CompletableFuture.supplyAsync(() -> writeValue(theValue), mExecutor);
+    }
+
+    /**
+     * Write each of the values as RDF, concurrently, on the mapper's {@link Builder#executor(Executor) executor}
+     *
+     * @param theValues the values to write
+     * @return the future RDF of each value, in the order of the values.  Completed exceptionally if any of the values
+     *         could not be written
+     */
+    public <T> CompletableFuture<List<Model>> writeValuesAsync(final Iterable<? extends T> theValues) {
+        final List<CompletableFuture<Model>> aFutures = Lists.newArrayList();
+
+        for (T aValue : theValues) {
+            aFutures.add(writeValueAsync(aValue));
+        }
+
+        return all(aFutures);
     }
 
     /**
-     * Create a new {@link RDFMapper} with the default settings
+     * Return a {@link Publisher} of the objects in the graph of the given type: the subjects with the
+     * {@code rdf:type} of the class, or if the class has no type, every subject which is not the value of a property
+     * of another.  Objects are read on the mapper's {@link Builder#executor(Executor) executor} only as they are
+     * requested by the subscriber, so a slow subscriber throttles the reading.  Each subscriber reads the graph
+     * independently.  The graph must not be modified while there are subscribers.  On Java 9 and later, use
+     * {@code org.reactivestreams.FlowAdapters#toFlowPublisher} for a {@code java.util.concurrent.Flow.Publisher}.
      *
-     * @return a new {@code RDFMapper}
+     * @param theGraph the RDF
+     * @param theClass the type of the objects to read
+     * @return the publisher
      */
-    public static RDFMapper create() {
-        return builder().build();
+    public <T> Publisher<T> publishValues(final Model theGraph, final Class<T> theClass) {
+        return new MappingPublisher<>(this, theGraph, theClass, () -> subjects(theGraph, theClass).iterator(),
+                                      mExecutor);
     }
 
     /**
-     * Return a {@link Builder} for configurating and creating a new {@link RDFMapper}
+     * Return a {@link Publisher} of the objects with the given identifiers in the graph, in the order of the
+     * identifiers.  The identifiers are iterated over lazily, as objects are requested.
      *
-     * @return the builder
+     * @param theGraph the RDF
+     * @param theClass the type of the objects to read
+     * @param theObjs  the identifiers of the objects
+     * @return the publisher
+     * @see #publishValues(Model, Class)
      */
-    public static Builder builder() {
-        return new Builder();
+    public <T> Publisher<T> publishValues(final Model theGraph, final Class<T> theClass,
+                                          final Iterable<? extends Resource> theObjs) {
+        return new MappingPublisher<>(this, theGraph, theClass, theObjs::iterator, mExecutor);
     }
 
-    private Object processValue(Model theGraph, Value value) {
-        if (value instanceof Literal) {
-            return valueToObject(value, theGraph, null);
-        } else {
-            return readValue(theGraph, type(theGraph, (Resource) value), (Resource) value);
-        }
+    /**
+     * Read the objects of the given type from statements which are grouped by subject, such as a sorted N-Triples
+     * dump, without loading them into a {@link Model}.  Each subject with the {@code rdf:type} of the class, or if the
+     * class has no type, each IRI subject, is read as an object as soon as its statements, and those of the blank
+     * nodes it refers to, have been seen, so only a few objects' worth of statements are in memory at once.  The
+     * statements are consumed lazily, as objects are requested.
+     *
+     * <p>The statements about blank nodes should follow, or precede, those which refer to them closely; at most
+     * {@link MappingOptions#GROUP_BUFFER_LIMIT} statements are held back waiting for them.  The statements about other
+     * named resources are not part of the objects, so the objects they refer to by IRI have only their identifier.</p>
+     *
+     * @param theStatements the statements, grouped by subject
+     * @param theClass      the type of the objects to read
+     * @return the objects
+     * @throws RDFMappingException if an object cannot be read, or the statements are not grouped closely enough to
+     *                             be read within the buffer limit
+     */
+    public <T> Iterator<T> readValues(final Iterator<? extends Statement> theStatements, final Class<T> theClass) {
+        return groupReader(theClass).iterator(theStatements);
     }
 
-    private void processMapEntry(Model theGraph, Value aMapEntry, Map<Object, Object> aMap) {
-        final Value aKey = theGraph.stream().filter(Statements.subjectIs((Resource) aMapEntry).and(Statements.predicateIs(KEY))).map(Statement::getObject).findFirst().orElse(null);
-        final Value aValue = theGraph.stream().filter(Statements.subjectIs((Resource) aMapEntry).and(Statements.predicateIs(VALUE))).map(Statement::getObject).findFirst().orElse(null);
+    /**
+     * Read the objects of the given type, lazily, from a stream of statements which are grouped by subject.  Closing
+     * the returned stream closes the stream of statements.
+     *
+     * @param theStatements the statements, grouped by subject
+     * @param theClass      the type of the objects to read
+     * @return the objects
+     * @see #readValues(Iterator, Class)
+     */
+    public <T> Stream<T> readValues(final Stream<? extends Statement> theStatements, final Class<T> theClass) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(readValues(theStatements.iterator(), theClass),
+                                                                        Spliterator.ORDERED | Spliterator.NONNULL),
+                                    false)
+                            .onClose(theStatements::close);
+    }
 
+    /**
+     * Return an {@link RDFHandler} for a parser, which reads the objects of the given type from the parsed statements
+     * as they are grouped by subject, and hands each to the consumer as soon as it has been read.  The parser should
+     * be given a {@code ValueFactory} which keeps the labels of blank nodes from the input.
+     *
+     * @param theClass    the type of the objects to read
+     * @param theConsumer the consumer of the objects
+     * @return the handler
+     * @see #readValues(Iterator, Class)
+     */
+    public <T> RDFHandler valueHandler(final Class<T> theClass, final Consumer<? super T> theConsumer) {
+        return groupReader(theClass).handler(theConsumer);
+    }
 
-        Object aKeyObj = processValue(theGraph, aKey);
-        Object aValueObj = processValue(theGraph, aValue);
+    /**
+     * Read the objects of the given type from an N-Triples file, using every processor.  The file is memory-mapped and
+     * split into chunks at line boundaries, the chunks are parsed in parallel into a graph indexed by subject, and then
+     * the objects are read from it in parallel, all on the mapper's {@link Builder#executor(Executor) executor}, or on
+     * the calling thread once the mapper is {@link #close() closed}.  The
+     * objects are the subjects with the {@code rdf:type} of the class, or if the class has no type, every subject which
+     * is not the value of a property of another.
+     *
+     * @param theFile  the N-Triples file
+     * @param theClass the type of the objects to read
+     * @return the objects, in no particular order
+     * @throws IOException         if the file cannot be read
+     * @throws RDFMappingException if the file is not valid N-Triples, or an object cannot be read
+     */
+    public <T> List<T> readValues(final Path theFile, final Class<T> theClass) throws IOException {
+        final Executor aExecutor = syncExecutor();
 
-        if (aKeyObj == null || aValueObj == null) {
-            LOGGER.warn("Skipping map entry, key or value could not be created.");
-            return;
-        }
+        final SubjectIndex aGraph = NTriplesIngester.ingest(theFile, mValueFactory, aExecutor);
 
-        aMap.put(aKeyObj, aValueObj);
-    }
+        final IRI aType = plan(theClass).rdfType();
+        final Set<Resource> aSubjects = aType != null
+                                        ? aGraph.filter(null, RDF.TYPE, aType).subjects()
+                                        : aGraph.roots();
 
-    private <T> T newInstance(final Class<T> theClass) {
         try {
-            return theClass.newInstance();
+            return readAll(aGraph, theClass, aSubjects, aExecutor).join();
         }
-        catch (InstantiationException  |  IllegalAccessException e) {
-            throw new RDFMappingException(String.format("Could not create an instance of %s, it does not have a default constructor", theClass),e);
+        catch (CompletionException e) {
+            Throwables.propagateIfInstanceOf(e.getCause(), RDFMappingException.class);
+            throw new RDFMappingException(e.getCause());
         }
     }
 
     /**
-     * Read the object from the RDF.
-     * <p>
-     * If there is more than one resource in the graph, you should use {@link #readValue(Model, Class, Resource)} and
-     * specify the identifier of the object you wish to read.  Otherwise, an {@link RDFMappingException} will be thrown
-     * to indicate that it's not clear what resource should be read.
+     * Read the objects of the given type, lazily, from an N-Triples file which may be larger than the heap.  The
+     * statements are first sorted by subject on disk, in runs of at most {@link MappingOptions#SORT_MEMORY_BUDGET}
+     * bytes which are then merged, in the {@link MappingOptions#SORT_DIRECTORY sort directory}; each named subject with
+     * the {@code rdf:type} of the class, or if the class has no type, every named subject, is then read as an object
+     * along with the blank nodes it refers to.  The file need not be grouped by subject.
      *
-     * @param theGraph the RDF
-     * @param theClass the type of the object to read
-     * @return the object
-     * @throws RDFMappingException if the object could not be created
+     * <p>The returned stream must be closed to remove the files of the sort.</p>
+     *
+     * @param theFile  the N-Triples file
+     * @param theClass the type of the objects to read
+     * @return the objects, in order of their identifier
+     * @throws IOException         if the file cannot be read, or the sorted files cannot be written
+     * @throws RDFMappingException if the file is not valid N-Triples, or an object cannot be read
      */
-    @SuppressWarnings("unchecked")
-    public <T> T readValue(final Model theGraph, final Class<T> theClass) {
-        RDFCodec<T> aCodec = (RDFCodec<T>) mCodecs.get(theClass);
+    public <T> Stream<T> streamValues(final Path theFile, final Class<T> theClass) throws IOException {
+        final Long aBudget = mMappingOptions.get(MappingOptions.SORT_MEMORY_BUDGET);
+        final Path aDirectory = mMappingOptions.get(MappingOptions.SORT_DIRECTORY);
+
+        final ExternalSort aSort = ExternalSort.sort(theFile,
+                                                     aDirectory == null
+                                                     ? MappingOptions.SORT_DIRECTORY.getDefaultValue()
+                                                     : aDirectory,
+                                                     aBudget == null
+                                                     ? MappingOptions.SORT_MEMORY_BUDGET.getDefaultValue()
+                                                     : aBudget,
+                                                     mValueFactory);
+
+        final IRI aType = plan(theClass).rdfType();
+        final Stream<Map.Entry<Resource, Model>> aGroups;
 
-        final Collection<Resource> aSubjects = theGraph.subjects();
-
-        if (aSubjects.size() > 1) {
-            throw new RDFMappingException("Multiple subjects found, need to specify the identifier of the object to create.");
-        } else if (aSubjects.isEmpty()) {
-            return aCodec == null ? newInstance(theClass)
-                    : aCodec.readValue(theGraph, SimpleValueFactory.getInstance().createBNode());
-        }
-
-        final Resource aSubj = aSubjects.iterator().next();
-
-        if (aCodec != null) {
-            return aCodec.readValue(theGraph, aSubj);
-        } else {
-            return readValue(theGraph, theClass, aSubj);
-        }
+        try {
+            aGroups = aSort.groups();
+        }
+        catch (IOException | RuntimeException e) {
+            aSort.close();
+            throw e;
+        }
+
+        return aGroups.filter(theGroup -> aType == null
+                                          || theGroup.getValue().contains(theGroup.getKey(), RDF.TYPE, aType))
+                      .map(theGroup -> readOrSkip(theGroup.getValue(), theClass, theGroup.getKey()))
+                      .filter(Objects::nonNull)
+                      .onClose(() -> {
+                          try {
+                              aSort.close();
+                          }
+                          catch (IOException e) {
+                              throw new UncheckedIOException(e);
+                          }
+                      });
     }
 
     /**
-     * Read the object from the RDF
+     * Write the values to the channel in the mapper's compact binary format, for exchanging objects with another
+     * mapper.  Each IRI, including the datatypes of literals, is written in full only once, and referred to by its
+     * index in a dictionary after that; literals are length-prefixed and the statements are written in a block per
+     * subject, so the output is much smaller than N-Triples, and much faster to read.  The channel is not closed.
      *
-     * @param theGraph the RDF
-     * @param theClass the type of the object to read
-     * @param theObj   the identifier of the object to create
-     * @return the object
-     * @throws RDFMappingException if the object could not be created
+     * @param theValues  the values to write
+     * @param theChannel the channel to write to
+     * @throws IOException                   if there is an error writing to the channel
+     * @throws UnidentifiableObjectException thrown when an rdf:ID cannot be created for a value
+     * @throws RDFMappingException           if a value cannot be written
+     * @see #readBinary(ReadableByteChannel, Class)
      */
-    public <T> T readValue(final Model theGraph, final Class<T> theClass, final Resource theObj) {
-        if (theClass == null) {
-            return null;
-        }
-
-        final T aInst = newInstance(theClass);
-
-        if (aInst instanceof Identifiable) {
-            ((Identifiable)aInst).id(theObj);
-        }
-
-        for (PropertyDescriptor aDescriptor : PropertyUtils.getPropertyDescriptors(aInst)) {
-            try{
-                if (isIgnored(aDescriptor)) {
-                    continue;
-                }
+    public <T> void writeBinary(final Iterable<? extends T> theValues,
+                                final WritableByteChannel theChannel) throws IOException {
+        final BinaryRDFWriter aWriter = new BinaryRDFWriter(theChannel);
 
-                final IRI aProperty = getProperty(aDescriptor);
+        for (T aValue : theValues) {
+            final ResourceBuilder aWritten;
 
-                Collection<Value> aValues = theGraph.stream().filter(Statements.subjectIs(theObj).and(Statements.predicateIs(aProperty))).map(Statement::getObject).collect(Collectors.toList());
-
-                Object aObj;
-
-                if (aValues.isEmpty()) {
-                    continue;
-                }
-                else if (Collection.class.isAssignableFrom(aDescriptor.getPropertyType())) {
-                    final Collection aIterable = mCollectionFactory.create(aDescriptor);
-
-                    Collection<Value> aElems = Lists.newArrayListWithCapacity(aValues.size());
-
-                    // this will allow the mixing of RDF lists of values with single values.  in "well-formed" data that
-                    // kind of mixing probably won't ever happen.  but it's easier/better to be lax about what we'll accept
-                    // here, and this will cover one or more list assertions as well as multiple property assertions forming
-                    // the list as well as the mix of both
-                    for (Value aValue : aValues) {
-                        if (aValue instanceof Resource && Models2.isList(theGraph, (Resource) aValue)) {
-                            aElems.addAll(Models2.asList(theGraph, (Resource) aValue));
-                        }
-                        else {
-                            aElems.add(aValue);
-                        }
-                    }
-
-                    aElems.stream()
-                            .map(toObject(theGraph, aDescriptor)::apply)
-                            .forEach(aIterable::add);
-
-                    aObj = aIterable;
+            try {
+                aWritten = write(aValue);
+            }
+            catch (RuntimeException e) {
+                if (mListener != null) {
+                    mListener.error(Operation.WRITE, aValue == null ? null : aValue.getClass(), e);
                 }
-                else if (Map.class.isAssignableFrom(aDescriptor.getPropertyType())) {
-                    Value aPropValue = handleCardinalityViolations(aDescriptor, aValues);
 
+                throw e;
+            }
 
-                    final Map aMap = mMapFactory.create(aDescriptor);
+            aWriter.write(aWritten.getResource(), aWritten.model());
+        }
 
-                    for (Value aMapEntry : theGraph.filter((Resource) aPropValue, HAS_ENTRY, null).objects()) {
-                        processMapEntry(theGraph, aMapEntry, aMap);
-                    }
+        aWriter.finish();
+    }
 
-                    aObj = aMap;
-                }
-                else {
-                    final Value aValue = handleCardinalityViolations(aDescriptor, aValues);
+    /**
+     * Read the objects written by {@link #writeBinary(Iterable, WritableByteChannel)} from the channel.  The channel
+     * is read in large blocks, so it may be consumed past the end of the objects, up to its end, and should hold nothing
+     * else; it is not closed.
+     *
+     * @param theChannel the channel to read from
+     * @param theClass   the type of the objects
+     * @return the objects, in the order they were written
+     * @throws IOException         if there is an error reading from the channel, or it ends before the objects do
+     * @throws RDFMappingException if the input is not in the binary format, or an object cannot be read
+     */
+    public <T> List<T> readBinary(final ReadableByteChannel theChannel, final Class<T> theClass) throws IOException {
+        final BinaryRDFReader aReader = new BinaryRDFReader(theChannel, mValueFactory, mIRIs);
+        final List<T> aValues = Lists.newArrayList();
 
-                    aObj = valueToObject(aValue, theGraph, aDescriptor);
-                }
+        Map.Entry<Resource, Model> aNext;
 
+        while ((aNext = aReader.next()) != null) {
+            final T aValue = readOrSkip(aNext.getValue(), theClass, aNext.getKey());
 
-                // this will fail spectacularly if there is a mismatch between the incoming RDF and what the bean
-                // defines.  we can either check that eagerly and fail spectacularly then, or do it here and be
-                // lazy.  we'll go with lazy
-                PropertyUtils.setProperty(aInst, aDescriptor.getName(), aObj);
-            }
-            catch (IllegalAccessException e) {
-                throw new RDFMappingException("Illegal access while setting property: " + aDescriptor.getName(), e);
-            }
-            catch (InvocationTargetException e) {
-                throw new RDFMappingException("Exception thrown by an invoked method or constructor while setting property: " + aDescriptor.getName(), e);
-            }
-            catch (NoSuchMethodException e) {
-                throw new RDFMappingException("No such method while setting property: " + aDescriptor.getName(), e);
-            }
-            catch (Exception e) {
-                Throwables.propagateIfInstanceOf(e, RDFMappingException.class);
-                throw new RDFMappingException(e);
+            if (aValue != null) {
+                aValues.add(aValue);
             }
         }
 
-        return aInst;
+        return aValues;
     }
 
-    private Value handleCardinalityViolations(PropertyDescriptor aDescriptor, Collection<Value> aValues) {
-        if (aValues.size() > 1) {
-            if (mMappingOptions.is(MappingOptions.IGNORE_CARDINALITY_VIOLATIONS)) {
-                LOGGER.warn("Property type of {} is {}, expected a single value, but {} were found.  MappingOptions is set to ignore this, so using only the first value.",
-                        aDescriptor.getName(), aDescriptor.getPropertyType(), aValues.size());
-            } else {
-                throw new RDFMappingException(String.format("%s values found, but property type is %s",
-                        aValues.size(), aDescriptor.getPropertyType()));
-            }
-        }
+    private <T> SubjectGroupReader<T> groupReader(final Class<T> theClass) {
+        final Integer aLimit = mMappingOptions.get(MappingOptions.GROUP_BUFFER_LIMIT);
 
-        return aValues.iterator().next();
+        return new SubjectGroupReader<>(this, theClass, plan(theClass).rdfType(),
+                                        aLimit == null ? MappingOptions.GROUP_BUFFER_LIMIT.getDefaultValue() : aLimit);
     }
 
-    private Class type(final Model theGraph, final Resource theValue) {
-        final Iterable<Resource> aTypes = Models2.getTypes(theGraph, theValue);
-        for (Resource aType : aTypes) {
-            final Class aClass = mMappings.get(aType);
-            if (aClass != null) {
-                return aClass;
-            }
+    /**
+     * Return the subjects in the graph which are instances of the class, lazily
+     */
+    private Iterable<Resource> subjects(final Model theGraph, final Class<?> theClass) {
+        final IRI aType = plan(theClass).rdfType();
+
+        if (aType != null) {
+            return theGraph.filter(null, RDF.TYPE, aType).subjects();
         }
 
-        return null;
+        return () -> theGraph.subjects().stream()
+                             .filter(theSubject -> !theGraph.contains(null, null, theSubject))
+                             .iterator();
     }
 
-    private Function<Value, Object> toObject(final Model theGraph, final PropertyDescriptor theDescriptor) {
-        return theInput -> valueToObject(theInput, theGraph, theDescriptor);
+    private static <T> CompletableFuture<List<T>> all(final List<CompletableFuture<T>> theFutures) {
+        return CompletableFuture.allOf(theFutures.toArray(new CompletableFuture<?>[theFutures.size()]))
+                                .thenApply(theIgnored -> theFutures.stream()
+                                                                  .map(CompletableFuture::join)
+                                                                  .collect(Collectors.toList()));
     }
 
-    private String expand(final String theValue) {
-        final int aIndex = theValue.indexOf(":");
-        if (aIndex != -1) {
-            String aPrefix = theValue.substring(0, aIndex);
-            String aLocalName = theValue.substring(aIndex + 1);
-
-            final String aNS = mNamespaces.get(aPrefix);
-            if (aNS != null) {
-                return aNS + aLocalName;
-            }
+    private <T> ResourceBuilder write(final T theValue) {
+        if (mListener == null) {
+            return writeInstance(theValue);
         }
 
-        return theValue;
-    }
+        final Class<?> aClass = theValue.getClass();
+        final long aStart = System.nanoTime();
+        ResourceBuilder aResult = null;
 
-    /**
-     * Write the given value as RDF.
-     *
-     * @param theValue the value to write
-     * @return the value serialized as RDF
-     * @throws UnidentifiableObjectException thrown when an rdf:ID cannot be created for {@code theValue}
-     * @throws RDFMappingException           indicates a general error, such as issues transforming a property value
-     *                                       into RDF.
-     */
-    public <T> Model writeValue(final T theValue) {
-        return write(theValue).model();
+        mListener.beginWrite(aClass);
+
+        try {
+            aResult = writeInstance(theValue);
+            return aResult;
+        }
+        finally {
+            mListener.endWrite(aClass,
+                               aResult == null ? null : aResult.getResource(),
+                               aResult == null ? 0 : aResult.model().size(),
+                               System.nanoTime() - aStart);
+        }
     }
 
     @SuppressWarnings("unchecked")
-    private <T> ResourceBuilder write(final T theValue) {
+    private <T> ResourceBuilder writeInstance(final T theValue) {
         // before we do anything, do we have a custom codec for this?
         RDFCodec aCodec = mCodecs.get(theValue.getClass());
         if (aCodec != null) {
-            final Value aResult = aCodec.writeValue(theValue);
+            final Value aResult = encode(aCodec, theValue);
 
             if (aResult instanceof ResourceBuilder) {
                 return (ResourceBuilder) aResult;
@@ -394,23 +1706,39 @@ public final class RDFMapper {
 
             ResourceBuilder aBuilder = aGraph.instance(aType, aId);
 
-            for (Map.Entry<String, Object> aEntry : PropertyUtils.describe(theValue).entrySet()) {
-                final PropertyDescriptor aDescriptor = PropertyUtils.getPropertyDescriptor(theValue, aEntry.getKey());
+            final Instantiator<?> aInstantiator = mInstantiators.of(theValue.getClass());
 
-                if (isIgnored(aDescriptor)) {
+            for (MappingPlan.Property aPropertyPlan : plan(theValue.getClass()).properties()) {
+                final PropertyDescriptor aDescriptor = aPropertyPlan.descriptor();
+
+                if (!aInstantiator.isReadable(theValue, aDescriptor)) {
                     continue;
                 }
 
-                final IRI aProperty = getProperty(aDescriptor);
+                final IRI aProperty = aPropertyPlan.iri();
 
                 if (aProperty == null) {
                     continue;
                 }
 
-                final Object aObj = aEntry.getValue();
+                final long aStart = mListener == null ? 0L : System.nanoTime();
 
-                if (aObj != null) {
-                    setValue(aGraph, aBuilder, aDescriptor, aProperty, aObj);
+                if (mListener != null) {
+                    mListener.beginProperty(Operation.WRITE, theValue.getClass(), aDescriptor.getName());
+                }
+
+                try {
+                    final Object aObj = aInstantiator.read(theValue, aDescriptor);
+
+                    if (aObj != null) {
+                        setValue(aGraph, aBuilder, aPropertyPlan, aProperty, aObj);
+                    }
+                }
+                finally {
+                    if (mListener != null) {
+                        mListener.endProperty(Operation.WRITE, theValue.getClass(), aDescriptor.getName(),
+                                              System.nanoTime() - aStart);
+                    }
                 }
             }
 
@@ -423,23 +1751,33 @@ public final class RDFMapper {
 
     @SuppressWarnings("unchecked")
     private void setValue(final ModelBuilder theGraph, final ResourceBuilder theBuilder,
-                          final PropertyDescriptor thePropertyDescriptor,
+                          final MappingPlan.Property thePropertyPlan,
                           final IRI theProperty, final Object theObj) {
 
         if (Beans.isPrimitive(theObj)) {
-            theBuilder.addProperty(theProperty, toLiteral(theObj, getPropertyAnnotation(thePropertyDescriptor)));
+            theBuilder.addProperty(theProperty, toLiteral(theObj, thePropertyPlan));
         }
         else if (Enum.class.isAssignableFrom(theObj.getClass())) {
             theBuilder.addProperty(theProperty, enumToURI((Enum) theObj));
         }
         else if (Collection.class.isAssignableFrom(theObj.getClass())) {
-            handleCollection(theGraph, theBuilder, theProperty, theObj, thePropertyDescriptor);
+            handleCollection(theGraph, theBuilder, theProperty, theObj, thePropertyPlan);
 
         }
         else if (Map.class.isAssignableFrom(theObj.getClass())) {
             Map aMap = (Map) theObj;
 
-            if (!aMap.isEmpty()) {
+            if (!aMap.isEmpty() && isCompact(aMap, thePropertyPlan)) {
+                final ResourceBuilder aRes = theGraph.instance();
+                final Class<?> aKeyType = thePropertyPlan.keyType();
+
+                for (Map.Entry aMapEntry : (Set<Map.Entry>) aMap.entrySet()) {
+                    setValue(theGraph, aRes, null, keyToPredicate(aMapEntry.getKey(), aKeyType), aMapEntry.getValue());
+                }
+
+                theBuilder.addProperty(theProperty, aRes);
+            }
+            else if (!aMap.isEmpty()) {
                 ResourceBuilder aRes = theGraph.instance();
                 for (Map.Entry aMapEntry : (Set<Map.Entry>) aMap.entrySet()) {
                     ResourceBuilder aEntryRes = theGraph.instance();
@@ -456,7 +1794,7 @@ public final class RDFMapper {
         else {
             RDFCodec aCodex = mCodecs.get(theObj.getClass());
             if (aCodex != null) {
-                final Value aValue = aCodex.writeValue(theObj);
+                final Value aValue = encode(aCodex, theObj);
 
                 if (aValue instanceof ResourceBuilder) {
                     theBuilder.addProperty(theProperty, (ResourceBuilder) aValue);
@@ -472,18 +1810,36 @@ public final class RDFMapper {
     }
 
 
+    /**
+     * Return whether or not the map is written {@link MappingOptions#COMPACT_MAPS compactly}, which it is when the
+     * option is set, and every key can be made into a predicate which reads back as the same key
+     */
+    private boolean isCompact(final Map<?, ?> theMap, final MappingPlan.Property theProperty) {
+        if (!mMappingOptions.is(MappingOptions.COMPACT_MAPS) || theProperty == null) {
+            return false;
+        }
+
+        for (Object aKey : theMap.keySet()) {
+            if (keyToPredicate(aKey, theProperty.keyType()) == null) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     private void handleCollection(final ModelBuilder theGraph, final ResourceBuilder theBuilder,
                                   final IRI theProperty, final Object theObj,
-                                  final PropertyDescriptor thePropertyDescriptor) {
+                                  final MappingPlan.Property thePropertyPlan) {
 
         final Collection aCollection = (Collection) theObj;
 
-        if (serializeCollectionsAsRDFList(thePropertyDescriptor)) {
+        if (serializeCollectionsAsRDFList(thePropertyPlan)) {
             List<Value> aList = Lists.newArrayListWithExpectedSize(aCollection.size());
 
             for (Object aVal : aCollection) {
                 if (Beans.isPrimitive(aVal)) {
-                    aList.add(toLiteral(aVal, getPropertyAnnotation(thePropertyDescriptor)));
+                    aList.add(toLiteral(aVal, thePropertyPlan));
                 }
                 else {
                     ResourceBuilder aIndividual = write(aVal);
@@ -500,7 +1856,7 @@ public final class RDFMapper {
             for (Object aVal : aCollection) {
                 // this would not handle collections of collections, does that matter?
                 if (Beans.isPrimitive(aVal)) {
-                    theBuilder.addProperty(theProperty, toLiteral(aVal, getPropertyAnnotation(thePropertyDescriptor)));
+                    theBuilder.addProperty(theProperty, toLiteral(aVal, thePropertyPlan));
                 }
                 else {
                     theBuilder.addProperty(theProperty, write(aVal));
@@ -510,28 +1866,54 @@ public final class RDFMapper {
 
     }
 
-    private IRI enumToURI(final Enum theEnum) {
-        try {
-            final Iri aAnnotation = theEnum.getClass().getField(theEnum.name()).getAnnotation(Iri.class);
+    /**
+     * Read the value with the codec, notifying the listener, if any
+     */
+    private <T> T decode(final RDFCodec<T> theCodec, final Class<?> theType, final Model theGraph, final Value theObj) {
+        if (mListener == null) {
+            return theCodec.readValue(theGraph, theObj);
+        }
 
-            if (aAnnotation != null) {
-                return iri(aAnnotation.value());
-            } else {
-                return mValueFactory.createIRI(mDefaultNamespace, theEnum.name());
-            }
-        } catch (NoSuchFieldException e) {
-            throw new AssertionError("Field not found for enum " + theEnum.name() + " in " + theEnum.getClass().getName(), e);
+        final long aStart = System.nanoTime();
+        mListener.beginCodec(Operation.READ, theType, theCodec);
+
+        try {
+            return theCodec.readValue(theGraph, theObj);
+        }
+        finally {
+            mListener.endCodec(Operation.READ, theType, theCodec, System.nanoTime() - aStart);
         }
     }
 
-    private boolean serializeCollectionsAsRDFList(final PropertyDescriptor thePropertyDescriptor) {
-        if (mMappingOptions.is(MappingOptions.SERIALIZE_COLLECTIONS_AS_LISTS)) {
-            return true;
+    /**
+     * Write the value with the codec, notifying the listener, if any
+     */
+    @SuppressWarnings("unchecked")
+    private Value encode(final RDFCodec theCodec, final Object theObj) {
+        if (mListener == null) {
+            return theCodec.writeValue(theObj);
+        }
+
+        final long aStart = System.nanoTime();
+        mListener.beginCodec(Operation.WRITE, theObj.getClass(), theCodec);
+
+        try {
+            return theCodec.writeValue(theObj);
         }
+        finally {
+            mListener.endCodec(Operation.WRITE, theObj.getClass(), theCodec, System.nanoTime() - aStart);
+        }
+    }
 
-        RdfProperty aProperty = getPropertyAnnotation(thePropertyDescriptor);
+    private IRI enumToURI(final Enum theEnum) {
+        return plan(theEnum.getDeclaringClass()).enumIri(theEnum);
+    }
 
-        return aProperty != null && aProperty.isList();
+    private boolean serializeCollectionsAsRDFList(final MappingPlan.Property theProperty) {
+        // map keys and values have no property of their own, so only the option applies to them
+        return theProperty == null
+               ? mMappingOptions.is(MappingOptions.SERIALIZE_COLLECTIONS_AS_LISTS)
+               : theProperty.isList();
     }
 
     private IRI getType(final Object theObj) {
@@ -539,44 +1921,144 @@ public final class RDFMapper {
     }
 
     private IRI getType(final Class<?> theClass) {
-        IRI aType = mMappings.inverse().get(theClass);
-
-        if (aType != null) {
-            return aType;
-        }
-
-        RdfsClass aClass = theClass.getAnnotation(RdfsClass.class);
-
-        if (aClass != null) {
-            return iri(aClass.value());
-        }
-
-        return null;
+        return plan(theClass).rdfType();
     }
 
-    private Object valueToObject(final Value theValue, final Model theGraph, final PropertyDescriptor theDescriptor) {
+    private Object valueToObject(final Value theValue, final Model theGraph, final Class<?> theClass,
+                                 final MappingPlan.Property theProperty, final Projection theProjection,
+                                 final FetchPlan theFetchPlan) {
         if (theValue instanceof Literal) {
-            return handleLiteral(theValue, theDescriptor);
+            if (mErrors != null) {
+                return readLiteral((Literal) theValue, theClass, theProperty);
+            }
+            else if (mListener == null) {
+                return intern(handleLiteral(theValue, theClass, theProperty), (Literal) theValue, theProperty);
+            }
+
+            try {
+                return intern(handleLiteral(theValue, theClass, theProperty), (Literal) theValue, theProperty);
+            }
+            catch (RuntimeException e) {
+                mListener.literalConversionFailed((Literal) theValue,
+                                                  theProperty == null ? null : theProperty.descriptor().getPropertyType(), e);
+                throw e;
+            }
         }
-        else if (theDescriptor != null && Enum.class.isAssignableFrom(theDescriptor.getPropertyType())) {
-            return handleEnum(theValue, theDescriptor);
+        else if (theProperty != null && Enum.class.isAssignableFrom(theProperty.descriptor().getPropertyType())) {
+            return handleEnum(theValue, theClass, theProperty);
         }
         else {
             Resource aResource = (Resource) theValue;
 
-            final Class aClass = pinpointClass(theGraph, aResource, theDescriptor);
+            final Class aClass = pinpointClass(theGraph, aResource, theProperty);
 
             RDFCodec aCodec = mCodecs.get(aClass);
             if (aCodec != null) {
-                return aCodec.readValue(theGraph, aResource);
+                return decode(aCodec, aClass, theGraph, aResource);
             }
             else {
-                return readValue(theGraph, aClass, aResource);
+                return readReference(theGraph, aClass, aResource, theProjection, theFetchPlan);
+            }
+        }
+    }
+
+    /**
+     * Read the value of the literal, returning the problem with it rather than raising an error, for the mappers which
+     * record their problems in an {@link ErrorReport}.  The numbers, which are the bulk of the invalid literals in
+     * dirty data, are parsed without raising an error at all.
+     */
+    private Object readLiteral(final Literal theLiteral, final Class<?> theClass, final MappingPlan.Property theProperty) {
+        final IRI aDatatype = theLiteral.getDatatype();
+
+        if (isNumeric(aDatatype)) {
+            final Object aNumber = tryParse(theLiteral.getLabel(), aDatatype);
+
+            if (aNumber != null) {
+                return intern(aNumber, theLiteral, theProperty);
             }
+
+            final String aDetail = String.format("\"%s\" is not a valid %s", theLiteral.getLabel(), aDatatype.getLocalName());
+
+            if (mListener != null) {
+                // the exception is only created for the listener, parsing the number did not raise one
+                mListener.literalConversionFailed(theLiteral, theProperty == null ? null : theProperty.descriptor().getPropertyType(),
+                                                  new NumberFormatException(aDetail));
+            }
+
+            return new Invalid(invalidLiteral(aDatatype), aDetail);
+        }
+
+        try {
+            return intern(handleLiteral(theLiteral, theClass, theProperty), theLiteral, theProperty);
+        }
+        catch (RuntimeException e) {
+            if (mListener != null) {
+                mListener.literalConversionFailed(theLiteral, theProperty == null ? null : theProperty.descriptor().getPropertyType(), e);
+            }
+
+            return new Invalid(invalidLiteral(aDatatype), e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+    }
+
+    private static String invalidLiteral(final IRI theDatatype) {
+        return "not a valid " + theDatatype.getLocalName();
+    }
+
+    private static boolean isNumeric(final IRI theDatatype) {
+        return INTEGER_TYPES.contains(theDatatype)
+               || LONG_TYPES.contains(theDatatype)
+               || XMLSchema.DOUBLE.equals(theDatatype)
+               || FLOAT_TYPES.contains(theDatatype)
+               || SHORT_TYPES.contains(theDatatype)
+               || BYTE_TYPES.contains(theDatatype);
+    }
+
+    /**
+     * Parse the label of a literal with a numeric datatype the way {@link #handleLiteral} does, but without raising an
+     * error when it is not a valid number
+     *
+     * @return the number, or null if the label is not a valid number
+     */
+    private static Object tryParse(final String theLabel, final IRI theDatatype) {
+        // the JDK accepts a leading plus sign on integers, Guava does not
+        final String aLabel = theLabel.length() > 1 && theLabel.charAt(0) == '+' && Character.isDigit(theLabel.charAt(1))
+                              ? theLabel.substring(1)
+                              : theLabel;
+
+        if (INTEGER_TYPES.contains(theDatatype)) {
+            return Ints.tryParse(aLabel);
+        }
+        else if (LONG_TYPES.contains(theDatatype)) {
+            return Longs.tryParse(aLabel);
+        }
+        else if (XMLSchema.DOUBLE.equals(theDatatype)) {
+            return Doubles.tryParse(theLabel.trim());
+        }
+        else if (FLOAT_TYPES.contains(theDatatype)) {
+            return Floats.tryParse(theLabel.trim());
         }
+
+        final Integer aInt = Ints.tryParse(aLabel);
+
+        if (aInt == null) {
+            return null;
+        }
+        else if (SHORT_TYPES.contains(theDatatype)) {
+            return aInt == aInt.shortValue() ? Short.valueOf(aInt.shortValue()) : null;
+        }
+        else {
+            return aInt == aInt.byteValue() ? Byte.valueOf(aInt.byteValue()) : null;
+        }
+    }
+
+    private Object intern(final Object theObj, final Literal theLiteral, final MappingPlan.Property theProperty) {
+        return mInterner == null
+               ? theObj
+               : mInterner.intern(theObj, theProperty == null ? null : theProperty.descriptor().getName(),
+                                  theLiteral.getDatatype());
     }
 
-    private Object handleLiteral(final Value theValue, final PropertyDescriptor theDescriptor) {
+    private Object handleLiteral(final Value theValue, final Class<?> theClass, final MappingPlan.Property theProperty) {
         final Literal aLit = (Literal) theValue;
 
         final IRI aDatatype = aLit.getDatatype() != null ? aLit.getDatatype() : null;
@@ -584,7 +2066,7 @@ public final class RDFMapper {
         if (aDatatype == null || XMLSchema.STRING.equals(aDatatype) || RDFS.LITERAL.equals(aDatatype)) {
             String aStr = aLit.getLabel();
 
-            if (theDescriptor != null && Character.TYPE.isAssignableFrom(theDescriptor.getPropertyType())) {
+            if (theProperty != null && Character.TYPE.isAssignableFrom(theProperty.descriptor().getPropertyType())) {
                 if (aStr.length() == 1) {
                     return aStr.charAt(0);
                 }
@@ -622,7 +2104,13 @@ public final class RDFMapper {
                 return new java.net.URI(aLit.getLabel());
             }
             catch (URISyntaxException e) {
-                LOGGER.warn("URI syntax exception converting literal value which is not a valid URI {} ", aLit.getLabel());
+                if (mListener != null) {
+                    mListener.literalConversionFailed(aLit, theProperty == null ? null : theProperty.descriptor().getPropertyType(), e);
+                }
+
+                mDiagnostics.report(Diagnostics.Kind.INVALID_URI, theClass,
+                                    theProperty == null ? null : theProperty.name(),
+                                    "URI syntax exception converting literal value which is not a valid URI {} ", aLit.getLabel());
                 return null;
             }
         }
@@ -636,49 +2124,76 @@ public final class RDFMapper {
             throw new RuntimeException("Unsupported or unknown literal datatype: " + aLit);
         }
     }
-    private Object handleEnum(final Value theValue, final PropertyDescriptor theDescriptor) {
+    private Object handleEnum(final Value theValue, final Class<?> theClass, final MappingPlan.Property theProperty) {
+        final Class<?> aType = theProperty.descriptor().getPropertyType();
         IRI aURI = (IRI) theValue;
-        Object[] aEnums = theDescriptor.getPropertyType().getEnumConstants();
+        Object[] aEnums = aType.getEnumConstants();
         for (Object aObj : aEnums) {
             if (((Enum) aObj).name().equals(aURI.getLocalName())) {
                 return aObj;
             }
         }
 
-        for (Field aField : theDescriptor.getPropertyType().getFields()) {
-            Iri aAnnotation = aField.getAnnotation(Iri.class);
-            if (aAnnotation != null && aURI.equals(iri(aAnnotation.value()))) {
-                for (Object aObj : aEnums) {
-                    if (((Enum) aObj).name().equals(aField.getName())) {
-                        return aObj;
+        for (Map.Entry<Enum<?>, MappingPlan.Resolved> aEntry : plan(aType).enumIris().entrySet()) {
+            if (aURI.equals(aEntry.getValue().get())) {
+                return aEntry.getKey();
+            }
+        }
+
+        mDiagnostics.report(Diagnostics.Kind.UNKNOWN_ENUM, theClass, theProperty.name(),
+                            "{} maps to the enum {}, but does not correspond to any of the values of the enum.",
+                            aURI, aType);
+
+        return null;
+    }
+
+    private Class pinpointClass(final Model theGraph, final Resource theResource, final MappingPlan.Property theProperty) {
+        Class aClass = theProperty.elementType();
+
+        // the element type of a collection is all we have to go on, otherwise, when the declared type cannot be
+        // created, look for a more specific mapped type in the graph
+        if (!Collection.class.isAssignableFrom(theProperty.descriptor().getPropertyType())
+            && !mInstantiators.of(aClass).isInstantiable()) {
+
+            Class<?> aCurr = null;
+            final Iterable<Resource> aRdfTypes = Models2.getTypes(theGraph, theResource);
+            for (Resource aType : aRdfTypes) {
+                Class<?> aMappedClass = mMappings.get(aType);
+                if (aMappedClass != null) {
+                    if (aCurr == null) {
+                        aCurr = aMappedClass;
+                    } else if (aCurr.isAssignableFrom(aMappedClass)) {
+                        // we want the most specific class, that's likely to be what's instantiable
+                        aCurr = aMappedClass;
                     }
                 }
+            }
 
-                // if the uri in the Iri annotation equals the value we're converting, but there was no field
-                // match, something bad has happened
-                throw new RDFMappingException("Expected enum value not found");
+            if (aCurr != null) {
+                aClass = aCurr;
             }
         }
 
-        LOGGER.info("{} maps to the enum {}, but does not correspond to any of the values of the enum.",
-                aURI, theDescriptor.getPropertyType());
-
-        return null;
+        return aClass;
     }
 
-    private Class pinpointClass(final Model theGraph, final Resource theResource, final PropertyDescriptor theDescriptor) {
+    /**
+     * Return the type of the elements of a collection property, or the type of the property for anything else
+     */
+    private static Class<?> elementType(final PropertyDescriptor theDescriptor) {
         Class aClass = theDescriptor.getPropertyType();
 
-        if (Collection.class.isAssignableFrom(aClass)) {
+        // an indexed property without a plain getter & setter has no property type
+        if (aClass != null && Collection.class.isAssignableFrom(aClass)) {
             // if the field we're assigning from is a collection, try and figure out the type of the thing
             // we're creating from the collection
 
             Type[] aTypes = null;
 
-            if (theDescriptor.getReadMethod().getGenericParameterTypes().length > 0) {
+            if (theDescriptor.getReadMethod() != null && theDescriptor.getReadMethod().getGenericParameterTypes().length > 0) {
                 // should this be the return type? eg new Type[] { theDescriptor.getReadMethod().getGenericReturnType() };
                 aTypes = theDescriptor.getReadMethod().getGenericParameterTypes();
-            } else if (theDescriptor.getWriteMethod().getGenericParameterTypes().length > 0) {
+            } else if (theDescriptor.getWriteMethod() != null && theDescriptor.getWriteMethod().getGenericParameterTypes().length > 0) {
                 aTypes = theDescriptor.getWriteMethod().getGenericParameterTypes();
             }
 
@@ -720,25 +2235,6 @@ public final class RDFMapper {
             } else {
                 LOGGER.info("Could not find type for collection %s", aClass);
             }
-        } else if (!Classes.isInstantiable(aClass) || !Classes.hasDefaultConstructor(aClass)) {
-
-            Class<?> aCurr = null;
-            final Iterable<Resource> aRdfTypes = Models2.getTypes(theGraph, theResource);
-            for (Resource aType : aRdfTypes) {
-                Class<?> aMappedClass = mMappings.get(aType);
-                if (aMappedClass != null) {
-                    if (aCurr == null) {
-                        aCurr = aMappedClass;
-                    } else if (aCurr.isAssignableFrom(aMappedClass)) {
-                        // we want the most specific class, that's likely to be what's instantiable
-                        aCurr = aMappedClass;
-                    }
-                }
-            }
-
-            if (aCurr != null) {
-                aClass = aCurr;
-            }
         }
 
         return aClass;
@@ -751,27 +2247,27 @@ public final class RDFMapper {
      * or the type of the object to create a literal value.
      *
      * @param theObj the object to be converted to a Value.
-     * @param theAnnotation the RDF property annotation that provides additional
-     *                      information for creating the Value.
+     * @param theProperty the plan of the property whose annotation provides additional
+     *                    information for creating the Value, or null if there is none.
      * @return the created Value, or null if an IRI cannot be created using the
      *         annotation's datatype.
      * @throws RDFMappingException if the object type is unsupported.
      */
-    private Value toLiteral(final Object theObj, final RdfProperty theAnnotation) {
-        if (theAnnotation != null && !Strings.isNullOrEmpty(theAnnotation.datatype())) {
-            final IRI aURI = iri(theAnnotation.datatype());
+    private Value toLiteral(final Object theObj, final MappingPlan.Property theProperty) {
+        if (theProperty != null && theProperty.hasDatatype()) {
+            final IRI aURI = theProperty.datatype();
 
             if (aURI == null) {
                 return null;
             }
 
-            return mValueFactory.createLiteral(theObj.toString(), aURI);
+            return mLiterals.typed(theObj.toString(), aURI);
         } else if (theObj instanceof Boolean) {
-            return mValueFactory.createLiteral((Boolean) theObj);
+            return mLiterals.of(((Boolean) theObj).booleanValue());
         } else if (theObj instanceof Integer) {
-            return mValueFactory.createLiteral(((Integer) theObj).intValue());
+            return mLiterals.of(((Integer) theObj).intValue());
         } else if (theObj instanceof Long) {
-            return mValueFactory.createLiteral(((Long) theObj).longValue());
+            return mLiterals.of(((Long) theObj).longValue());
         } else if (theObj instanceof Short) {
             return mValueFactory.createLiteral(((Short) theObj).shortValue());
         } else if (theObj instanceof Double) {
@@ -779,17 +2275,17 @@ public final class RDFMapper {
         } else if (theObj instanceof Float) {
             return mValueFactory.createLiteral(((Float) theObj).floatValue());
         } else if (theObj instanceof Date) {
-            return mValueFactory.createLiteral(Dates2.datetimeISO(((Date) theObj)));
+            return mLiterals.typed(Dates2.datetimeISO(((Date) theObj)), XMLSchema.STRING);
         } else if (theObj instanceof String) {
-            if (theAnnotation != null && !theAnnotation.language().equals("")) {
-                return mValueFactory.createLiteral((String) theObj, theAnnotation.language());
+            if (theProperty != null && theProperty.language() != null) {
+                return mLiterals.language((String) theObj, theProperty.language());
             } else {
-                return mValueFactory.createLiteral((String) theObj, XMLSchema.STRING);
+                return mLiterals.typed((String) theObj, XMLSchema.STRING);
             }
         } else if (theObj instanceof Character) {
-            return mValueFactory.createLiteral(String.valueOf(theObj), XMLSchema.STRING);
+            return mLiterals.typed(String.valueOf(theObj), XMLSchema.STRING);
         } else if (theObj instanceof java.net.URI) {
-            return mValueFactory.createLiteral(theObj.toString(), XMLSchema.ANYURI);
+            return mLiterals.typed(theObj.toString(), XMLSchema.ANYURI);
         }
 
         throw new RDFMappingException("Unknown or unsupported primitive type: " + theObj.getClass().getName());
@@ -815,16 +2311,6 @@ public final class RDFMapper {
         }
     }
 
-    private IRI getProperty(final PropertyDescriptor thePropertyDescriptor) {
-        final RdfProperty aAnnotation = getPropertyAnnotation(thePropertyDescriptor);
-
-        if (aAnnotation == null || Strings.isNullOrEmpty(aAnnotation.value())) {
-            return mValueFactory.createIRI(mDefaultNamespace + thePropertyDescriptor.getName());
-        } else {
-            return iri(aAnnotation.value());
-        }
-    }
-
     /**
      * Expand the URI from a QName, if applicable, returning the URI
      *
@@ -839,7 +2325,7 @@ public final class RDFMapper {
                 return null;
             }
 
-            return mValueFactory.createIRI(expand(theURI));
+            return mIRIs.get(expand(theURI));
         } catch (IllegalArgumentException e) {
             final String aMsg = String.format("An invalid uri \"%s\" was used, ignoring property with annotation", theURI);
 
@@ -852,6 +2338,280 @@ public final class RDFMapper {
         }
     }
 
+    /**
+     * Return the {@link MappingPlan plan} for the class, compiling it if this is the first time it's been used
+     */
+    MappingPlan plan(final Class<?> theClass) {
+        final MappingPlan aPlan = mPlans.get(theClass);
+
+        return aPlan != null ? aPlan : mPlans.computeIfAbsent(theClass, this::compile);
+    }
+
+    private MappingPlan compile(final Class<?> theClass) {
+        if (mPlanCache == null) {
+            return compile(theClass, mappedDescriptors(theClass));
+        }
+
+        final List<PropertyDescriptor> aDescriptors = mappedDescriptors(theClass);
+        final MappingPlan aCached = mPlanCache.load(theClass, aDescriptors, RDFMapper::elementType);
+
+        if (aCached != null) {
+            return aCached;
+        }
+
+        final MappingPlan aPlan = compile(theClass, aDescriptors);
+
+        mPlanCache.store(aPlan);
+
+        return aPlan;
+    }
+
+    private static List<PropertyDescriptor> mappedDescriptors(final Class<?> theClass) {
+        final List<PropertyDescriptor> aDescriptors = Lists.newArrayList();
+
+        for (PropertyDescriptor aDescriptor : Instantiator.of(theClass).descriptors()) {
+            if (!isIgnored(aDescriptor)) {
+                aDescriptors.add(aDescriptor);
+            }
+        }
+
+        return aDescriptors;
+    }
+
+    private MappingPlan compile(final Class<?> theClass, final List<PropertyDescriptor> theDescriptors) {
+        final IRI aMappedType = mMappings.inverse().get(theClass);
+        final RdfsClass aRdfsClass = theClass.getAnnotation(RdfsClass.class);
+
+        final MappingPlan.Resolved aType = aMappedType != null
+                                           ? MappingPlan.Resolved.of(aMappedType)
+                                           : aRdfsClass != null ? resolve(aRdfsClass.value()) : MappingPlan.Resolved.NONE;
+
+        final List<MappingPlan.Property> aProperties = Lists.newArrayList();
+
+        for (PropertyDescriptor aDescriptor : theDescriptors) {
+            final RdfProperty aAnnotation = getPropertyAnnotation(aDescriptor);
+
+            final MappingPlan.Resolved aIri = aAnnotation == null || Strings.isNullOrEmpty(aAnnotation.value())
+                                              ? MappingPlan.Resolved.of(mIRIs.get(mDefaultNamespace + aDescriptor.getName()))
+                                              : resolve(aAnnotation.value());
+
+            final MappingPlan.Resolved aDatatype = aAnnotation == null
+                                                   ? MappingPlan.Resolved.NONE
+                                                   : resolve(aAnnotation.datatype());
+
+            final boolean aList = mMappingOptions.is(MappingOptions.SERIALIZE_COLLECTIONS_AS_LISTS)
+                                  || (aAnnotation != null && aAnnotation.isList());
+
+            aProperties.add(new MappingPlan.Property(aDescriptor, aIri, aDatatype,
+                                                     aAnnotation != null && !Strings.isNullOrEmpty(aAnnotation.datatype()),
+                                                     aAnnotation == null || Strings.isNullOrEmpty(aAnnotation.language())
+                                                     ? null
+                                                     : aAnnotation.language(),
+                                                     aList, elementType(aDescriptor)));
+        }
+
+        final Iterable<String> aProps = () -> StreamSupport.stream(Beans.getDeclaredMethods(theClass).spliterator(), false)
+                .filter(Methods.annotated(RdfId.class))
+                .map(Methods.property())
+                .iterator();
+
+        // Sort the properties so they're always iterated over in the same order.  since the hash is sensitive
+        // to iteration order, the same inputs but in a different order yields a different hashed value, and thus
+        // a different ID, even though it's the *same* resource.
+        final List<String> aIdProperties = Ordering.natural().sortedCopy(aProps);
+
+        final Map<Enum<?>, MappingPlan.Resolved> aEnumIris = Maps.newLinkedHashMap();
+
+        if (theClass.isEnum()) {
+            for (Object aObj : theClass.getEnumConstants()) {
+                final Enum<?> aEnum = (Enum<?>) aObj;
+
+                try {
+                    final Iri aAnnotation = theClass.getField(aEnum.name()).getAnnotation(Iri.class);
+
+                    aEnumIris.put(aEnum, aAnnotation != null
+                                         ? resolve(aAnnotation.value())
+                                         : MappingPlan.Resolved.of(mIRIs.get(mDefaultNamespace + aEnum.name())));
+                }
+                catch (NoSuchFieldException e) {
+                    throw new AssertionError("Field not found for enum " + aEnum.name() + " in " + theClass.getName(), e);
+                }
+            }
+        }
+
+        return new MappingPlan(theClass, aType, aProperties, aIdProperties, aEnumIris);
+    }
+
+    /**
+     * Resolve the IRI from an annotation as {@link #iri(String)} does, but keep, rather than raise, the error if it is
+     * not valid so that it is raised when, and only if, the IRI is used
+     */
+    private MappingPlan.Resolved resolve(final String theURI) {
+        try {
+            return MappingPlan.Resolved.of(iri(theURI));
+        }
+        catch (RDFMappingException e) {
+            return MappingPlan.Resolved.invalid(e.getMessage());
+        }
+    }
+
+    /**
+     * Save the plans compiled by this mapper to its {@link Builder#planCache(Path) plan cache}, so that they can be
+     * loaded by the next mapper created with the same cache file, rather than compiled again.  Plans compiled when the
+     * mapper is built are saved then; this saves those compiled since.  Does nothing if the mapper has no cache, or
+     * there is nothing new to save.
+     */
+    public void savePlanCache() {
+        if (mPlanCache != null) {
+            mPlanCache.save();
+        }
+    }
+
+    /**
+     * Compile and {@link MappingPlan#validate() validate} the plans of the classes and, transitively, of the beans and
+     * enums used as the values of their properties
+     *
+     * @param theClasses    the classes
+     * @return              the classes whose plans were compiled
+     * @throws RDFMappingException if an annotation has an invalid IRI and invalid annotations are not ignored
+     */
+    private Set<Class<?>> precompile(final Collection<Class<?>> theClasses) {
+        final Set<Class<?>> aCompiled = Sets.newLinkedHashSet();
+        final Deque<Class<?>> aQueue = new ArrayDeque<>(theClasses);
+
+        while (!aQueue.isEmpty()) {
+            final Class<?> aClass = aQueue.pop();
+
+            if (!aCompiled.add(aClass)) {
+                continue;
+            }
+
+            final MappingPlan aPlan = plan(aClass);
+
+            aPlan.validate();
+
+            for (MappingPlan.Property aProperty : aPlan.properties()) {
+                final Class<?> aType = aProperty.elementType();
+
+                if (aType == null) {
+                    continue;
+                }
+
+                if (aType.isEnum()
+                    || !(aType.isPrimitive() || aType.isArray() || Beans.isPrimitive(aType)
+                         || Collection.class.isAssignableFrom(aType) || Map.class.isAssignableFrom(aType)
+                         || mCodecs.containsKey(aType) || aType.getName().startsWith("java."))) {
+                    aQueue.add(aType);
+                }
+            }
+        }
+
+        return aCompiled;
+    }
+
+    /**
+     * Write, then read back, an instance of each of the classes which can be created with its simple properties set,
+     * so that the reflection, bean introspection and JIT work done on the first use of a class is done up front.  The
+     * passes are made without the listener, and with caches, an interner and diagnostics of their own, so they are not
+     * traced or counted in any metrics, and the synthetic values take no place in the mapper's caches.
+     *
+     * @param theClasses    the classes
+     * @param theIterations the number of passes over the classes
+     */
+    private void warmUp(final Iterable<Class<?>> theClasses, final int theIterations) {
+        final Integer aIRICacheSize = mMappingOptions.get(MappingOptions.IRI_CACHE_SIZE);
+        final Integer aLiteralCacheSize = mMappingOptions.get(MappingOptions.LITERAL_CACHE_SIZE);
+        final Integer aInternLimit = mMappingOptions.get(MappingOptions.INTERN_LIMIT);
+
+        // the plans are shared, they have all been compiled, so the plan cache is not needed
+        final RDFMapper aMapper = new RDFMapper(mMappings, mIdFunctions, mValueFactory, mNamespaces, mCollectionFactory,
+                                                mMapFactory, mCodecs, mMappingOptions, mFetchPlans, null, mPlans, null,
+                                                new IRICache(mValueFactory, aIRICacheSize == null
+                                                                            ? MappingOptions.IRI_CACHE_SIZE.getDefaultValue()
+                                                                            : aIRICacheSize),
+                                                new LiteralCache(mValueFactory, aLiteralCacheSize == null
+                                                                                ? MappingOptions.LITERAL_CACHE_SIZE.getDefaultValue()
+                                                                                : aLiteralCacheSize),
+                                                new InstantiatorCache(false),
+                                                mInterner == null
+                                                ? null
+                                                : new ValueInterner(mMappingOptions.get(MappingOptions.INTERN_POLICY),
+                                                                    aInternLimit == null
+                                                                    ? MappingOptions.INTERN_LIMIT.getDefaultValue()
+                                                                    : aInternLimit),
+                                                mExecutor, new Diagnostics(NOPLogger.NOP_LOGGER, 0, TimeUnit.MILLISECONDS),
+                                                null);
+
+        for (int i = 0; i < theIterations; i++) {
+            for (Class<?> aClass : theClasses) {
+                final Instantiator<?> aInstantiator = aMapper.mInstantiators.of(aClass);
+
+                if (aClass.isEnum() || !aInstantiator.isInstantiable() || mCodecs.containsKey(aClass)) {
+                    continue;
+                }
+
+                try {
+                    final Object aInst = aInstantiator.newInstance(aInstantiator.arguments());
+
+                    for (MappingPlan.Property aProperty : plan(aClass).properties()) {
+                        final Object aValue = aProperty.descriptor().getPropertyType() == null
+                                              ? null
+                                              : sample(aProperty.descriptor().getPropertyType());
+
+                        if (aValue != null && aProperty.descriptor().getWriteMethod() != null) {
+                            PropertyUtils.setProperty(aInst, aProperty.name(), aValue);
+                        }
+                    }
+
+                    final ResourceBuilder aResult = aMapper.write(aInst);
+
+                    aMapper.readObject(aResult.model(), aClass, aResult.getResource(), Projection.ALL, FetchPlan.ALL);
+                }
+                catch (Exception e) {
+                    LOGGER.debug("Could not warm up the mapping of {}", aClass, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return a value of the type to use for warming up the mapper, or null if the type is not a simple one
+     */
+    private static Object sample(final Class<?> theType) {
+        if (theType.isEnum()) {
+            return theType.getEnumConstants().length == 0 ? null : theType.getEnumConstants()[0];
+        }
+        else if (String.class.equals(theType)) {
+            return "warmup";
+        }
+        else if (Integer.class.equals(theType) || Integer.TYPE.equals(theType)) {
+            return 1;
+        }
+        else if (Long.class.equals(theType) || Long.TYPE.equals(theType)) {
+            return 1L;
+        }
+        else if (Short.class.equals(theType) || Short.TYPE.equals(theType)) {
+            return (short) 1;
+        }
+        else if (Double.class.equals(theType) || Double.TYPE.equals(theType)) {
+            return 1d;
+        }
+        else if (Float.class.equals(theType) || Float.TYPE.equals(theType)) {
+            return 1f;
+        }
+        else if (Boolean.class.equals(theType) || Boolean.TYPE.equals(theType)) {
+            return Boolean.TRUE;
+        }
+        else if (Character.class.equals(theType) || Character.TYPE.equals(theType)) {
+            return 'w';
+        }
+        else if (java.net.URI.class.equals(theType)) {
+            return java.net.URI.create("urn:warmup");
+        }
+
+        return null;
+    }
+
     /**
      * Get or generate an rdf:ID for the given object
      *
@@ -867,15 +2627,7 @@ public final class RDFMapper {
             }
         }
 
-        final Iterable<String> aProps = () -> StreamSupport.stream(Beans.getDeclaredMethods(theT.getClass()).spliterator(), false)
-                .filter(Methods.annotated(RdfId.class))
-                .map(Methods.property())
-                .iterator();
-
-        // Sort the properties so they're always iterated over in the same order.  since the hash is sensitive
-        // to iteration order, the same inputs but in a different order yields a different hashed value, and thus
-        // a different ID, even though it's the *same* resource.
-        final List<String> aSorted = Ordering.natural().sortedCopy(aProps);
+        final List<String> aSorted = plan(theT.getClass()).idProperties();
 
         Resource aId = null;
         if (!Iterables.isEmpty(aSorted)) {
@@ -895,7 +2647,7 @@ public final class RDFMapper {
                 }
             }
 
-            aId = mValueFactory.createIRI(mDefaultNamespace + aFunc.hash().toString());
+            aId = mIRIs.get(mDefaultNamespace + aFunc.hash().toString());
         }
 
         for (Map.Entry<Class<?>, Function<Object, Resource>> aEntry : mIdFunctions.entrySet()) {
@@ -912,7 +2664,7 @@ public final class RDFMapper {
                     "to the mapper.", theT));
         } else {
             if (aId == null) {
-                aId = mValueFactory.createIRI(mDefaultNamespace + Hashing.md5().newHasher()
+                aId = mIRIs.get(mDefaultNamespace + Hashing.md5().newHasher()
                         .putString(theT.toString(), Charsets.UTF_8)
                         .hash().toString());
             }
@@ -941,9 +2693,19 @@ public final class RDFMapper {
         private final Options mOptions = Options.combine(MappingOptions.DEFAULTS);
         private final Map<String, String> mNamespaces = Maps.newHashMap();
         private final Map<Class<?>, RDFCodec<?>> mCodecs = Maps.newHashMap();
+
+        private final Map<Class<?>, FetchPlan> mFetchPlans = Maps.newHashMap();
         private ValueFactory mValueFactory = SimpleValueFactory.getInstance();
         private CollectionFactory mCollectionFactory = new DefaultCollectionFactory();
         private MapFactory mMapFactory = new DefaultMapFactory();
+        private final List<MappingListener> mListeners = Lists.newArrayList();
+        private final Set<Class<?>> mPrecompiled = Sets.newLinkedHashSet();
+        private boolean mPrecompile = false;
+        private int mWarmUp = 0;
+        private Path mPlanCache;
+        private final List<MapperMetrics> mMetrics = Lists.newArrayList();
+        private Executor mExecutor;
+        private int mConcurrency = Runtime.getRuntime().availableProcessors();
 
         public Builder() {
             mNamespaces.put("", DEFAULT_NAMESPACE);
@@ -1084,14 +2846,217 @@ public final class RDFMapper {
             return this;
         }
 
+        /**
+         * Set the fetch plan of the objects of the class which are read without one, so that reading them only follows
+         * their references as far as the plan goes.  The plan applies to the objects of the class which are read, not
+         * to those nested in the objects of other classes.
+         *
+         * @param theClass     the class
+         * @param theFetchPlan the fetch plan
+         * @return this object
+         */
+        public Builder fetchPlan(final Class<?> theClass, final FetchPlan theFetchPlan) {
+            mFetchPlans.put(Preconditions.checkNotNull(theClass), Preconditions.checkNotNull(theFetchPlan));
+            return this;
+        }
+
+        /**
+         * Add a listener which will be notified of the reads, writes, property conversions and codec calls made by the
+         * mapper.  Listeners are called in the order they are added.
+         *
+         * @param theListener the listener
+         * @return this builder
+         */
+        public Builder listener(final MappingListener theListener) {
+            mListeners.add(Preconditions.checkNotNull(theListener));
+            return this;
+        }
+
+        /**
+         * Collect {@link MapperMetrics metrics} for the mapper, including the hit rates of its caches
+         *
+         * @param theMetrics the metrics
+         * @return this builder
+         */
+        public Builder metrics(final MapperMetrics theMetrics) {
+            mMetrics.add(theMetrics);
+            return listener(theMetrics);
+        }
+
+        /**
+         * Compile the mapping plans of every class {@link #map(IRI, Class) mapped} to an {@code rdf:type}, the given
+         * classes, and the beans and enums reachable from their properties when the mapper is built, rather than on
+         * first use.  The IRIs in their annotations are validated at the same time, so unless
+         * {@link MappingOptions#IGNORE_INVALID_ANNOTATIONS invalid annotations are ignored}, {@link #build()} fails
+         * with an {@link RDFMappingException} for an invalid IRI.
+         *
+         * @param theClasses additional classes to compile, beyond those which are mapped
+         * @return this builder
+         */
+        public Builder precompile(final Class<?>... theClasses) {
+            mPrecompile = true;
+            mPrecompiled.addAll(Arrays.asList(theClasses));
+            return this;
+        }
+
+        /**
+         * {@link #precompile(Class[]) Precompile} the mapper, then write and read back a synthetic instance of each of
+         * the compiled classes which can be created, the given number of times, so the mapper is warm before it is
+         * first used.  Warm-up passes are not seen by the {@link #listener(MappingListener) listeners} and a class
+         * which fails to warm up is skipped.
+         *
+         * @param theIterations the number of passes over the compiled classes
+         * @return this builder
+         */
+        public Builder warmUp(final int theIterations) {
+            Preconditions.checkArgument(theIterations >= 0, "iterations cannot be negative");
+
+            mPrecompile = true;
+            mWarmUp = theIterations;
+            return this;
+        }
+
+        /**
+         * Specify the executor used by the asynchronous methods of the mapper, such as
+         * {@link RDFMapper#readValueAsync(Model, Class, Resource)}.  By default, they run on virtual threads when the
+         * runtime supports them, and otherwise on a pool of daemon threads, either way limited to the
+         * {@link #concurrency(int) concurrency} of the mapper.
+         *
+         * @param theExecutor the executor
+         * @return this builder
+         */
+        public Builder executor(final Executor theExecutor) {
+            mExecutor = Preconditions.checkNotNull(theExecutor);
+            return this;
+        }
+
+        /**
+         * Specify the maximum number of asynchronous calls which map at once on the default executor.  Defaults to the
+         * number of processors.  Has no effect when an {@link #executor(Executor) executor} is provided.
+         *
+         * @param theConcurrency the limit
+         * @return this builder
+         */
+        public Builder concurrency(final int theConcurrency) {
+            Preconditions.checkArgument(theConcurrency > 0, "concurrency must be positive");
+
+            mConcurrency = theConcurrency;
+            return this;
+        }
+
+        /**
+         * Keep the compiled mapping plans in the given file, so that a mapper created in a later JVM loads them rather
+         * than scanning the annotations of the classes again.  The plans of classes which have changed since the file
+         * was written, and all the plans if the namespaces, mappings or options of the mapper are different, are
+         * compiled again.  The file is written when the mapper is built, if it is {@link #precompile(Class[])
+         * precompiled}, and by {@link RDFMapper#savePlanCache()}.
+         *
+         * @param theFile the cache file, created if it does not exist
+         * @return this builder
+         */
+        public Builder planCache(final Path theFile) {
+            mPlanCache = Preconditions.checkNotNull(theFile);
+            return this;
+        }
+
         /**
          * Create the mapper
          *
          * @return the new mapper
+         * @throws RDFMappingException if {@link #precompile(Class[]) precompiling} found an invalid annotation
          */
         public RDFMapper build() {
-            return new RDFMapper(mMappings, mIdFunctions, mValueFactory, mNamespaces, mCollectionFactory,
-                    mMapFactory, mCodecs, mOptions);
+            final Integer aIRICacheSize = mOptions.get(MappingOptions.IRI_CACHE_SIZE);
+            final IRICache aIRIs = new IRICache(mValueFactory, aIRICacheSize == null
+                                                               ? MappingOptions.IRI_CACHE_SIZE.getDefaultValue()
+                                                               : aIRICacheSize);
+
+            final Integer aLiteralCacheSize = mOptions.get(MappingOptions.LITERAL_CACHE_SIZE);
+            final LiteralCache aLiterals = new LiteralCache(mValueFactory, aLiteralCacheSize == null
+                                                                           ? MappingOptions.LITERAL_CACHE_SIZE.getDefaultValue()
+                                                                           : aLiteralCacheSize);
+
+            final InternPolicy aInternPolicy = mOptions.get(MappingOptions.INTERN_POLICY);
+            final Integer aInternLimit = mOptions.get(MappingOptions.INTERN_LIMIT);
+            final ValueInterner aInterner = aInternPolicy == null || aInternPolicy.isNone()
+                                            ? null
+                                            : new ValueInterner(aInternPolicy, aInternLimit == null
+                                                                               ? MappingOptions.INTERN_LIMIT.getDefaultValue()
+                                                                               : aInternLimit);
+
+            final PlanCache aPlanCache = mPlanCache == null
+                                         ? null
+                                         : PlanCache.open(mPlanCache, fingerprint(), aIRIs);
+
+            final Long aInterval = mOptions.get(MappingOptions.DIAGNOSTICS_INTERVAL);
+            final Diagnostics aDiagnostics = new Diagnostics(LOGGER,
+                                                             aInterval == null
+                                                             ? MappingOptions.DIAGNOSTICS_INTERVAL.getDefaultValue()
+                                                             : aInterval,
+                                                             TimeUnit.MILLISECONDS);
+
+            final InstantiatorCache aInstantiators = new InstantiatorCache(!mMetrics.isEmpty());
+
+            for (MapperMetrics aMetrics : mMetrics) {
+                aMetrics.track(aInstantiators.stats());
+                aMetrics.track(aIRIs.stats());
+                aMetrics.track(aLiterals.stats());
+
+                if (aInterner != null) {
+                    aMetrics.track(aInterner.stats());
+                }
+
+                if (aPlanCache != null) {
+                    aMetrics.track(aPlanCache.stats());
+                }
+            }
+
+            final RDFMapper aMapper = new RDFMapper(mMappings, mIdFunctions, mValueFactory, mNamespaces,
+                                                    mCollectionFactory, mMapFactory, mCodecs, mOptions, mFetchPlans,
+                                                    MappingListeners.of(mListeners), new ConcurrentHashMap<>(),
+                                                    aPlanCache, aIRIs, aLiterals, aInstantiators, aInterner,
+                                                    mExecutor != null ? mExecutor : MappingExecutor.create(mConcurrency),
+                                                    aDiagnostics, null);
+
+            if (mPrecompile) {
+                final List<Class<?>> aRoots = Lists.newArrayList();
+
+                for (Class<?> aClass : mMappings.values()) {
+                    aRoots.add(aClass);
+                }
+
+                aRoots.addAll(mPrecompiled);
+
+                final Set<Class<?>> aClasses = aMapper.precompile(aRoots);
+
+                if (mWarmUp > 0) {
+                    aMapper.warmUp(aClasses, mWarmUp);
+                }
+
+                aMapper.savePlanCache();
+            }
+
+            return aMapper;
+        }
+
+        /**
+         * Return a hash of everything about the configuration of the mapper which its plans depend on
+         */
+        private String fingerprint() {
+            final StringBuilder aConfig = new StringBuilder();
+
+            new TreeMap<>(mNamespaces).forEach((thePrefix, theNamespace) -> aConfig.append(thePrefix).append('=')
+                                                                                  .append(theNamespace).append('\n'));
+
+            mMappings.entrySet().stream()
+                     .map(theEntry -> theEntry.getKey().stringValue() + '=' + theEntry.getValue().getName())
+                     .sorted()
+                     .forEach(theMapping -> aConfig.append(theMapping).append('\n'));
+
+            aConfig.append(mOptions.is(MappingOptions.SERIALIZE_COLLECTIONS_AS_LISTS))
+                   .append(mOptions.is(MappingOptions.IGNORE_INVALID_ANNOTATIONS));
+
+            return Hashing.sha256().hashString(aConfig, Charsets.UTF_8).toString();
         }
     }
 
@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.common.openrdf.model.Models2;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.openrdf.model.BNode;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.rio.RDFHandler;
+import org.openrdf.rio.helpers.AbstractRDFHandler;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * <p>Reads objects from statements which are grouped by subject, such as a sorted N-Triples dump, without ever holding
+ * more than a few groups in memory.  Each group whose subject is an instance of the class, i.e. has its
+ * {@code rdf:type}, or if the class has no type, whose subject is an IRI, is the root of an object.  The object is read
+ * as soon as its group, and the groups of the blank nodes it refers to, have ended.</p>
+ *
+ * <p>The groups of blank nodes which are not yet referred to, and the roots still waiting for the groups of the blank
+ * nodes they refer to, are kept in a look-aside buffer of a bounded number of statements; when the buffer is full, the
+ * input is not grouped closely enough to be read in bounded memory and {@link RDFMappingException} is thrown.  Groups
+ * of other named resources are not part of any object, so the objects a root refers to by IRI are read as if they had
+ * no statements; the groups of the blank nodes those resources refer to are dropped, whether they come before or after
+ * them, so input with subjects of other types does not fill the buffer.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class SubjectGroupReader<T> {
+    private final RDFMapper mMapper;
+    private final Class<T> mClass;
+
+    /**
+     * The type of the roots, or null if every IRI subject is a root
+     */
+    private final IRI mType;
+
+    private final int mLimit;
+
+    /**
+     * The subject & statements of the current group
+     */
+    private Resource mSubject;
+    private final List<Statement> mGroup = Lists.newArrayList();
+
+    /**
+     * The groups of the blank nodes which no root has referred to yet
+     */
+    private final Map<BNode, List<Statement>> mBuffer = Maps.newLinkedHashMap();
+
+    /**
+     * The roots which are waiting for the groups of blank nodes, in the order they were read
+     */
+    private final List<Root> mPending = Lists.newLinkedList();
+
+    /**
+     * The root waiting for the group of each blank node
+     */
+    private final Map<BNode, Root> mWaiting = Maps.newHashMap();
+
+    /**
+     * The blank nodes referred to by the groups which are not part of any object, whose groups have not been seen yet
+     */
+    private final Set<BNode> mDropped = Sets.newHashSet();
+
+    /**
+     * The number of statements in the buffer and the pending roots, and of the blank nodes waiting to be dropped
+     */
+    private int mBuffered = 0;
+
+    /**
+     * The objects which have been read, but not yet handed out
+     */
+    private final Deque<T> mReady = new ArrayDeque<>();
+
+    SubjectGroupReader(final RDFMapper theMapper, final Class<T> theClass, final IRI theType, final int theLimit) {
+        mMapper = theMapper;
+        mClass = theClass;
+        mType = theType;
+        mLimit = theLimit;
+    }
+
+    /**
+     * Return an iterator over the objects read from the statements, which pulls statements only as objects are needed
+     */
+    Iterator<T> iterator(final Iterator<? extends Statement> theStatements) {
+        return new Iterator<T>() {
+            private boolean mFinished = false;
+
+            @Override
+            public boolean hasNext() {
+                while (mReady.isEmpty() && !mFinished) {
+                    if (theStatements.hasNext()) {
+                        accept(theStatements.next());
+                    }
+                    else {
+                        finish();
+                        mFinished = true;
+                    }
+                }
+
+                return !mReady.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return mReady.poll();
+            }
+        };
+    }
+
+    /**
+     * Return a handler for a parser which passes each object to the consumer as soon as it has been read
+     */
+    RDFHandler handler(final Consumer<? super T> theConsumer) {
+        return new AbstractRDFHandler() {
+            @Override
+            public void handleStatement(final Statement theStatement) {
+                accept(theStatement);
+                drain(theConsumer);
+            }
+
+            @Override
+            public void endRDF() {
+                finish();
+                drain(theConsumer);
+            }
+        };
+    }
+
+    private void drain(final Consumer<? super T> theConsumer) {
+        while (!mReady.isEmpty()) {
+            theConsumer.accept(mReady.poll());
+        }
+    }
+
+    private void accept(final Statement theStatement) {
+        if (!theStatement.getSubject().equals(mSubject)) {
+            endGroup();
+            mSubject = theStatement.getSubject();
+        }
+
+        mGroup.add(theStatement);
+    }
+
+    /**
+     * Read what is left at the end of the input; roots still waiting for blank nodes are read without them, since
+     * their groups never appeared
+     */
+    private void finish() {
+        endGroup();
+
+        for (Root aRoot : mPending) {
+            read(aRoot);
+        }
+
+        mPending.clear();
+        mWaiting.clear();
+        mBuffer.clear();
+        mDropped.clear();
+        mBuffered = 0;
+    }
+
+    private void endGroup() {
+        if (mSubject == null) {
+            return;
+        }
+
+        final Resource aSubject = mSubject;
+        final List<Statement> aGroup = Lists.newArrayList(mGroup);
+
+        mSubject = null;
+        mGroup.clear();
+
+        final Root aWaiting = mWaiting.remove(aSubject);
+
+        if (aWaiting != null) {
+            aWaiting.mMissing.remove(aSubject);
+            add(aWaiting, aGroup);
+        }
+        else if (isRoot(aSubject, aGroup)) {
+            final Root aRoot = new Root(aSubject);
+
+            mPending.add(aRoot);
+            add(aRoot, aGroup);
+        }
+        else if (aSubject instanceof BNode && mDropped.remove(aSubject)) {
+            mBuffered--;
+            drop(aGroup);
+        }
+        else if (aSubject instanceof BNode) {
+            mBuffer.computeIfAbsent((BNode) aSubject, theNode -> Lists.newArrayList()).addAll(aGroup);
+            mBuffered += aGroup.size();
+        }
+        else {
+            // a named resource which is not a root, neither it nor its blank nodes are part of an object
+            drop(aGroup);
+        }
+
+        final Iterator<Root> aIter = mPending.iterator();
+
+        while (aIter.hasNext()) {
+            final Root aRoot = aIter.next();
+
+            if (aRoot.mMissing.isEmpty()) {
+                aIter.remove();
+                mBuffered -= aRoot.mModel.size();
+                read(aRoot);
+            }
+        }
+
+        if (mBuffered > mLimit) {
+            throw new RDFMappingException(String.format("More than %d statements are buffered waiting for the blank " +
+                                                        "nodes they refer to, or to be referred to.  The statements " +
+                                                        "must be grouped by subject, with the groups of blank nodes " +
+                                                        "close to the statements which refer to them", mLimit));
+        }
+    }
+
+    /**
+     * Drop the groups of the blank nodes the statements refer to, and of the blank nodes they refer to in turn; those
+     * which have not been seen yet are dropped when they are
+     */
+    private void drop(final List<Statement> theStatements) {
+        final Deque<Statement> aQueue = new ArrayDeque<>(theStatements);
+
+        while (!aQueue.isEmpty()) {
+            final Statement aStmt = aQueue.pop();
+
+            if (!(aStmt.getObject() instanceof BNode) || mWaiting.containsKey(aStmt.getObject())) {
+                continue;
+            }
+
+            final BNode aNode = (BNode) aStmt.getObject();
+            final List<Statement> aBuffered = mBuffer.remove(aNode);
+
+            if (aBuffered != null) {
+                mBuffered -= aBuffered.size();
+                aQueue.addAll(aBuffered);
+            }
+            else if (mDropped.add(aNode)) {
+                mBuffered++;
+            }
+        }
+    }
+
+    /**
+     * Read the object of the root, unless the mapper skips it
+     */
+    private void read(final Root theRoot) {
+        final T aObj = mMapper.readOrSkip(theRoot.mModel, mClass, theRoot.mSubject);
+
+        if (aObj != null) {
+            mReady.add(aObj);
+        }
+    }
+
+    private boolean isRoot(final Resource theSubject, final List<Statement> theGroup) {
+        if (mType == null) {
+            return !(theSubject instanceof BNode);
+        }
+
+        for (Statement aStmt : theGroup) {
+            if (aStmt.getPredicate().equals(RDF.TYPE) && aStmt.getObject().equals(mType)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Add the statements to the description of the root, along with the buffered groups of the blank nodes they refer
+     * to; the blank nodes which have not been seen yet are waited for
+     */
+    private void add(final Root theRoot, final List<Statement> theStatements) {
+        final Deque<Statement> aQueue = new ArrayDeque<>(theStatements);
+
+        while (!aQueue.isEmpty()) {
+            final Statement aStmt = aQueue.pop();
+
+            if (theRoot.mModel.add(aStmt)) {
+                mBuffered++;
+            }
+
+            if (aStmt.getObject() instanceof BNode && theRoot.mNodes.add((BNode) aStmt.getObject())) {
+                final BNode aNode = (BNode) aStmt.getObject();
+                final List<Statement> aBuffered = mBuffer.remove(aNode);
+
+                if (aBuffered != null) {
+                    mBuffered -= aBuffered.size();
+                    aQueue.addAll(aBuffered);
+                }
+                else {
+                    // a blank node shared with a resource which is not a root, the root takes its group
+                    if (mDropped.remove(aNode)) {
+                        mBuffered--;
+                    }
+
+                    theRoot.mMissing.add(aNode);
+                    mWaiting.put(aNode, theRoot);
+                }
+            }
+        }
+    }
+
+    private static final class Root {
+        private final Resource mSubject;
+        private final Model mModel = Models2.newModel();
+
+        /**
+         * The blank nodes the description refers to
+         */
+        private final Set<BNode> mNodes = Sets.newHashSet();
+
+        /**
+         * The blank nodes whose groups have not been seen yet
+         */
+        private final Set<BNode> mMissing = Sets.newHashSet();
+
+        private Root(final Resource theSubject) {
+            mSubject = theSubject;
+
+            if (theSubject instanceof BNode) {
+                mNodes.add((BNode) theSubject);
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.common.openrdf.model.Models2;
+import com.google.common.collect.Iterators;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Model;
+import org.openrdf.model.Namespace;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.AbstractModel;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>A graph indexed by subject which many threads can add statements to at once, used to collect the statements
+ * parsed from the chunks of a file in parallel.  Once it's been filled, it's read as a {@link Model}; the model cannot
+ * be modified.  Lookups by subject use the index, and every other pattern is a scan.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class SubjectIndex extends AbstractModel {
+    private static final long serialVersionUID = 1L;
+
+    private final ConcurrentMap<Resource, Set<Statement>> mIndex = new ConcurrentHashMap<>();
+
+    /**
+     * The resources which are the object of a statement
+     */
+    private final Set<Resource> mObjects = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger mSize = new AtomicInteger();
+
+    /**
+     * Add the statement to the index, this is safe to call from many threads at once
+     */
+    void index(final Statement theStatement) {
+        if (mIndex.computeIfAbsent(theStatement.getSubject(), theSubject -> ConcurrentHashMap.newKeySet())
+                  .add(theStatement)) {
+            mSize.incrementAndGet();
+
+            if (theStatement.getObject() instanceof Resource) {
+                mObjects.add((Resource) theStatement.getObject());
+            }
+        }
+    }
+
+    /**
+     * Return the subjects which are not the object of any statement
+     */
+    Set<Resource> roots() {
+        final Set<Resource> aRoots = ConcurrentHashMap.newKeySet();
+
+        mIndex.keySet().parallelStream()
+              .filter(theSubject -> !mObjects.contains(theSubject))
+              .forEach(aRoots::add);
+
+        return aRoots;
+    }
+
+    @Override
+    public Set<Resource> subjects() {
+        return Collections.unmodifiableSet(mIndex.keySet());
+    }
+
+    @Override
+    public Iterator<Statement> iterator() {
+        return Iterators.unmodifiableIterator(Iterators.concat(mIndex.values().stream()
+                                                                     .map(Collection::iterator)
+                                                                     .iterator()));
+    }
+
+    @Override
+    public int size() {
+        return mSize.get();
+    }
+
+    @Override
+    public boolean contains(final Resource theSubject, final IRI thePredicate, final Value theObject,
+                           final Resource... theContexts) {
+        for (Statement aStmt : candidates(theSubject)) {
+            if (matches(aStmt, thePredicate, theObject, theContexts)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public Model filter(final Resource theSubject, final IRI thePredicate, final Value theObject,
+                        final Resource... theContexts) {
+        final Model aModel = Models2.newModel();
+
+        for (Statement aStmt : candidates(theSubject)) {
+            if (matches(aStmt, thePredicate, theObject, theContexts)) {
+                aModel.add(aStmt);
+            }
+        }
+
+        return aModel;
+    }
+
+    private Iterable<Statement> candidates(final Resource theSubject) {
+        if (theSubject == null) {
+            return this;
+        }
+
+        return mIndex.getOrDefault(theSubject, Collections.emptySet());
+    }
+
+    private static boolean matches(final Statement theStmt, final IRI thePredicate, final Value theObject,
+                                   final Resource... theContexts) {
+        return (thePredicate == null || thePredicate.equals(theStmt.getPredicate()))
+               && (theObject == null || theObject.equals(theStmt.getObject()))
+               && (theContexts.length == 0 || Arrays.asList(theContexts).contains(theStmt.getContext()));
+    }
+
+    @Override
+    public Set<Namespace> getNamespaces() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public boolean add(final Resource theSubject, final IRI thePredicate, final Value theObject,
+                       final Resource... theContexts) {
+        throw new UnsupportedOperationException("The parsed graph is read-only");
+    }
+
+    @Override
+    public boolean remove(final Resource theSubject, final IRI thePredicate, final Value theObject,
+                          final Resource... theContexts) {
+        throw new UnsupportedOperationException("The parsed graph is read-only");
+    }
+
+    @Override
+    public void removeTermIteration(final Iterator<Statement> theIter, final Resource theSubject,
+                                    final IRI thePredicate, final Value theObject, final Resource... theContexts) {
+        throw new UnsupportedOperationException("The parsed graph is read-only");
+    }
+
+    @Override
+    public void setNamespace(final Namespace theNamespace) {
+        throw new UnsupportedOperationException("The parsed graph is read-only");
+    }
+
+    @Override
+    public Optional<Namespace> removeNamespace(final String thePrefix) {
+        throw new UnsupportedOperationException("The parsed graph is read-only");
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.pinto.metrics.CacheStats;
+import org.openrdf.model.IRI;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Interns the values read from literals according to an {@link InternPolicy}, so that equal values share one
+ * instance.  At most a bounded number of values are interned; once the limit is reached, values which are already
+ * interned are still shared, and new ones are returned as they are.  Since the values the policy is meant for have few
+ * distinct values, they are interned early, before anything which fills the interner.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class ValueInterner {
+    private final InternPolicy mPolicy;
+    private final int mLimit;
+
+    private final ConcurrentMap<Object, Object> mValues = new ConcurrentHashMap<>();
+    private final AtomicInteger mSize = new AtomicInteger();
+
+    private final CacheStats mStats = new CacheStats("literals");
+
+    ValueInterner(final InternPolicy thePolicy, final int theLimit) {
+        mPolicy = thePolicy;
+        mLimit = theLimit;
+    }
+
+    /**
+     * Return the interned instance of the value read for the property, or the value itself if the policy does not
+     * intern it
+     *
+     * @param theValue      the value
+     * @param theProperty   the name of the property the value was read for, or null if it is not for a property
+     * @param theDatatype   the datatype of the literal the value was read from
+     * @return              the value to use
+     */
+    Object intern(final Object theValue, final String theProperty, final IRI theDatatype) {
+        if (!isImmutable(theValue) || !mPolicy.interns(theProperty, theDatatype)) {
+            return theValue;
+        }
+
+        mStats.lookup();
+
+        final Object aInterned = mValues.get(theValue);
+
+        if (aInterned != null) {
+            return aInterned;
+        }
+
+        mStats.miss();
+
+        // reserve a place before adding the value, so the limit holds when many threads add at once
+        if (mSize.incrementAndGet() > mLimit) {
+            mSize.decrementAndGet();
+            return theValue;
+        }
+
+        final Object aPrevious = mValues.putIfAbsent(theValue, theValue);
+
+        if (aPrevious != null) {
+            mSize.decrementAndGet();
+            return aPrevious;
+        }
+
+        return theValue;
+    }
+
+    private static boolean isImmutable(final Object theValue) {
+        return theValue instanceof String
+               || theValue instanceof Number
+               || theValue instanceof Boolean
+               || theValue instanceof Character
+               || theValue instanceof URI;
+    }
+
+    CacheStats stats() {
+        return mStats;
+    }
+}
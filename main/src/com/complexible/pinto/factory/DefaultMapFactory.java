@@ -1,28 +1,24 @@
 package com.complexible.pinto.factory;
 
-import com.complexible.pinto.factory.MapFactory;
-import com.google.common.collect.Maps;
-
 import java.beans.PropertyDescriptor;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
-import static com.complexible.common.io.MMapUtil.LOGGER;
-
-
+/**
+ * <p>Default implementation of a {@link MapFactory}.  Uses the public default constructor of the property type, and
+ * falls back to a {@link java.util.TreeMap} for a {@code SortedMap} and a {@link LinkedHashMap} otherwise.  Which of
+ * these is used is decided once per property type and cached.</p>
+ *
+ * @author Michael Grove
+ * @version 1.0
+ * @since 1.0
+ */
 public  class DefaultMapFactory implements MapFactory {
+    /**
+     * {@inheritDoc}
+     */
     @Override
     public Map create(final PropertyDescriptor theDescriptor) {
-        final Class<?> aType = theDescriptor.getPropertyType();
-
-        try {
-            // try creating a new instance.  this will work if they've specified a concrete type *and* it has a
-            // default constructor, which is true of all the core maps.
-            return (Map) aType.newInstance();
-        } catch (Throwable e) {
-            LOGGER.warn("{} uses a map type, but it cannot be instantiated, using a default LinkedHashMap", theDescriptor);
-        }
-
-        return Maps.newLinkedHashMap();
+        return Instantiators.map(theDescriptor.getPropertyType()).get();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.factory;
+
+import com.complexible.common.reflect.Classes;
+import com.complexible.pinto.RDFMappingException;
+import com.google.common.collect.ImmutableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * <p>Resolves, once per type, the {@link Supplier} used by the default factories to create collections and maps.
+ * Resolution happens the first time a type is seen and the result is cached for the life of the class, so the
+ * per-read cost is a single lookup rather than a reflective call which may throw.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class Instantiators {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Instantiators.class);
+
+    /**
+     * Suppliers for the core JDK types, these skip reflection entirely
+     */
+    private static final ImmutableMap<Class<?>, Supplier<?>> KNOWN = ImmutableMap.<Class<?>, Supplier<?>>builder()
+            .put(ArrayList.class, ArrayList::new)
+            .put(LinkedList.class, LinkedList::new)
+            .put(HashSet.class, HashSet::new)
+            .put(LinkedHashSet.class, LinkedHashSet::new)
+            .put(TreeSet.class, TreeSet::new)
+            .put(ArrayDeque.class, ArrayDeque::new)
+            .put(HashMap.class, HashMap::new)
+            .put(LinkedHashMap.class, LinkedHashMap::new)
+            .put(TreeMap.class, TreeMap::new)
+            .build();
+
+    private static final ClassValue<Supplier<Collection>> COLLECTIONS = new ClassValue<Supplier<Collection>>() {
+        @Override
+        protected Supplier<Collection> computeValue(final Class<?> theType) {
+            return resolveCollection(theType);
+        }
+    };
+
+    private static final ClassValue<Supplier<Map>> MAPS = new ClassValue<Supplier<Map>>() {
+        @Override
+        protected Supplier<Map> computeValue(final Class<?> theType) {
+            return resolveMap(theType);
+        }
+    };
+
+    /**
+     * No instances
+     */
+    private Instantiators() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Return the cached supplier of {@link Collection collections} for the given property type
+     *
+     * @param theType   the declared type of the property
+     * @return          the supplier
+     */
+    static Supplier<Collection> collection(final Class<?> theType) {
+        return COLLECTIONS.get(theType);
+    }
+
+    /**
+     * Return the cached supplier of {@link Map maps} for the given property type
+     *
+     * @param theType   the declared type of the property
+     * @return          the supplier
+     */
+    static Supplier<Map> map(final Class<?> theType) {
+        return MAPS.get(theType);
+    }
+
+    private static Supplier<Collection> resolveCollection(final Class<?> theType) {
+        // a concrete type *with* a default constructor, which is true of all the core collections.
+        final Supplier<Collection> aSupplier = constructor(theType, Collection.class);
+
+        if (aSupplier != null) {
+            return aSupplier;
+        }
+        else if (List.class.isAssignableFrom(theType)) {
+            return ArrayList::new;
+        }
+        else if (Set.class.isAssignableFrom(theType)) {
+            if (SortedSet.class.isAssignableFrom(theType)) {
+                return TreeSet::new;
+            }
+            else {
+                return LinkedHashSet::new;
+            }
+        }
+        else if (Collection.class.equals(theType)) {
+            return LinkedHashSet::new;
+        }
+        else {
+            // what else could there be?
+            return () -> {
+                throw new RuntimeException("Unknown or unsupported collection type for a field: " + theType);
+            };
+        }
+    }
+
+    private static Supplier<Map> resolveMap(final Class<?> theType) {
+        final Supplier<Map> aSupplier = constructor(theType, Map.class);
+
+        if (aSupplier != null) {
+            return aSupplier;
+        }
+
+        if (SortedMap.class.isAssignableFrom(theType)) {
+            return TreeMap::new;
+        }
+
+        if (!Map.class.equals(theType)) {
+            LOGGER.warn("{} is a map type which cannot be instantiated, using a default LinkedHashMap", theType);
+        }
+
+        return LinkedHashMap::new;
+    }
+
+    /**
+     * Return a supplier which invokes the public no-arg constructor of the type, or null if the type is not
+     * instantiable, or not a subtype of the base type.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Supplier<T> constructor(final Class<?> theType, final Class<T> theBase) {
+        if (!theBase.isAssignableFrom(theType)) {
+            return null;
+        }
+
+        final Supplier<?> aKnown = KNOWN.get(theType);
+        if (aKnown != null) {
+            return (Supplier<T>) aKnown;
+        }
+
+        if (!Classes.isInstantiable(theType)
+            || !Modifier.isPublic(theType.getModifiers())
+            || !Classes.hasDefaultConstructor(theType)) {
+            return null;
+        }
+
+        final Constructor<?> aConstructor;
+        try {
+            aConstructor = theType.getConstructor();
+        }
+        catch (NoSuchMethodException e) {
+            // we just checked that it's there
+            throw new AssertionError(e);
+        }
+
+        return () -> {
+            try {
+                return theBase.cast(aConstructor.newInstance());
+            }
+            catch (InvocationTargetException e) {
+                throw new RDFMappingException("Exception thrown by the constructor of " + theType, e.getCause());
+            }
+            catch (InstantiationException | IllegalAccessException e) {
+                throw new RDFMappingException("Could not create an instance of " + theType, e);
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <p>A call to an {@link com.complexible.pinto.RDFCodec} to read or write a value.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+@Name("com.complexible.pinto.Codec")
+@Label("Codec Invocation")
+@Category({ "Pinto", "Mapping" })
+@Description("A call to an RDFCodec to read or write a value")
+@Enabled(false)
+@StackTrace(false)
+public final class CodecEvent extends Event {
+	@Label("Type")
+	Class<?> type;
+
+	@Label("Codec Class")
+	Class<?> codecClass;
+
+	@Label("Operation")
+	String operation;
+}
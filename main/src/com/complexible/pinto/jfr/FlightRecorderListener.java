@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.jfr;
+
+import com.complexible.pinto.MappingListener;
+import com.complexible.pinto.RDFCodec;
+import jdk.jfr.Event;
+import org.openrdf.model.Literal;
+import org.openrdf.model.Resource;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * <p>A {@link MappingListener} which emits Java Flight Recorder events for the work done by a mapper, so mapper
+ * latency can be correlated with GC, allocation and the rest of a recording.</p>
+ *
+ * <pre>
+ *     RDFMapper aMapper = RDFMapper.builder().listener(new FlightRecorderListener()).build();
+ * </pre>
+ *
+ * <p>The events are {@link ReadEvent}, {@link MaterializeEvent} for the objects read as property values,
+ * {@link WriteEvent}, {@link CodecEvent}, {@link LiteralConversionFailureEvent} and
+ * {@link CardinalityViolationEvent}.  Each is under the {@code Pinto} category and is off unless enabled in the
+ * recording settings, e.g. {@code com.complexible.pinto.Read#enabled=true}.  An event which is not enabled is
+ * neither timed nor populated.</p>
+ *
+ * <p>Requires a JVM with JFR, which is JDK 8u262 or later.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class FlightRecorderListener implements MappingListener {
+
+	/**
+	 * Placeholder for an event which is not enabled, so the begin and end callbacks stay paired
+	 */
+	private static final Event DISABLED = new CodecEvent();
+
+	/**
+	 * The in-progress events of the current thread; mapping calls nest, so the end callback is always for the event
+	 * at the top of the stack
+	 */
+	private static final ThreadLocal<Frames> FRAMES = ThreadLocal.withInitial(Frames::new);
+
+	@Override
+	public void beginRead(final Class<?> theClass, final Resource theSubject) {
+		final Frames aFrames = FRAMES.get();
+
+		// isEnabled() is intrinsic, and when it is false escape analysis usually elides the allocation of the event
+		final Event aEvent = aFrames.mReads++ == 0 ? new ReadEvent() : new MaterializeEvent();
+
+		aFrames.begin(aEvent);
+	}
+
+	@Override
+	public void endRead(final Class<?> theClass, final Resource theSubject, final long theStatements,
+	                    final long theElapsedNanos) {
+		final Frames aFrames = FRAMES.get();
+		final Event aEvent = aFrames.mEvents.pop();
+
+		aFrames.mReads--;
+
+		if (aEvent == DISABLED) {
+			return;
+		}
+
+		aEvent.end();
+
+		if (!aEvent.shouldCommit()) {
+			return;
+		}
+
+		if (aEvent instanceof ReadEvent) {
+			final ReadEvent aRead = (ReadEvent) aEvent;
+
+			aRead.beanClass = theClass;
+			aRead.subject = String.valueOf(theSubject);
+			aRead.statements = theStatements;
+		}
+		else {
+			final MaterializeEvent aMaterialize = (MaterializeEvent) aEvent;
+
+			aMaterialize.beanClass = theClass;
+			aMaterialize.subject = String.valueOf(theSubject);
+			aMaterialize.statements = theStatements;
+			aMaterialize.depth = aFrames.mReads;
+		}
+
+		aEvent.commit();
+	}
+
+	@Override
+	public void beginWrite(final Class<?> theClass) {
+		final Frames aFrames = FRAMES.get();
+
+		aFrames.mWrites++;
+		aFrames.begin(new WriteEvent());
+	}
+
+	@Override
+	public void endWrite(final Class<?> theClass, final Resource theSubject, final long theStatements,
+	                     final long theElapsedNanos) {
+		final Frames aFrames = FRAMES.get();
+		final Event aEvent = aFrames.mEvents.pop();
+
+		aFrames.mWrites--;
+
+		if (aEvent == DISABLED) {
+			return;
+		}
+
+		aEvent.end();
+
+		if (aEvent.shouldCommit()) {
+			final WriteEvent aWrite = (WriteEvent) aEvent;
+
+			aWrite.beanClass = theClass;
+			aWrite.subject = String.valueOf(theSubject);
+			aWrite.statements = theStatements;
+			aWrite.nested = aFrames.mWrites > 0;
+
+			aWrite.commit();
+		}
+	}
+
+	@Override
+	public void beginCodec(final Operation theOperation, final Class<?> theType, final RDFCodec<?> theCodec) {
+		FRAMES.get().begin(new CodecEvent());
+	}
+
+	@Override
+	public void endCodec(final Operation theOperation, final Class<?> theType, final RDFCodec<?> theCodec,
+	                     final long theElapsedNanos) {
+		final Event aEvent = FRAMES.get().mEvents.pop();
+
+		if (aEvent == DISABLED) {
+			return;
+		}
+
+		aEvent.end();
+
+		if (aEvent.shouldCommit()) {
+			final CodecEvent aCodec = (CodecEvent) aEvent;
+
+			aCodec.type = theType;
+			aCodec.codecClass = theCodec.getClass();
+			aCodec.operation = theOperation.name();
+
+			aCodec.commit();
+		}
+	}
+
+	@Override
+	public void literalConversionFailed(final Literal theLiteral, final Class<?> theType, final Exception theError) {
+		final LiteralConversionFailureEvent aEvent = new LiteralConversionFailureEvent();
+
+		if (aEvent.shouldCommit()) {
+			aEvent.literal = theLiteral.getLabel();
+			aEvent.datatype = theLiteral.getDatatype() == null ? null : theLiteral.getDatatype().stringValue();
+			aEvent.targetType = theType;
+			aEvent.error = String.valueOf(theError);
+
+			aEvent.commit();
+		}
+	}
+
+	@Override
+	public void cardinalityViolation(final Class<?> theClass, final String theProperty, final int theValues) {
+		final CardinalityViolationEvent aEvent = new CardinalityViolationEvent();
+
+		if (aEvent.shouldCommit()) {
+			aEvent.beanClass = theClass;
+			aEvent.property = theProperty;
+			aEvent.values = theValues;
+
+			aEvent.commit();
+		}
+	}
+
+	private static final class Frames {
+		private final Deque<Event> mEvents = new ArrayDeque<>();
+
+		private int mReads = 0;
+		private int mWrites = 0;
+
+		void begin(final Event theEvent) {
+			if (theEvent.isEnabled()) {
+				theEvent.begin();
+				mEvents.push(theEvent);
+			}
+			else {
+				mEvents.push(DISABLED);
+			}
+		}
+	}
+}
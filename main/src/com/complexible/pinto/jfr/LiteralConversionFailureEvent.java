@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <p>A literal which could not be converted into a Java value.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+@Name("com.complexible.pinto.LiteralConversionFailure")
+@Label("Literal Conversion Failure")
+@Category({ "Pinto", "Mapping" })
+@Description("A literal which could not be converted into a Java value")
+@Enabled(false)
+@StackTrace(false)
+public final class LiteralConversionFailureEvent extends Event {
+	@Label("Literal")
+	String literal;
+
+	@Label("Datatype")
+	String datatype;
+
+	@Label("Target Type")
+	Class<?> targetType;
+
+	@Label("Error")
+	String error;
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <p>An object written as RDF, including nested objects.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+@Name("com.complexible.pinto.Write")
+@Label("Write Object")
+@Category({ "Pinto", "Mapping" })
+@Description("An object written as RDF, including nested objects")
+@Enabled(false)
+@StackTrace(false)
+public final class WriteEvent extends Event {
+	@Label("Bean Class")
+	Class<?> beanClass;
+
+	@Label("Subject")
+	String subject;
+
+	@Label("Statements")
+	@Description("The number of statements written for the object, including nested objects")
+	long statements;
+
+	@Label("Nested")
+	@Description("Whether the object is written as the value of a property of another object")
+	boolean nested;
+}
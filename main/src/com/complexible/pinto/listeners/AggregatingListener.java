@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.listeners;
+
+import com.complexible.pinto.MappingListener;
+import com.complexible.pinto.RDFCodec;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import org.openrdf.model.Resource;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * <p>A {@link MappingListener} which aggregates the time spent reading and writing each class, each property of a
+ * class, and in each codec, so the hot spots of a mapper can be found.  It is safe to share between threads and
+ * mappers.</p>
+ *
+ * <pre>
+ *     AggregatingListener aListener = new AggregatingListener();
+ *     RDFMapper aMapper = RDFMapper.builder().listener(aListener).build();
+ *
+ *     // ... use the mapper
+ *
+ *     System.out.println(aListener.report(10));
+ * </pre>
+ *
+ * <p>As the times of nested operations are included in the time of the operation that contains them, the time
+ * reading a class includes the time reading its properties, and in turn any objects they refer to.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class AggregatingListener implements MappingListener {
+
+	/**
+	 * The kinds of operations which are timed
+	 */
+	public enum Kind {
+		READ, WRITE, PROPERTY_READ, PROPERTY_WRITE, CODEC_READ, CODEC_WRITE
+	}
+
+	private final ConcurrentMap<Key, Stats> mStats = new ConcurrentHashMap<>();
+
+	@Override
+	public void endRead(final Class<?> theClass, final Resource theSubject, final long theStatements,
+	                    final long theElapsedNanos) {
+		stats(Kind.READ, theClass.getName()).add(theElapsedNanos, theStatements);
+	}
+
+	@Override
+	public void endWrite(final Class<?> theClass, final Resource theSubject, final long theStatements,
+	                     final long theElapsedNanos) {
+		stats(Kind.WRITE, theClass.getName()).add(theElapsedNanos, theStatements);
+	}
+
+	@Override
+	public void endProperty(final Operation theOperation, final Class<?> theClass, final String theProperty,
+	                        final long theElapsedNanos) {
+		stats(theOperation == Operation.READ ? Kind.PROPERTY_READ : Kind.PROPERTY_WRITE,
+		      theClass.getName() + "." + theProperty).add(theElapsedNanos, 0);
+	}
+
+	@Override
+	public void endCodec(final Operation theOperation, final Class<?> theType, final RDFCodec<?> theCodec,
+	                     final long theElapsedNanos) {
+		stats(theOperation == Operation.READ ? Kind.CODEC_READ : Kind.CODEC_WRITE,
+		      theType.getName()).add(theElapsedNanos, 0);
+	}
+
+	/**
+	 * Return the timings of all the operations seen so far, in no particular order
+	 *
+	 * @return the timings
+	 */
+	public List<Timing> timings() {
+		return ImmutableList.copyOf(mStats.entrySet().stream()
+		                                  .map(aEntry -> aEntry.getValue().timing(aEntry.getKey()))
+		                                  .collect(Collectors.toList()));
+	}
+
+	/**
+	 * Return the timings with the most total time
+	 *
+	 * @param theLimit  the maximum number of timings to return
+	 * @return          the timings, most expensive first
+	 */
+	public List<Timing> hotSpots(final int theLimit) {
+		return ImmutableList.copyOf(timings().stream()
+		                                     .sorted(Comparator.comparingLong(Timing::getTotalNanos).reversed())
+		                                     .limit(theLimit)
+		                                     .collect(Collectors.toList()));
+	}
+
+	/**
+	 * Return the timing of the given operation
+	 *
+	 * @param theKind   the kind of operation
+	 * @param theName   the class name, {@code Class.property} name for properties, or type name for codecs
+	 * @return          the timing, or null if the operation has not been seen
+	 */
+	public Timing timing(final Kind theKind, final String theName) {
+		final Key aKey = new Key(theKind, theName);
+		final Stats aStats = mStats.get(aKey);
+
+		return aStats == null ? null : aStats.timing(aKey);
+	}
+
+	/**
+	 * Clear all timings
+	 */
+	public void reset() {
+		mStats.clear();
+	}
+
+	/**
+	 * Return a printable table of the most expensive operations
+	 *
+	 * @param theLimit  the maximum number of operations to include
+	 * @return          the report
+	 */
+	public String report(final int theLimit) {
+		final StringBuilder aReport = new StringBuilder();
+
+		aReport.append(String.format("%-15s %10s %12s %12s %12s %12s  %s%n",
+		                             "kind", "count", "total ms", "mean us", "max us", "statements", "name"));
+
+		for (Timing aTiming : hotSpots(theLimit)) {
+			aReport.append(String.format("%-15s %10d %12.3f %12.3f %12.3f %12d  %s%n",
+			                             aTiming.getKind(),
+			                             aTiming.getCount(),
+			                             aTiming.getTotalNanos() / 1e6,
+			                             aTiming.getMeanNanos() / 1e3,
+			                             aTiming.getMaxNanos() / 1e3,
+			                             aTiming.getStatements(),
+			                             aTiming.getName()));
+		}
+
+		return aReport.toString();
+	}
+
+	@Override
+	public String toString() {
+		return report(20);
+	}
+
+	private Stats stats(final Kind theKind, final String theName) {
+		return mStats.computeIfAbsent(new Key(theKind, theName), aKey -> new Stats());
+	}
+
+	/**
+	 * The aggregated timing of one kind of operation on a class, property or codec
+	 */
+	public static final class Timing {
+		private final Kind mKind;
+		private final String mName;
+		private final long mCount;
+		private final long mTotalNanos;
+		private final long mMaxNanos;
+		private final long mStatements;
+
+		Timing(final Kind theKind, final String theName, final long theCount, final long theTotalNanos,
+		       final long theMaxNanos, final long theStatements) {
+			mKind = theKind;
+			mName = theName;
+			mCount = theCount;
+			mTotalNanos = theTotalNanos;
+			mMaxNanos = theMaxNanos;
+			mStatements = theStatements;
+		}
+
+		public Kind getKind() {
+			return mKind;
+		}
+
+		/**
+		 * The class name, {@code Class.property} name for properties, or type name for codecs
+		 */
+		public String getName() {
+			return mName;
+		}
+
+		public long getCount() {
+			return mCount;
+		}
+
+		public long getTotalNanos() {
+			return mTotalNanos;
+		}
+
+		public long getMaxNanos() {
+			return mMaxNanos;
+		}
+
+		public long getMeanNanos() {
+			return mCount == 0 ? 0 : mTotalNanos / mCount;
+		}
+
+		/**
+		 * The total number of statements read or written, only tracked for reads and writes of objects
+		 */
+		public long getStatements() {
+			return mStatements;
+		}
+
+		@Override
+		public String toString() {
+			return MoreObjects.toStringHelper(this)
+			                  .add("kind", mKind)
+			                  .add("name", mName)
+			                  .add("count", mCount)
+			                  .add("total", TimeUnit.NANOSECONDS.toMillis(mTotalNanos) + "ms")
+			                  .add("statements", mStatements)
+			                  .toString();
+		}
+	}
+
+	private static final class Key {
+		private final Kind mKind;
+		private final String mName;
+
+		Key(final Kind theKind, final String theName) {
+			mKind = theKind;
+			mName = theName;
+		}
+
+		@Override
+		public boolean equals(final Object theObj) {
+			if (theObj == this) {
+				return true;
+			}
+			else if (theObj instanceof Key) {
+				final Key aKey = (Key) theObj;
+
+				return mKind == aKey.mKind && mName.equals(aKey.mName);
+			}
+			else {
+				return false;
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(mKind, mName);
+		}
+	}
+
+	private static final class Stats {
+		private final LongAdder mCount = new LongAdder();
+		private final LongAdder mTotalNanos = new LongAdder();
+		private final LongAdder mStatements = new LongAdder();
+		private final LongAccumulator mMaxNanos = new LongAccumulator(Math::max, 0L);
+
+		void add(final long theNanos, final long theStatements) {
+			mCount.increment();
+			mTotalNanos.add(theNanos);
+			mStatements.add(theStatements);
+			mMaxNanos.accumulate(theNanos);
+		}
+
+		Timing timing(final Key theKey) {
+			return new Timing(theKey.mKind, theKey.mName, mCount.sum(), mTotalNanos.sum(), mMaxNanos.get(),
+			                  mStatements.sum());
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Hit and miss counts of one of the caches used by the mapper.  The counters are {@link LongAdder adders}, so
+ * recording a lookup is cheap enough to always be done, even from many threads.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class CacheStats {
+	private final String mName;
+
+	private final LongAdder mLookups = new LongAdder();
+	private final LongAdder mMisses = new LongAdder();
+
+	public CacheStats(final String theName) {
+		mName = theName;
+	}
+
+	public String getName() {
+		return mName;
+	}
+
+	/**
+	 * Record a lookup in the cache
+	 */
+	public void lookup() {
+		mLookups.increment();
+	}
+
+	/**
+	 * Record that a lookup missed and the value had to be computed
+	 */
+	public void miss() {
+		mMisses.increment();
+	}
+
+	public long getLookups() {
+		return mLookups.sum();
+	}
+
+	public long getMisses() {
+		return mMisses.sum();
+	}
+
+	public long getHits() {
+		return Math.max(0, getLookups() - getMisses());
+	}
+
+	/**
+	 * Return the fraction of lookups which were hits, or 1 if there have been no lookups
+	 *
+	 * @return the hit rate
+	 */
+	public double getHitRate() {
+		final long aLookups = getLookups();
+
+		return aLookups == 0 ? 1d : (double) getHits() / aLookups;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d lookups, %.1f%% hits", mName, getLookups(), getHitRate() * 100);
+	}
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.metrics;
+
+import com.google.common.collect.ImmutableMap;
+import org.slf4j.Logger;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Counts the conditions an {@link com.complexible.pinto.RDFMapper} would otherwise log each time it finds them, such
+ * as cardinality violations or map entries which cannot be read, by the class, property and {@link Kind kind} of the
+ * condition.  The first occurrence of each condition is logged as it's found; after that, occurrences are only counted,
+ * and a summary of the conditions found again is logged at most once per interval.  So dirty data costs a counter
+ * increment per occurrence, rather than a log statement, and does not flood the logs.</p>
+ *
+ * <p>Summaries are logged by the thread reporting a condition once the interval has passed, there is no background
+ * thread; {@link #summarize()} logs one right away, e.g. at the end of a job.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ *
+ * @see com.complexible.pinto.RDFMapper#diagnostics()
+ */
+public final class Diagnostics {
+
+	/**
+	 * The kinds of conditions which are counted
+	 */
+	public enum Kind {
+		/**
+		 * A property which takes a single value has several, and the mapper is set to use the first
+		 */
+		CARDINALITY_VIOLATION(true),
+
+		/**
+		 * An entry of a map was skipped because its key or value could not be read
+		 */
+		INVALID_MAP_ENTRY(true),
+
+		/**
+		 * A literal with the datatype {@code xsd:anyURI} is not a valid URI, and was read as null
+		 */
+		INVALID_URI(true),
+
+		/**
+		 * An IRI does not correspond to any of the constants of the enum it's read as
+		 */
+		UNKNOWN_ENUM(false);
+
+		private final boolean mWarning;
+
+		Kind(final boolean theWarning) {
+			mWarning = theWarning;
+		}
+
+		/**
+		 * Return whether or not conditions of this kind are logged as warnings, rather than at info level
+		 *
+		 * @return true if they are warnings
+		 */
+		public boolean isWarning() {
+			return mWarning;
+		}
+	}
+
+	private final Logger mLogger;
+	private final long mIntervalNanos;
+
+	private final ConcurrentMap<Condition, Count> mCounts = new ConcurrentHashMap<>();
+
+	/**
+	 * When the next summary is due, in {@link System#nanoTime() nanos}
+	 */
+	private final AtomicLong mNextSummary;
+
+	/**
+	 * Create the diagnostics
+	 *
+	 * @param theLogger     the logger to log the conditions and summaries to
+	 * @param theInterval   the least time between two summaries, or {@code 0} to log each occurrence
+	 * @param theUnit       the unit of the interval
+	 */
+	public Diagnostics(final Logger theLogger, final long theInterval, final TimeUnit theUnit) {
+		mLogger = theLogger;
+		mIntervalNanos = theUnit.toNanos(theInterval);
+		mNextSummary = new AtomicLong(System.nanoTime() + mIntervalNanos);
+	}
+
+	/**
+	 * Report an occurrence of a condition.  It's logged with the message if it is the first occurrence of the
+	 * condition, or if there is no interval between summaries, otherwise it's only counted.
+	 *
+	 * @param theKind       the kind of condition
+	 * @param theClass      the class the condition was found in, or null if it is not known
+	 * @param theProperty   the name of the property the condition was found for, or null if it is not known
+	 * @param theMessage    the message to log, in the format of the logger
+	 * @param theArgs       the arguments of the message
+	 */
+	public void report(final Kind theKind, final Class<?> theClass, final String theProperty, final String theMessage,
+	                   final Object... theArgs) {
+		final Condition aCondition = new Condition(theKind, theClass, theProperty);
+
+		Count aCount = mCounts.get(aCondition);
+
+		if (aCount == null) {
+			final Count aNew = new Count();
+
+			aCount = mCounts.putIfAbsent(aCondition, aNew);
+
+			if (aCount == null) {
+				aNew.mTotal.increment();
+				log(theKind, theMessage, theArgs);
+				return;
+			}
+		}
+
+		aCount.mTotal.increment();
+
+		if (mIntervalNanos <= 0) {
+			log(theKind, theMessage, theArgs);
+			return;
+		}
+
+		aCount.mPending.increment();
+
+		final long aDue = mNextSummary.get();
+
+		if (System.nanoTime() - aDue >= 0 && mNextSummary.compareAndSet(aDue, System.nanoTime() + mIntervalNanos)) {
+			summarize();
+		}
+	}
+
+	/**
+	 * Log the number of times each condition was found since it was first logged, or since the last summary
+	 */
+	public void summarize() {
+		for (Map.Entry<Condition, Count> aEntry : mCounts.entrySet()) {
+			final long aPending = aEntry.getValue().mPending.sumThenReset();
+
+			if (aPending == 0) {
+				continue;
+			}
+
+			final Condition aCondition = aEntry.getKey();
+
+			log(aCondition.kind(), "{} more occurrences of {} (total {})", aPending, aCondition,
+			    aEntry.getValue().mTotal.sum());
+		}
+	}
+
+	/**
+	 * Return the number of times each condition has been found
+	 *
+	 * @return the counts
+	 */
+	public Map<Condition, Long> counts() {
+		final ImmutableMap.Builder<Condition, Long> aCounts = ImmutableMap.builder();
+
+		for (Map.Entry<Condition, Count> aEntry : mCounts.entrySet()) {
+			aCounts.put(aEntry.getKey(), aEntry.getValue().mTotal.sum());
+		}
+
+		return aCounts.build();
+	}
+
+	/**
+	 * Return the number of times conditions of the kind have been found
+	 *
+	 * @param theKind   the kind of condition
+	 * @return          the count
+	 */
+	public long count(final Kind theKind) {
+		long aCount = 0;
+
+		for (Map.Entry<Condition, Count> aEntry : mCounts.entrySet()) {
+			if (aEntry.getKey().kind() == theKind) {
+				aCount += aEntry.getValue().mTotal.sum();
+			}
+		}
+
+		return aCount;
+	}
+
+	private void log(final Kind theKind, final String theMessage, final Object... theArgs) {
+		if (theKind.isWarning()) {
+			mLogger.warn(theMessage, theArgs);
+		}
+		else {
+			mLogger.info(theMessage, theArgs);
+		}
+	}
+
+	private static final class Count {
+		private final LongAdder mTotal = new LongAdder();
+
+		/**
+		 * The occurrences which have not been logged, or included in a summary
+		 */
+		private final LongAdder mPending = new LongAdder();
+	}
+
+	/**
+	 * <p>A condition the mapper found: its kind, and the class and property it was found in.</p>
+	 */
+	public static final class Condition {
+		private final Kind mKind;
+		private final Class<?> mClass;
+		private final String mProperty;
+
+		public Condition(final Kind theKind, final Class<?> theClass, final String theProperty) {
+			mKind = theKind;
+			mClass = theClass;
+			mProperty = theProperty;
+		}
+
+		public Kind kind() {
+			return mKind;
+		}
+
+		/**
+		 * Return the class the condition was found in
+		 *
+		 * @return the class, or null if it is not known
+		 */
+		public Class<?> type() {
+			return mClass;
+		}
+
+		/**
+		 * Return the name of the property the condition was found for
+		 *
+		 * @return the property, or null if it is not known
+		 */
+		public String property() {
+			return mProperty;
+		}
+
+		@Override
+		public boolean equals(final Object theObj) {
+			if (theObj == this) {
+				return true;
+			}
+			else if (theObj instanceof Condition) {
+				final Condition aCondition = (Condition) theObj;
+
+				return mKind == aCondition.mKind
+				       && Objects.equals(mClass, aCondition.mClass)
+				       && Objects.equals(mProperty, aCondition.mProperty);
+			}
+			else {
+				return false;
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(mKind, mClass, mProperty);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s in %s.%s", mKind, mClass == null ? "?" : mClass.getSimpleName(),
+			                     mProperty == null ? "?" : mProperty);
+		}
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.metrics;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A latency histogram with fixed, decade sized, buckets from 1&micro;s to 10s.  Recording a value is a handful of
+ * comparisons and two {@link LongAdder} increments; there is no locking and no allocation.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class Histogram {
+
+	/**
+	 * The upper bounds, inclusive, of the buckets in nanoseconds.  There is one more bucket for anything larger.
+	 */
+	private static final long[] BOUNDS = {
+		TimeUnit.MICROSECONDS.toNanos(1),
+		TimeUnit.MICROSECONDS.toNanos(10),
+		TimeUnit.MICROSECONDS.toNanos(100),
+		TimeUnit.MILLISECONDS.toNanos(1),
+		TimeUnit.MILLISECONDS.toNanos(10),
+		TimeUnit.MILLISECONDS.toNanos(100),
+		TimeUnit.SECONDS.toNanos(1),
+		TimeUnit.SECONDS.toNanos(10)
+	};
+
+	private static final String[] LABELS = { "<=1us", "<=10us", "<=100us", "<=1ms", "<=10ms", "<=100ms", "<=1s", "<=10s",
+	                                         ">10s" };
+
+	private final LongAdder[] mBuckets = new LongAdder[BOUNDS.length + 1];
+	private final LongAdder mTotalNanos = new LongAdder();
+
+	public Histogram() {
+		for (int i = 0; i < mBuckets.length; i++) {
+			mBuckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Record a latency
+	 *
+	 * @param theNanos  the latency in nanoseconds
+	 */
+	public void record(final long theNanos) {
+		int aBucket = 0;
+		while (aBucket < BOUNDS.length && theNanos > BOUNDS[aBucket]) {
+			aBucket++;
+		}
+
+		mBuckets[aBucket].increment();
+		mTotalNanos.add(theNanos);
+	}
+
+	/**
+	 * Clear the histogram
+	 */
+	public void reset() {
+		for (LongAdder aBucket : mBuckets) {
+			aBucket.reset();
+		}
+
+		mTotalNanos.reset();
+	}
+
+	/**
+	 * Return a point in time copy of the histogram
+	 *
+	 * @return the snapshot
+	 */
+	public Snapshot snapshot() {
+		final long[] aCounts = new long[mBuckets.length];
+		for (int i = 0; i < aCounts.length; i++) {
+			aCounts[i] = mBuckets[i].sum();
+		}
+
+		return new Snapshot(aCounts, mTotalNanos.sum());
+	}
+
+	/**
+	 * An immutable copy of the counts of a {@link Histogram}
+	 */
+	public static final class Snapshot {
+		private final long[] mCounts;
+		private final long mTotalNanos;
+		private final long mCount;
+
+		Snapshot(final long[] theCounts, final long theTotalNanos) {
+			mCounts = theCounts;
+			mTotalNanos = theTotalNanos;
+			mCount = Arrays.stream(theCounts).sum();
+		}
+
+		public long getCount() {
+			return mCount;
+		}
+
+		public long getTotalNanos() {
+			return mTotalNanos;
+		}
+
+		public long getMeanNanos() {
+			return mCount == 0 ? 0 : mTotalNanos / mCount;
+		}
+
+		/**
+		 * Return the upper bound of the bucket containing the given percentile, or {@code Long.MAX_VALUE} if it is in
+		 * the last, unbounded, bucket.
+		 *
+		 * @param thePercentile the percentile, between 0 and 100
+		 * @return              the upper bound, in nanoseconds, or 0 if nothing has been recorded
+		 */
+		public long getPercentileNanos(final double thePercentile) {
+			if (mCount == 0) {
+				return 0;
+			}
+
+			final long aRank = (long) Math.ceil(mCount * (thePercentile / 100d));
+
+			long aSeen = 0;
+			for (int i = 0; i < BOUNDS.length; i++) {
+				aSeen += mCounts[i];
+
+				if (aSeen >= aRank) {
+					return BOUNDS[i];
+				}
+			}
+
+			return Long.MAX_VALUE;
+		}
+
+		/**
+		 * Return the count of each bucket, by its label, e.g. {@code <=1ms}, in order of the buckets
+		 *
+		 * @return the counts
+		 */
+		public Map<String, Long> getBuckets() {
+			final ImmutableMap.Builder<String, Long> aBuckets = ImmutableMap.builder();
+			for (int i = 0; i < mCounts.length; i++) {
+				aBuckets.put(LABELS[i], mCounts[i]);
+			}
+
+			return aBuckets.build();
+		}
+
+		@Override
+		public String toString() {
+			return getBuckets().toString();
+		}
+	}
+}
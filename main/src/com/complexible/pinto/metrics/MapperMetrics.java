@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.metrics;
+
+import com.complexible.pinto.MappingListener;
+import com.complexible.pinto.RDFCodec;
+import com.google.common.collect.ImmutableMap;
+import org.openrdf.model.Literal;
+import org.openrdf.model.Resource;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Operational metrics for an {@link com.complexible.pinto.RDFMapper}: objects and statements read and written,
+ * codec invocations, errors, read and write latency, and the hit rates of the mapper's caches.  Counters are
+ * {@link LongAdder adders} and the latencies are fixed bucket {@link Histogram histograms}, so the metrics are cheap
+ * enough to leave on in production.</p>
+ *
+ * <pre>
+ *     MapperMetrics aMetrics = new MapperMetrics();
+ *     RDFMapper aMapper = RDFMapper.builder().metrics(aMetrics).build();
+ *
+ *     aMetrics.register("orders");
+ *
+ *     // ... use the mapper
+ *
+ *     MapperMetrics.Snapshot aSnapshot = aMetrics.snapshot();
+ * </pre>
+ *
+ * <p>Objects are counted whether they are read or written directly or as the value of a property of another object;
+ * latencies are those of the calls to the mapper.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class MapperMetrics implements MappingListener, MapperMetricsMXBean {
+
+	/**
+	 * The domain of the names the metrics are {@link #register(String) registered} under
+	 */
+	public static final String DOMAIN = "com.complexible.pinto";
+
+	private final LongAdder mObjectsRead = new LongAdder();
+	private final LongAdder mObjectsWritten = new LongAdder();
+	private final LongAdder mStatementsRead = new LongAdder();
+	private final LongAdder mStatementsWritten = new LongAdder();
+	private final LongAdder mCodecInvocations = new LongAdder();
+	private final LongAdder mErrors = new LongAdder();
+	private final LongAdder mLiteralConversionFailures = new LongAdder();
+	private final LongAdder mCardinalityViolations = new LongAdder();
+
+	private final Histogram mReadLatency = new Histogram();
+	private final Histogram mWriteLatency = new Histogram();
+
+	private final ConcurrentMap<String, CacheStats> mCaches = new ConcurrentHashMap<>();
+
+	/**
+	 * How deeply nested the current read and write of each thread is, so the calls to the mapper can be told apart
+	 * from the objects they contain
+	 */
+	private final ThreadLocal<int[]> mDepth = ThreadLocal.withInitial(() -> new int[2]);
+
+	private volatile ObjectName mName;
+
+	/**
+	 * Include the stats of the given cache in these metrics
+	 *
+	 * @param theCache  the cache stats
+	 * @return          this object
+	 */
+	public MapperMetrics track(final CacheStats theCache) {
+		mCaches.put(theCache.getName(), theCache);
+		return this;
+	}
+
+	/**
+	 * Register these metrics with the platform MBean server as {@code com.complexible.pinto:type=RDFMapper,name=...}
+	 *
+	 * @param theName   the name of the mapper
+	 * @return          the name the metrics are registered under
+	 * @throws IllegalStateException if the metrics could not be registered, for example, because there are already
+	 *                               metrics registered with the name
+	 */
+	public synchronized ObjectName register(final String theName) {
+		try {
+			final ObjectName aName = new ObjectName(DOMAIN + ":type=RDFMapper,name=" + ObjectName.quote(theName));
+
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, aName);
+
+			mName = aName;
+
+			return aName;
+		}
+		catch (JMException e) {
+			throw new IllegalStateException("Could not register the mapper metrics as " + theName, e);
+		}
+	}
+
+	/**
+	 * Remove these metrics from the platform MBean server, if they are registered
+	 */
+	public synchronized void unregister() {
+		if (mName == null) {
+			return;
+		}
+
+		final MBeanServer aServer = ManagementFactory.getPlatformMBeanServer();
+
+		try {
+			if (aServer.isRegistered(mName)) {
+				aServer.unregisterMBean(mName);
+			}
+		}
+		catch (JMException e) {
+			throw new IllegalStateException("Could not unregister the mapper metrics " + mName, e);
+		}
+		finally {
+			mName = null;
+		}
+	}
+
+	/**
+	 * Return a point in time copy of the metrics
+	 *
+	 * @return the snapshot
+	 */
+	public Snapshot snapshot() {
+		return new Snapshot(this);
+	}
+
+	@Override
+	public void beginRead(final Class<?> theClass, final Resource theSubject) {
+		mDepth.get()[0]++;
+	}
+
+	@Override
+	public void endRead(final Class<?> theClass, final Resource theSubject, final long theStatements,
+	                    final long theElapsedNanos) {
+		mObjectsRead.increment();
+
+		// the statements are only those about the subject, so they're not double counted by the nested reads
+		mStatementsRead.add(theStatements);
+
+		if (--mDepth.get()[0] == 0) {
+			mReadLatency.record(theElapsedNanos);
+		}
+	}
+
+	@Override
+	public void beginWrite(final Class<?> theClass) {
+		mDepth.get()[1]++;
+	}
+
+	@Override
+	public void endWrite(final Class<?> theClass, final Resource theSubject, final long theStatements,
+	                     final long theElapsedNanos) {
+		mObjectsWritten.increment();
+
+		// the statements of a write include those of the nested objects
+		if (--mDepth.get()[1] == 0) {
+			mStatementsWritten.add(theStatements);
+			mWriteLatency.record(theElapsedNanos);
+		}
+	}
+
+	@Override
+	public void endCodec(final Operation theOperation, final Class<?> theType, final RDFCodec<?> theCodec,
+	                     final long theElapsedNanos) {
+		mCodecInvocations.increment();
+	}
+
+	@Override
+	public void error(final Operation theOperation, final Class<?> theClass, final Exception theError) {
+		mErrors.increment();
+	}
+
+	@Override
+	public void literalConversionFailed(final Literal theLiteral, final Class<?> theType, final Exception theError) {
+		mLiteralConversionFailures.increment();
+	}
+
+	@Override
+	public void cardinalityViolation(final Class<?> theClass, final String theProperty, final int theValues) {
+		mCardinalityViolations.increment();
+	}
+
+	@Override
+	public long getObjectsRead() {
+		return mObjectsRead.sum();
+	}
+
+	@Override
+	public long getObjectsWritten() {
+		return mObjectsWritten.sum();
+	}
+
+	@Override
+	public long getStatementsRead() {
+		return mStatementsRead.sum();
+	}
+
+	@Override
+	public long getStatementsWritten() {
+		return mStatementsWritten.sum();
+	}
+
+	@Override
+	public long getCodecInvocations() {
+		return mCodecInvocations.sum();
+	}
+
+	@Override
+	public long getErrors() {
+		return mErrors.sum();
+	}
+
+	@Override
+	public long getLiteralConversionFailures() {
+		return mLiteralConversionFailures.sum();
+	}
+
+	@Override
+	public long getCardinalityViolations() {
+		return mCardinalityViolations.sum();
+	}
+
+	@Override
+	public Map<String, Long> getReadLatency() {
+		return mReadLatency.snapshot().getBuckets();
+	}
+
+	@Override
+	public Map<String, Long> getWriteLatency() {
+		return mWriteLatency.snapshot().getBuckets();
+	}
+
+	@Override
+	public long getReadLatencyMeanNanos() {
+		return mReadLatency.snapshot().getMeanNanos();
+	}
+
+	@Override
+	public long getWriteLatencyMeanNanos() {
+		return mWriteLatency.snapshot().getMeanNanos();
+	}
+
+	@Override
+	public Map<String, Double> getCacheHitRates() {
+		final ImmutableMap.Builder<String, Double> aRates = ImmutableMap.builder();
+		for (CacheStats aCache : mCaches.values()) {
+			aRates.put(aCache.getName(), aCache.getHitRate());
+		}
+
+		return aRates.build();
+	}
+
+	@Override
+	public void reset() {
+		mObjectsRead.reset();
+		mObjectsWritten.reset();
+		mStatementsRead.reset();
+		mStatementsWritten.reset();
+		mCodecInvocations.reset();
+		mErrors.reset();
+		mLiteralConversionFailures.reset();
+		mCardinalityViolations.reset();
+		mReadLatency.reset();
+		mWriteLatency.reset();
+	}
+
+	/**
+	 * An immutable copy of {@link MapperMetrics}
+	 */
+	public static final class Snapshot {
+		private final long mObjectsRead;
+		private final long mObjectsWritten;
+		private final long mStatementsRead;
+		private final long mStatementsWritten;
+		private final long mCodecInvocations;
+		private final long mErrors;
+		private final long mLiteralConversionFailures;
+		private final long mCardinalityViolations;
+		private final Histogram.Snapshot mReadLatency;
+		private final Histogram.Snapshot mWriteLatency;
+		private final Map<String, Double> mCacheHitRates;
+
+		private Snapshot(final MapperMetrics theMetrics) {
+			mObjectsRead = theMetrics.getObjectsRead();
+			mObjectsWritten = theMetrics.getObjectsWritten();
+			mStatementsRead = theMetrics.getStatementsRead();
+			mStatementsWritten = theMetrics.getStatementsWritten();
+			mCodecInvocations = theMetrics.getCodecInvocations();
+			mErrors = theMetrics.getErrors();
+			mLiteralConversionFailures = theMetrics.getLiteralConversionFailures();
+			mCardinalityViolations = theMetrics.getCardinalityViolations();
+			mReadLatency = theMetrics.mReadLatency.snapshot();
+			mWriteLatency = theMetrics.mWriteLatency.snapshot();
+			mCacheHitRates = theMetrics.getCacheHitRates();
+		}
+
+		public long getObjectsRead() {
+			return mObjectsRead;
+		}
+
+		public long getObjectsWritten() {
+			return mObjectsWritten;
+		}
+
+		public long getStatementsRead() {
+			return mStatementsRead;
+		}
+
+		public long getStatementsWritten() {
+			return mStatementsWritten;
+		}
+
+		public long getCodecInvocations() {
+			return mCodecInvocations;
+		}
+
+		public long getErrors() {
+			return mErrors;
+		}
+
+		public long getLiteralConversionFailures() {
+			return mLiteralConversionFailures;
+		}
+
+		public long getCardinalityViolations() {
+			return mCardinalityViolations;
+		}
+
+		public Histogram.Snapshot getReadLatency() {
+			return mReadLatency;
+		}
+
+		public Histogram.Snapshot getWriteLatency() {
+			return mWriteLatency;
+		}
+
+		public Map<String, Double> getCacheHitRates() {
+			return mCacheHitRates;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("read %d objects (%d statements), wrote %d objects (%d statements), %d codec calls, " +
+			                     "%d errors, %d literal conversion failures, %d cardinality violations, " +
+			                     "read latency %s, write latency %s, cache hit rates %s",
+			                     mObjectsRead, mStatementsRead, mObjectsWritten, mStatementsWritten, mCodecInvocations,
+			                     mErrors, mLiteralConversionFailures, mCardinalityViolations, mReadLatency,
+			                     mWriteLatency, mCacheHitRates);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.metrics;
+
+import java.util.Map;
+
+/**
+ * <p>The JMX view of {@link MapperMetrics}.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public interface MapperMetricsMXBean {
+
+	public long getObjectsRead();
+
+	public long getObjectsWritten();
+
+	public long getStatementsRead();
+
+	public long getStatementsWritten();
+
+	public long getCodecInvocations();
+
+	public long getErrors();
+
+	public long getLiteralConversionFailures();
+
+	public long getCardinalityViolations();
+
+	/**
+	 * The number of calls to read an object by latency bucket
+	 */
+	public Map<String, Long> getReadLatency();
+
+	/**
+	 * The number of calls to write an object by latency bucket
+	 */
+	public Map<String, Long> getWriteLatency();
+
+	public long getReadLatencyMeanNanos();
+
+	public long getWriteLatencyMeanNanos();
+
+	/**
+	 * The hit rate, between 0 and 1, of each of the caches used by the mapper
+	 */
+	public Map<String, Double> getCacheHitRates();
+
+	/**
+	 * Reset all the counters and histograms, other than those of the caches, which may be shared between mappers
+	 */
+	public void reset();
+}
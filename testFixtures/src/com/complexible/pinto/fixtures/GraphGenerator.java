@@ -0,0 +1,488 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.fixtures;
+
+import com.complexible.common.openrdf.model.Models2;
+import com.complexible.common.utils.Dates2;
+import com.complexible.pinto.RDFMapper;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Value;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.model.impl.SimpleValueFactory;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.XMLSchema;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandler;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.Rio;
+import org.openrdf.rio.helpers.AbstractRDFHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * <p>Seeded generator of {@link SyntheticBeans Company/Person} style object graphs in the RDF layout produced by
+ * {@link RDFMapper}, for exercising the mapper at scale.  The same settings and seed always produce the same
+ * statements, in the same order.</p>
+ *
+ * <p>Each company has {@code fanOut} departments, each department has {@code fanOut} members and, down to the
+ * configured {@code depth}, {@code fanOut} sub-departments.  Literal valued collections, tags and skills, have
+ * {@code collectionSize} distinct elements, as do the attribute maps when {@link Builder#maps(boolean) enabled}, whose
+ * values are drawn from the configured {@link Builder#literal(LiteralKind, int) literal mix}.</p>
+ *
+ * <p>Statements are streamed to an {@link RDFHandler}, so very large graphs can be written to an N-Triples file without
+ * being held in memory.</p>
+ *
+ * <pre>
+ *     Model aGraph = GraphGenerator.builder()
+ *                                  .seed(42)
+ *                                  .companies(10)
+ *                                  .fanOut(5)
+ *                                  .depth(2)
+ *                                  .build()
+ *                                  .model();
+ * </pre>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class GraphGenerator {
+
+	/**
+	 * The kinds of literal values which can be generated for the attribute maps
+	 */
+	public enum LiteralKind {
+		STRING, INT, LONG, DOUBLE, BOOLEAN, DATETIME
+	}
+
+	private static final String[] WORDS = { "alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel",
+	                                        "india", "juliet", "kilo", "lima", "mike", "november", "oscar", "papa" };
+
+	private static final String[] COUNTRIES = { "US", "GB", "DE", "FR", "HU", "JP", "BR", "IN" };
+
+	private final ValueFactory mValueFactory = SimpleValueFactory.getInstance();
+
+	private final long mSeed;
+	private final int mCompanies;
+	private final int mFanOut;
+	private final int mDepth;
+	private final int mCollectionSize;
+	private final boolean mRdfLists;
+	private final boolean mMaps;
+	private final long mLimit;
+	private final LiteralKind[] mLiteralMix;
+
+	private final Map<String, IRI> mProperties = Maps.newHashMap();
+
+	private GraphGenerator(final Builder theBuilder) {
+		mSeed = theBuilder.mSeed;
+		mCompanies = theBuilder.mCompanies;
+		mFanOut = theBuilder.mFanOut;
+		mDepth = theBuilder.mDepth;
+		mCollectionSize = theBuilder.mCollectionSize;
+		mRdfLists = theBuilder.mRdfLists;
+		mMaps = theBuilder.mMaps;
+		mLimit = theBuilder.mLimit;
+
+		// expand the weights into a table we can index with a random number
+		final List<LiteralKind> aMix = Lists.newArrayList();
+		for (Map.Entry<LiteralKind, Integer> aEntry : theBuilder.mLiteralWeights.entrySet()) {
+			for (int i = 0; i < aEntry.getValue(); i++) {
+				aMix.add(aEntry.getKey());
+			}
+		}
+
+		Preconditions.checkArgument(!aMix.isEmpty(), "At least one kind of literal must have a positive weight");
+
+		mLiteralMix = aMix.toArray(new LiteralKind[aMix.size()]);
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Return the identifier of the n-th company in the generated graph
+	 *
+	 * @param theIndex  the index of the company
+	 * @return          its identifier
+	 */
+	public static IRI company(final int theIndex) {
+		return SimpleValueFactory.getInstance().createIRI(SyntheticBeans.NS, "company/" + theIndex);
+	}
+
+	/**
+	 * Generate the graph into a new {@link Model}
+	 *
+	 * @return the graph
+	 */
+	public Model model() {
+		final Model aModel = Models2.newModel();
+
+		generate(new AbstractRDFHandler() {
+			@Override
+			public void handleStatement(final org.openrdf.model.Statement theStatement) throws RDFHandlerException {
+				aModel.add(theStatement);
+			}
+		});
+
+		return aModel;
+	}
+
+	/**
+	 * Generate the graph into the given file as N-Triples
+	 *
+	 * @param theFile   the file to write
+	 * @return          the number of statements written
+	 * @throws IOException if there was an error writing the file
+	 */
+	public long write(final Path theFile) throws IOException {
+		try (OutputStream aOut = new BufferedOutputStream(Files.newOutputStream(theFile), 1 << 16)) {
+			return generate(Rio.createWriter(RDFFormat.NTRIPLES, aOut));
+		}
+	}
+
+	/**
+	 * Generate the graph, passing each statement to the handler
+	 *
+	 * @param theHandler    the handler
+	 * @return              the number of statements generated
+	 */
+	public long generate(final RDFHandler theHandler) {
+		final Generation aGeneration = new Generation(theHandler);
+
+		theHandler.startRDF();
+
+		for (int i = 0; i < mCompanies && aGeneration.mCount < mLimit; i++) {
+			aGeneration.company(i);
+		}
+
+		theHandler.endRDF();
+
+		return aGeneration.mCount;
+	}
+
+	private IRI property(final String theName) {
+		return mProperties.computeIfAbsent(theName, aName -> mValueFactory.createIRI(RDFMapper.DEFAULT_NAMESPACE, aName));
+	}
+
+	private IRI type(final String theName) {
+		return mValueFactory.createIRI(SyntheticBeans.NS, theName);
+	}
+
+	/**
+	 * The state of a single run of the generator
+	 */
+	private final class Generation {
+		private final RDFHandler mHandler;
+		private final Random mRandom = new Random(mSeed);
+
+		private long mCount = 0;
+		private long mBNodes = 0;
+
+		Generation(final RDFHandler theHandler) {
+			mHandler = theHandler;
+		}
+
+		void company(final int theIndex) {
+			final IRI aCompany = GraphGenerator.company(theIndex);
+
+			add(aCompany, RDF.TYPE, type("Company"));
+			add(aCompany, property("name"), string("Company " + theIndex));
+			add(aCompany, property("founded"), mValueFactory.createLiteral(1900 + mRandom.nextInt(120)));
+			add(aCompany, property("revenue"), mValueFactory.createLiteral(mRandom.nextDouble() * 1e9));
+			add(aCompany, property("listed"), mValueFactory.createLiteral(mRandom.nextBoolean()));
+
+			collection(aCompany, property("tags"), words(mCollectionSize));
+
+			final List<Value> aDepartments = Lists.newArrayListWithCapacity(mFanOut);
+			for (int i = 0; i < mFanOut; i++) {
+				aDepartments.add(department(theIndex + "/" + i, 1));
+			}
+
+			collection(aCompany, property("departments"), aDepartments);
+
+			if (mMaps) {
+				map(aCompany, property("attributes"));
+			}
+		}
+
+		IRI department(final String thePath, final int theLevel) {
+			final IRI aDepartment = mValueFactory.createIRI(SyntheticBeans.NS, "department/" + thePath);
+
+			add(aDepartment, RDF.TYPE, type("Department"));
+			add(aDepartment, property("name"), string("Department " + thePath));
+
+			final List<Value> aMembers = Lists.newArrayListWithCapacity(mFanOut);
+			for (int i = 0; i < mFanOut; i++) {
+				aMembers.add(person(thePath + "/" + i));
+			}
+
+			collection(aDepartment, property("members"), aMembers);
+
+			if (theLevel < mDepth) {
+				final List<Value> aSubdepartments = Lists.newArrayListWithCapacity(mFanOut);
+				for (int i = 0; i < mFanOut; i++) {
+					aSubdepartments.add(department(thePath + "/" + i, theLevel + 1));
+				}
+
+				collection(aDepartment, property("subdepartments"), aSubdepartments);
+			}
+
+			return aDepartment;
+		}
+
+		IRI person(final String thePath) {
+			final IRI aPerson = mValueFactory.createIRI(SyntheticBeans.NS, "person/" + thePath);
+			final IRI aAddress = mValueFactory.createIRI(SyntheticBeans.NS, "address/" + thePath);
+
+			add(aPerson, RDF.TYPE, type("Person"));
+			add(aPerson, property("name"), string(word() + " " + word()));
+			add(aPerson, property("email"), string(word() + "." + thePath.replace('/', '.') + "@example.com"));
+			add(aPerson, property("age"), mValueFactory.createLiteral(18 + mRandom.nextInt(60)));
+			add(aPerson, property("salary"), mValueFactory.createLiteral(20000L + mRandom.nextInt(200000)));
+			add(aPerson, property("active"), mValueFactory.createLiteral(mRandom.nextBoolean()));
+			add(aPerson, property("address"), aAddress);
+
+			add(aAddress, RDF.TYPE, type("Address"));
+			add(aAddress, property("street"), string(mRandom.nextInt(1000) + " " + word() + " Street"));
+			add(aAddress, property("city"), string(word()));
+			add(aAddress, property("country"), string(COUNTRIES[mRandom.nextInt(COUNTRIES.length)]));
+
+			collection(aPerson, property("skills"), words(mCollectionSize));
+
+			if (mMaps) {
+				map(aPerson, property("attributes"));
+			}
+
+			return aPerson;
+		}
+
+		void collection(final Resource theSubject, final IRI theProperty, final List<Value> theValues) {
+			if (theValues.isEmpty()) {
+				return;
+			}
+
+			if (mRdfLists) {
+				Resource aCurr = bnode();
+				add(theSubject, theProperty, aCurr);
+
+				for (int i = 0; i < theValues.size(); i++) {
+					add(aCurr, RDF.FIRST, theValues.get(i));
+
+					final Resource aNext = i == theValues.size() - 1 ? RDF.NIL : bnode();
+					add(aCurr, RDF.REST, aNext);
+					aCurr = aNext;
+				}
+			}
+			else {
+				for (Value aValue : theValues) {
+					add(theSubject, theProperty, aValue);
+				}
+			}
+		}
+
+		void map(final Resource theSubject, final IRI theProperty) {
+			if (mCollectionSize == 0) {
+				return;
+			}
+
+			final Resource aMap = bnode();
+			add(theSubject, theProperty, aMap);
+
+			for (int i = 0; i < mCollectionSize; i++) {
+				final Resource aEntry = bnode();
+
+				add(aMap, RDFMapper.HAS_ENTRY, aEntry);
+				add(aEntry, RDFMapper.KEY, string("key" + i));
+				add(aEntry, RDFMapper.VALUE, literal());
+			}
+		}
+
+		Value literal() {
+			switch (mLiteralMix[mRandom.nextInt(mLiteralMix.length)]) {
+				case INT:
+					return mValueFactory.createLiteral(mRandom.nextInt(1000));
+				case LONG:
+					return mValueFactory.createLiteral(mRandom.nextLong());
+				case DOUBLE:
+					return mValueFactory.createLiteral(mRandom.nextDouble());
+				case BOOLEAN:
+					return mValueFactory.createLiteral(mRandom.nextBoolean());
+				case DATETIME:
+					return mValueFactory.createLiteral(Dates2.datetimeISO(new Date((mRandom.nextInt() & 0x7FFFFFFFL) * 1000L)),
+					                                   XMLSchema.DATETIME);
+				case STRING:
+				default:
+					return string(word());
+			}
+		}
+
+		/**
+		 * Return the given number of distinct words; a collection written as repeated assertions is a set of
+		 * statements, so a repeated word would be read back as one element
+		 */
+		List<Value> words(final int theCount) {
+			final List<String> aShuffled = Lists.newArrayList(WORDS);
+			Collections.shuffle(aShuffled, mRandom);
+
+			final List<Value> aWords = Lists.newArrayListWithCapacity(theCount);
+			for (int i = 0; i < theCount; i++) {
+				// once each word has been used, the words are suffixed with the round so they are still distinct
+				final String aWord = aShuffled.get(i % aShuffled.size());
+
+				aWords.add(string(i < aShuffled.size() ? aWord : aWord + "-" + (i / aShuffled.size())));
+			}
+
+			return aWords;
+		}
+
+		String word() {
+			return WORDS[mRandom.nextInt(WORDS.length)];
+		}
+
+		Value string(final String theValue) {
+			return mValueFactory.createLiteral(theValue, XMLSchema.STRING);
+		}
+
+		Resource bnode() {
+			return mValueFactory.createBNode("g" + (mBNodes++));
+		}
+
+		void add(final Resource theSubject, final IRI thePredicate, final Value theObject) {
+			mHandler.handleStatement(mValueFactory.createStatement(theSubject, thePredicate, theObject));
+			mCount++;
+		}
+	}
+
+	/**
+	 * Builder for a {@link GraphGenerator}
+	 */
+	public static final class Builder {
+		private long mSeed = 0L;
+		private int mCompanies = 1;
+		private int mFanOut = 3;
+		private int mDepth = 1;
+		private int mCollectionSize = 3;
+		private boolean mRdfLists = false;
+		private boolean mMaps = false;
+		private long mLimit = Long.MAX_VALUE;
+		private final Map<LiteralKind, Integer> mLiteralWeights = new EnumMap<>(LiteralKind.class);
+
+		private Builder() {
+			for (LiteralKind aKind : LiteralKind.values()) {
+				mLiteralWeights.put(aKind, 1);
+			}
+		}
+
+		/**
+		 * The seed for the random values in the graph
+		 */
+		public Builder seed(final long theSeed) {
+			mSeed = theSeed;
+			return this;
+		}
+
+		/**
+		 * The number of top-level companies to generate
+		 */
+		public Builder companies(final int theCompanies) {
+			Preconditions.checkArgument(theCompanies >= 0);
+			mCompanies = theCompanies;
+			return this;
+		}
+
+		/**
+		 * The number of departments per company, and members and sub-departments per department
+		 */
+		public Builder fanOut(final int theFanOut) {
+			Preconditions.checkArgument(theFanOut >= 0);
+			mFanOut = theFanOut;
+			return this;
+		}
+
+		/**
+		 * How deeply departments are nested, 1 means departments have no sub-departments
+		 */
+		public Builder depth(final int theDepth) {
+			Preconditions.checkArgument(theDepth >= 1);
+			mDepth = theDepth;
+			return this;
+		}
+
+		/**
+		 * The number of elements in the literal valued collections and the attribute maps
+		 */
+		public Builder collectionSize(final int theSize) {
+			Preconditions.checkArgument(theSize >= 0);
+			mCollectionSize = theSize;
+			return this;
+		}
+
+		/**
+		 * Whether collections are written as {@code rdf:List}s rather than repeated property assertions
+		 */
+		public Builder rdfLists(final boolean theRdfLists) {
+			mRdfLists = theRdfLists;
+			return this;
+		}
+
+		/**
+		 * Whether companies and people have an attribute map
+		 */
+		public Builder maps(final boolean theMaps) {
+			mMaps = theMaps;
+			return this;
+		}
+
+		/**
+		 * The relative weight of a kind of literal among the values of the attribute maps, zero to exclude it
+		 */
+		public Builder literal(final LiteralKind theKind, final int theWeight) {
+			Preconditions.checkArgument(theWeight >= 0);
+			mLiteralWeights.put(theKind, theWeight);
+			return this;
+		}
+
+		/**
+		 * Stop generating companies once the graph has at least this many statements.  Use with a large number of
+		 * {@link #companies(int) companies} to get a graph of roughly a given size.
+		 */
+		public Builder limit(final long theStatements) {
+			mLimit = theStatements;
+			return this;
+		}
+
+		public GraphGenerator build() {
+			return new GraphGenerator(this);
+		}
+	}
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.fixtures;
+
+import com.complexible.pinto.Identifiable;
+import com.complexible.pinto.annotations.RdfsClass;
+import com.complexible.pinto.impl.IdentifiableImpl;
+import org.openrdf.model.Resource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>The beans described by the RDF produced by {@link GraphGenerator}.  A {@link Company} has departments, which
+ * can have sub-departments, and each department has members who are {@link Person people} with an {@link Address}.</p>
+ *
+ * <p>The list valued properties are plain {@code List}s rather than annotated with {@code isList}; the mapper will
+ * read either repeated property assertions or an {@code rdf:List}, so the same beans work for both layouts.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class SyntheticBeans {
+	public static final String NS = "urn:pinto:synthetic:";
+
+	private SyntheticBeans() {
+		throw new AssertionError();
+	}
+
+	public static abstract class Bean implements Identifiable {
+		private final Identifiable mIdentifiable = new IdentifiableImpl();
+
+		@Override
+		public Resource id() {
+			return mIdentifiable.id();
+		}
+
+		@Override
+		public void id(final Resource theResource) {
+			mIdentifiable.id(theResource);
+		}
+	}
+
+	@RdfsClass(NS + "Company")
+	public static class Company extends Bean {
+		private String mName;
+		private int mFounded;
+		private double mRevenue;
+		private boolean mListed;
+		private List<String> mTags = new ArrayList<>();
+		private List<Department> mDepartments = new ArrayList<>();
+		private Map<String, Object> mAttributes = new LinkedHashMap<>();
+
+		public String getName() {
+			return mName;
+		}
+
+		public void setName(final String theName) {
+			mName = theName;
+		}
+
+		public int getFounded() {
+			return mFounded;
+		}
+
+		public void setFounded(final int theFounded) {
+			mFounded = theFounded;
+		}
+
+		public double getRevenue() {
+			return mRevenue;
+		}
+
+		public void setRevenue(final double theRevenue) {
+			mRevenue = theRevenue;
+		}
+
+		public boolean isListed() {
+			return mListed;
+		}
+
+		public void setListed(final boolean theListed) {
+			mListed = theListed;
+		}
+
+		public List<String> getTags() {
+			return mTags;
+		}
+
+		public void setTags(final List<String> theTags) {
+			mTags = theTags;
+		}
+
+		public List<Department> getDepartments() {
+			return mDepartments;
+		}
+
+		public void setDepartments(final List<Department> theDepartments) {
+			mDepartments = theDepartments;
+		}
+
+		public Map<String, Object> getAttributes() {
+			return mAttributes;
+		}
+
+		public void setAttributes(final Map<String, Object> theAttributes) {
+			mAttributes = theAttributes;
+		}
+	}
+
+	@RdfsClass(NS + "Department")
+	public static class Department extends Bean {
+		private String mName;
+		private List<Person> mMembers = new ArrayList<>();
+		private List<Department> mSubdepartments = new ArrayList<>();
+
+		public String getName() {
+			return mName;
+		}
+
+		public void setName(final String theName) {
+			mName = theName;
+		}
+
+		public List<Person> getMembers() {
+			return mMembers;
+		}
+
+		public void setMembers(final List<Person> theMembers) {
+			mMembers = theMembers;
+		}
+
+		public List<Department> getSubdepartments() {
+			return mSubdepartments;
+		}
+
+		public void setSubdepartments(final List<Department> theSubdepartments) {
+			mSubdepartments = theSubdepartments;
+		}
+	}
+
+	@RdfsClass(NS + "Person")
+	public static class Person extends Bean {
+		private String mName;
+		private String mEmail;
+		private int mAge;
+		private long mSalary;
+		private boolean mActive;
+		private Address mAddress;
+		private List<String> mSkills = new ArrayList<>();
+		private Map<String, Object> mAttributes = new LinkedHashMap<>();
+
+		public String getName() {
+			return mName;
+		}
+
+		public void setName(final String theName) {
+			mName = theName;
+		}
+
+		public String getEmail() {
+			return mEmail;
+		}
+
+		public void setEmail(final String theEmail) {
+			mEmail = theEmail;
+		}
+
+		public int getAge() {
+			return mAge;
+		}
+
+		public void setAge(final int theAge) {
+			mAge = theAge;
+		}
+
+		public long getSalary() {
+			return mSalary;
+		}
+
+		public void setSalary(final long theSalary) {
+			mSalary = theSalary;
+		}
+
+		public boolean isActive() {
+			return mActive;
+		}
+
+		public void setActive(final boolean theActive) {
+			mActive = theActive;
+		}
+
+		public Address getAddress() {
+			return mAddress;
+		}
+
+		public void setAddress(final Address theAddress) {
+			mAddress = theAddress;
+		}
+
+		public List<String> getSkills() {
+			return mSkills;
+		}
+
+		public void setSkills(final List<String> theSkills) {
+			mSkills = theSkills;
+		}
+
+		public Map<String, Object> getAttributes() {
+			return mAttributes;
+		}
+
+		public void setAttributes(final Map<String, Object> theAttributes) {
+			mAttributes = theAttributes;
+		}
+	}
+
+	@RdfsClass(NS + "Address")
+	public static class Address extends Bean {
+		private String mStreet;
+		private String mCity;
+		private String mCountry;
+
+		public String getStreet() {
+			return mStreet;
+		}
+
+		public void setStreet(final String theStreet) {
+			mStreet = theStreet;
+		}
+
+		public String getCity() {
+			return mCity;
+		}
+
+		public void setCity(final String theCity) {
+			mCity = theCity;
+		}
+
+		public String getCountry() {
+			return mCountry;
+		}
+
+		public void setCountry(final String theCountry) {
+			mCountry = theCountry;
+		}
+	}
+}